@@ -0,0 +1,493 @@
+package io.kemtoa.openapi.compat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.Set;
+import java.util.TreeMap;
+
+import io.kemtoa.openapi.compat.model.ApiDocument;
+import io.kemtoa.openapi.compat.model.ApiModelBuilder;
+import io.kemtoa.openapi.compat.report.Reports;
+import io.kemtoa.openapi.compat.rules.Finding;
+import io.kemtoa.openapi.compat.rules.FindingListener;
+import io.kemtoa.openapi.compat.rules.RuleConfiguration;
+import io.kemtoa.openapi.compat.rules.RuleSet;
+import io.kemtoa.openapi.compat.rules.RuleTiming;
+import io.kemtoa.openapi.compat.walker.OperationFilter;
+import io.kemtoa.openapi.compat.walker.WalkStatistics;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.annotations.Parameter;
+
+/**
+ * Parameters and checks shared by the compatibility check goals
+ *
+ * The specs of a source directory are grouped with their .lock files by
+ * relative path. Each group is checked on its own, and reports to the
+ * {@link Log} it is given, so the groups can be checked in parallel.
+ */
+public abstract class AbstractCompatibilityCheckMojo extends AbstractMojo {
+
+    @Parameter(property = "skipOpenApiCheck")
+    protected boolean skipOpenApiCheck;
+
+    /**
+     * Parse the specs without resolving the references ahead of time.
+     *
+     * The references are then resolved lazily by the compatibility check,
+     * only for the nodes it visits.
+     */
+    @Parameter(property = "openApiLazyRefResolution")
+    protected boolean lazyRefResolution;
+
+    /**
+     * Walk the schemas using an explicit stack rather than recursion.
+     *
+     * Allows to check specs with deeply nested schemas without raising
+     * the thread stack size of the Maven JVM.
+     */
+    @Parameter(property = "openApiIterativeWalk")
+    protected boolean iterativeWalk;
+
+    /**
+     * Number of threads evaluating the rules while the specs are walked.
+     *
+     * The rules are evaluated by the walking thread by default. The threads
+     * are shared by the groups checked one after the other.
+     */
+    @Parameter(property = "openApiRuleThreads", defaultValue = "1")
+    protected int ruleThreads = 1;
+
+    /**
+     * Globs of the paths to check, such as '/pets/**'. All the paths are checked by default.
+     */
+    @Parameter
+    private List<String> includePaths = new ArrayList<>();
+
+    /**
+     * Globs of the paths not to check.
+     */
+    @Parameter
+    private List<String> excludePaths = new ArrayList<>();
+
+    /**
+     * Tags of the operations to check. All the operations are checked by default.
+     */
+    @Parameter
+    private List<String> includeTags = new ArrayList<>();
+
+    /**
+     * Tags of the operations not to check.
+     */
+    @Parameter
+    private List<String> excludeTags = new ArrayList<>();
+
+    /**
+     * OperationIds of the operations to check. All the operations are checked by default.
+     */
+    @Parameter
+    private List<String> includeOperationIds = new ArrayList<>();
+
+    /**
+     * OperationIds of the operations not to check.
+     */
+    @Parameter
+    private List<String> excludeOperationIds = new ArrayList<>();
+
+    /**
+     * File listing the operations consumed by the clients of the APIs, one
+     * 'METHOD /path' per line. Only these operations are checked when set.
+     */
+    @Parameter(property = "openApiConsumedOperations")
+    private File consumedOperationsFile;
+
+    /**
+     * Print the walk counters and the hottest subtrees of the specs for each group.
+     */
+    @Parameter(property = "openApiExplain")
+    private boolean explain;
+
+    /**
+     * Number of subtrees printed for each category when {@link #explain} is enabled.
+     */
+    @Parameter(property = "openApiExplainLimit", defaultValue = "10")
+    private int explainLimit;
+
+    /**
+     * Formats of the reports of the findings: 'sarif', 'junit' and 'jsonl'.
+     *
+     * The findings are written to the reports as they are found. No report
+     * is written by default.
+     */
+    @Parameter(property = "openApiReportFormats")
+    private List<String> reportFormats = new ArrayList<>();
+
+    @Parameter(property = "openApiReportDirectory", defaultValue = "${project.build.directory}/openapi-compat")
+    private File reportDirectory;
+
+    @Parameter(defaultValue = "${project.basedir}", readonly = true)
+    private File projectBasedir;
+
+    /**
+     * Configuration of the rules, by rule id, such as:
+     *
+     * <pre>
+     * &lt;rules&gt;
+     *     &lt;rule&gt;
+     *         &lt;id&gt;PropertyTypeChangedRule&lt;/id&gt;
+     *         &lt;enabled&gt;false&lt;/enabled&gt;
+     *     &lt;/rule&gt;
+     * &lt;/rules&gt;
+     * </pre>
+     *
+     * The rules are looked up with {@link java.util.ServiceLoader}, custom
+     * rules are added as dependencies of the plugin.
+     */
+    @Parameter
+    private List<RuleConfiguration> rules = new ArrayList<>();
+
+    /**
+     * Time in milliseconds each rule may spend over the execution, unless
+     * configured otherwise in {@link #rules}. The rules have no budget by default.
+     */
+    @Parameter(property = "openApiRuleBudget")
+    private long ruleBudget;
+
+    /**
+     * Stop evaluating the rules over their budget for the rest of the execution,
+     * unless configured otherwise in {@link #rules}. The .lock files of the
+     * groups checked without all the rules are not updated.
+     */
+    @Parameter(property = "openApiDisableRulesOverBudget")
+    private boolean disableRulesOverBudget;
+
+    /**
+     * Number of parsed .lock files kept in memory between the executions of
+     * the plugin in the same JVM, such as with the Maven daemon. The cache
+     * is shared by all the executions, the last one setting its size.
+     * The .lock files referring to other files are not cached, unless
+     * openApiLazyRefResolution is set. Set to 0 to disable the cache.
+     */
+    @Parameter(property = "openApiParsedSpecCacheSize", defaultValue = "64")
+    private int parsedSpecCacheSize = ParsedSpecCache.DEFAULT_MAX_ENTRIES;
+
+    /**
+     * Check the changed paths first and then a sample of the other paths,
+     * stopping once {@link #quickCheckBudget} is spent, such as in a
+     * pre-commit hook. The .lock files are only updated when all the paths
+     * were checked.
+     */
+    @Parameter(property = "openApiQuickCheck")
+    private boolean quickCheck;
+
+    /**
+     * Time in milliseconds spent walking each group in a quick check.
+     */
+    @Parameter(property = "openApiQuickCheckBudget", defaultValue = "1000")
+    private long quickCheckBudget = 1000;
+
+    private static final String REPORT_NAME = "openapi-compat";
+
+    private static final Set<String> SPEC_EXTENSIONS = Set.of("yml", "yaml", "json");
+
+    static class OpenApiGroup {
+        final String name;
+        Path specPath;
+        Path lockPath;
+
+        private OpenApiGroup(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Passes the findings of a group to its log and to the reports
+     */
+    private static final class GroupFindings implements FindingListener {
+        private final OpenApiGroup group;
+        private final Reports reports;
+        private final Log log;
+        private boolean found;
+
+        private GroupFindings(OpenApiGroup group, Reports reports, Log log) {
+            this.group = group;
+            this.reports = reports;
+            this.log = log;
+        }
+
+        @Override
+        public synchronized void onFinding(Finding finding) {
+            if (!found) {
+                found = true;
+                log.error("Backwards incompatible changes were found for group '" + group.name + "':");
+            }
+            log.error(finding.toString());
+
+            try {
+                reports.finding(group.name, group.specPath, finding);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Creates the checker of the execution, looking up the rules once for all the groups
+     */
+    protected CompatibilityChecker createChecker() throws MojoExecutionException {
+        try {
+            ParsedSpecCache.setMaxEntries(parsedSpecCacheSize);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+
+        RuleSet ruleSet;
+        try {
+            ruleSet = RuleSet.builder()
+                    .classLoader(getClass().getClassLoader())
+                    .configure(rules)
+                    .budget(ruleBudget > 0 ? Duration.ofMillis(ruleBudget) : null)
+                    .disableOverBudget(disableRulesOverBudget)
+                    .build();
+        } catch (IllegalArgumentException | ServiceConfigurationError e) {
+            throw new MojoExecutionException("Invalid OpenAPI compatibility rules: " + e.getMessage(), e);
+        }
+        return new CompatibilityChecker(lazyRefResolution, iterativeWalk, ruleThreads, ruleSet);
+    }
+
+    /**
+     * Warns about the rules over their budget, and prints the time spent by each rule in debug
+     */
+    protected void logRuleTimings(CompatibilityChecker checker) {
+        for (RuleTiming timing : checker.getRuleSet().getTimings()) {
+            if (timing.isOverBudget()) {
+                getLog().warn("The rule " + timing.getRuleId() + " took " + timing.getElapsed().toMillis()
+                        + " ms, over its budget of " + timing.getBudget().toMillis() + " ms"
+                        + (timing.isDisabled() ? ", it was disabled for the rest of the execution." : "."));
+            } else if (getLog().isDebugEnabled()) {
+                getLog().debug("Time spent by rule " + timing);
+            }
+        }
+    }
+
+    protected OperationFilter createOperationFilter() throws IOException {
+        OperationFilter.Builder builder = OperationFilter.builder()
+                .includePaths(includePaths)
+                .excludePaths(excludePaths)
+                .includeTags(includeTags)
+                .excludeTags(excludeTags)
+                .includeOperationIds(includeOperationIds)
+                .excludeOperationIds(excludeOperationIds);
+
+        if (consumedOperationsFile != null) {
+            builder.consumedOperations(consumedOperationsFile.toPath());
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Creates the report files of the configured formats
+     */
+    protected Reports openReports() throws IOException, MojoExecutionException {
+        Path baseDirectory = projectBasedir != null ? projectBasedir.toPath() : Paths.get("");
+        try {
+            return Reports.open(reportFormats, reportDirectory != null ? reportDirectory.toPath() : null, REPORT_NAME, baseDirectory);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Discovers the specs and the .lock files of the groups
+     *
+     * The name of a group is the path of its spec relative to the source
+     * directory, without extension. Its .lock file has the same relative path
+     * in the lock directory. Both directories are scanned in a single walk
+     * when the lock directory is the source directory or one of its
+     * subdirectories.
+     */
+    static Map<String, OpenApiGroup> loadOpenApiGroups(Path openApiSourcePath, Path openApiLockPath) throws IOException, MojoFailureException {
+        Path sourceRoot = openApiSourcePath.toAbsolutePath().normalize();
+        Path lockRoot = openApiLockPath.toAbsolutePath().normalize();
+
+        Map<String, OpenApiGroup> openApiGroups = new TreeMap<>();
+        List<String> duplicateGroups = new ArrayList<>();
+
+        FileVisitor<Path> visitor = new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String fileName = file.getFileName().toString();
+                String extension = FilenameUtils.getExtension(fileName);
+
+                if (extension.equals("lock") && file.startsWith(lockRoot)) {
+                    OpenApiGroup group = openApiGroups.computeIfAbsent(groupName(lockRoot, file), OpenApiGroup::new);
+                    group.lockPath = file;
+                } else if (SPEC_EXTENSIONS.contains(extension) && file.startsWith(sourceRoot)) {
+                    OpenApiGroup group = openApiGroups.computeIfAbsent(groupName(sourceRoot, file), OpenApiGroup::new);
+                    if (group.specPath != null) {
+                        duplicateGroups.add(group.name);
+                    }
+                    group.specPath = file;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        };
+
+        Files.walkFileTree(sourceRoot, visitor);
+        if (!lockRoot.startsWith(sourceRoot) && Files.exists(lockRoot)) {
+            Files.walkFileTree(lockRoot, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    // The source directory may be inside the lock directory, its files are already visited
+                    return dir.equals(sourceRoot) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    return visitor.visitFile(file, attrs);
+                }
+            });
+        }
+
+        if (!duplicateGroups.isEmpty()) {
+            throw new MojoFailureException("Found several OpenAPI specs for the groups " + duplicateGroups);
+        }
+
+        for (OpenApiGroup group : openApiGroups.values()) {
+            if (group.lockPath == null) {
+                group.lockPath = lockRoot.resolve(group.name + ".lock");
+            }
+        }
+
+        return openApiGroups;
+    }
+
+    private static String groupName(Path root, Path file) {
+        return FilenameUtils.removeExtension(FilenameUtils.separatorsToUnix(root.relativize(file).toString()));
+    }
+
+    /**
+     * Checks a group against its .lock file, and updates the .lock file when the check passes
+     *
+     * @throws MojoFailureException when the check of the group fails
+     */
+    void checkOpenApiGroupBackwardsCompatibility(CompatibilityChecker checker, OpenApiGroup group, OperationFilter operationFilter,
+                                                 Reports reports, Log log) throws IOException, MojoFailureException {
+        if (group.specPath == null) {
+            log.warn("Found a .lock file without a corresponding spec file: " + group.lockPath.toString());
+
+            throw new MojoFailureException("Backwards compatibility check failed for group " + group.name);
+        }
+
+        // The lock directory may be shared with other modules built concurrently
+        LockFiles.withLock(group.lockPath, () -> {
+            checkLockedOpenApiGroup(checker, group, operationFilter, reports, log);
+            return null;
+        });
+    }
+
+    private void checkLockedOpenApiGroup(CompatibilityChecker checker, OpenApiGroup group, OperationFilter operationFilter,
+                                         Reports reports, Log log) throws IOException, MojoFailureException {
+        if (!Files.exists(group.lockPath)) {
+            LockFiles.update(group.specPath, group.lockPath);
+            log.info("Initialized compatibility check for group '" + group.name + "'.");
+            return;
+        }
+
+        // Both documents are built with the same builder so their common nodes are shared
+        ApiModelBuilder builder = new ApiModelBuilder();
+        ApiDocument documentOld;
+        try {
+            documentOld = checker.readDocument(builder, group.lockPath, true);
+        } catch (OpenApiParseException e) {
+            throw new MojoFailureException("Unable to parse OpenAPI lock file: " + group.lockPath);
+        }
+
+        ApiDocument documentNew;
+        try {
+            documentNew = checker.readDocument(builder, group.specPath);
+        } catch (OpenApiParseException e) {
+            throw new MojoFailureException(e.getMessage());
+        }
+
+        CheckResult result = checkDocuments(checker, group, documentOld, documentNew, operationFilter, reports, log);
+
+        if (!result.getStatistics().isComplete()) {
+            // The paths not checked may hold incompatible changes, the .lock file must not accept them
+            log.info("Quick compatibility check passed for group '" + group.name + "', the .lock file is not updated.");
+            return;
+        }
+        if (!result.getSkippedRules().isEmpty()) {
+            // Same for the changes the skipped rules may have missed
+            log.info("Partial compatibility check passed for group '" + group.name + "', the .lock file is not updated.");
+            return;
+        }
+        if (!LockFiles.update(group.specPath, group.lockPath)) {
+            log.debug("The .lock file of group '" + group.name + "' is up to date.");
+        }
+        log.info("Backwards compatibility check passed for group '" + group.name + "'.");
+    }
+
+    /**
+     * Checks the documents of a group, reporting the findings as they are found
+     *
+     * @return the result of the check, without the findings
+     * @throws MojoFailureException when the documents are not compatible
+     */
+    CheckResult checkDocuments(CompatibilityChecker checker, OpenApiGroup group, ApiDocument documentOld, ApiDocument documentNew,
+                        OperationFilter operationFilter, Reports reports, Log log) throws IOException, MojoFailureException {
+        CheckResult result;
+        try {
+            result = checker.check(documentOld, documentNew, operationFilter, new GroupFindings(group, reports, log),
+                    quickCheck ? Duration.ofMillis(quickCheckBudget) : null);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        reports.groupChecked(group.name, group.specPath, result.getErrorCount());
+
+        WalkStatistics statistics = result.getStatistics();
+        if (explain) {
+            log.info("Compatibility check statistics for group '" + group.name + "':");
+            statistics.explain(explainLimit).forEach(log::info);
+        } else if (log.isDebugEnabled()) {
+            log.debug("Compatibility check statistics for group '" + group.name + "': " + statistics.getSummary());
+        }
+
+        if (quickCheck) {
+            String coverage = "Quick compatibility check of group '" + group.name + "': " + statistics.getCoverage() + ".";
+            if (statistics.getWalkedChangedPaths() < statistics.getChangedPaths()) {
+                log.warn(coverage + " Not all the changed paths could be checked within "
+                        + quickCheckBudget + " ms, run the full check.");
+            } else {
+                log.info(coverage);
+            }
+        }
+
+        if (!result.getSkippedRules().isEmpty()) {
+            log.warn("The rules " + result.getSkippedRules() + " were disabled for going over their budget"
+                    + " and were not fully evaluated for group '" + group.name + "'.");
+        }
+
+        if (!result.isCompatible()) {
+            throw new MojoFailureException("Backwards compatibility check failed for group " + group.name);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,206 @@
+package io.kemtoa.openapi.compat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.kemtoa.openapi.compat.report.Reports;
+import io.kemtoa.openapi.compat.walker.OperationFilter;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * OpenAPI spec backwards compatibility check of all the modules of a reactor
+ *
+ * Runs once for the whole build, and checks the groups of every module
+ * against their .lock files like the 'backwards-compatibility-check' goal
+ * would, using a single pool of worker threads.
+ *
+ * The source and lock directories of each module are taken from the
+ * configuration of the plugin in the module, and default to
+ * 'src/main/openapi'. The modules configured with 'skipOpenApiCheck' are
+ * skipped.
+ *
+ * The messages of the groups are printed once all the groups are checked,
+ * in the order of the modules, followed by a summary. The execution fails
+ * when the check of any group failed.
+ */
+@Mojo(
+    name = "aggregate",
+    defaultPhase = LifecyclePhase.VERIFY,
+    aggregator = true,
+    threadSafe = true
+)
+public class AggregateCompatibilityCheckMojo extends AbstractCompatibilityCheckMojo {
+    private static final String CHECK_GOAL = "backwards-compatibility-check";
+    private static final String DEFAULT_OPENAPI_DIR = "src/main/openapi";
+
+    @Parameter(defaultValue = "${reactorProjects}", readonly = true, required = true)
+    private List<MavenProject> reactorProjects;
+
+    @Parameter(defaultValue = "${plugin}", readonly = true)
+    private PluginDescriptor plugin;
+
+    /**
+     * Number of groups checked in parallel. Defaults to the number of processors.
+     */
+    @Parameter(property = "openApiAggregateThreads")
+    private int threads;
+
+    private static class GroupCheck {
+        private final String moduleName;
+        private final OpenApiGroup group;
+        private final BufferedLog log;
+        private Future<?> result;
+
+        private GroupCheck(String moduleName, OpenApiGroup group, BufferedLog log) {
+            this.moduleName = moduleName;
+            this.group = group;
+            this.log = log;
+        }
+    }
+
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skipOpenApiCheck) {
+            getLog().info("The OpenAPI backwards compatibility check is skipped.");
+            return;
+        }
+
+        List<GroupCheck> checks = new ArrayList<>();
+        try {
+            for (MavenProject project : reactorProjects) {
+                addModuleChecks(project, checks);
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("An error occurred while running the OpenApi compatibility check", e);
+        }
+
+        OperationFilter operationFilter;
+        try {
+            operationFilter = createOperationFilter();
+        } catch (IOException e) {
+            throw new MojoExecutionException("An error occurred while running the OpenApi compatibility check", e);
+        }
+
+        runChecks(checks, operationFilter);
+    }
+
+    /**
+     * Discovers the groups of a module
+     */
+    private void addModuleChecks(MavenProject project, List<GroupCheck> checks) throws IOException, MojoFailureException {
+        File basedir = project.getBasedir();
+        String sourceDir = DEFAULT_OPENAPI_DIR;
+        String lockDir = DEFAULT_OPENAPI_DIR;
+        boolean skip = false;
+
+        // The configuration of the check goal in the module, executions overriding the plugin configuration
+        Plugin modulePlugin = plugin != null ? project.getPlugin(plugin.getPluginLookupKey()) : null;
+        if (modulePlugin != null) {
+            List<Xpp3Dom> configurations = new ArrayList<>();
+            configurations.add((Xpp3Dom) modulePlugin.getConfiguration());
+            for (PluginExecution execution : modulePlugin.getExecutions()) {
+                if (execution.getGoals().contains(CHECK_GOAL)) {
+                    configurations.add((Xpp3Dom) execution.getConfiguration());
+                }
+            }
+
+            for (Xpp3Dom configuration : configurations) {
+                sourceDir = configurationValue(configuration, "openApiSourceDir", sourceDir);
+                lockDir = configurationValue(configuration, "openApiLockDir", lockDir);
+                skip = Boolean.parseBoolean(configurationValue(configuration, "skipOpenApiCheck", String.valueOf(skip)));
+            }
+        }
+
+        String moduleName = project.getArtifactId();
+        if (skip) {
+            getLog().info("The OpenAPI backwards compatibility check is skipped for module '" + moduleName + "'.");
+            return;
+        }
+
+        Path sourcePath = basedir.toPath().resolve(sourceDir);
+        if (!Files.exists(sourcePath)) {
+            getLog().debug("The OpenAPI source directory of module '" + moduleName + "' does not exist, skipping.");
+            return;
+        }
+
+        Path lockPath = basedir.toPath().resolve(lockDir);
+        Files.createDirectories(lockPath);
+
+        for (OpenApiGroup group : loadOpenApiGroups(sourcePath, lockPath).values()) {
+            checks.add(new GroupCheck(moduleName, group, new BufferedLog(getLog())));
+        }
+    }
+
+    private static String configurationValue(Xpp3Dom configuration, String name, String defaultValue) {
+        Xpp3Dom child = configuration != null ? configuration.getChild(name) : null;
+        return child != null && child.getValue() != null ? child.getValue().trim() : defaultValue;
+    }
+
+    private void runChecks(List<GroupCheck> checks, OperationFilter operationFilter) throws MojoExecutionException, MojoFailureException {
+        CompatibilityChecker checker = createChecker();
+        ExecutorService executor = Executors.newFixedThreadPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+
+        List<String> failedGroups = new ArrayList<>();
+        Throwable error = null;
+        try (Reports reports = openReports()) {
+            for (GroupCheck check : checks) {
+                check.result = executor.submit(() -> {
+                    checkOpenApiGroupBackwardsCompatibility(checker, check.group, operationFilter, reports, check.log);
+                    return null;
+                });
+            }
+
+            for (GroupCheck check : checks) {
+                try {
+                    check.result.get();
+                } catch (ExecutionException e) {
+                    // The other groups are still waited for, so that all their messages are printed
+                    if (e.getCause() instanceof MojoFailureException) {
+                        check.log.error(e.getCause().getMessage());
+                    } else {
+                        check.log.error("An error occurred while checking group '" + check.group.name + "'", e.getCause());
+                        if (error == null) {
+                            error = e.getCause();
+                        }
+                    }
+                    failedGroups.add(check.moduleName + ":" + check.group.name);
+                } finally {
+                    getLog().info("Module '" + check.moduleName + "', group '" + check.group.name + "':");
+                    check.log.replay();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while running the OpenApi compatibility check", e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("An error occurred while running the OpenApi compatibility check", e);
+        } finally {
+            executor.shutdownNow();
+            logRuleTimings(checker);
+        }
+
+        getLog().info("Checked " + checks.size() + " OpenAPI groups, " + failedGroups.size() + " failed.");
+        if (error != null) {
+            throw new MojoExecutionException("An error occurred while running the OpenApi compatibility check", error);
+        }
+        if (!failedGroups.isEmpty()) {
+            throw new MojoFailureException("Backwards compatibility check failed for the groups " + failedGroups);
+        }
+    }
+}
@@ -1,19 +1,16 @@
 package io.kemtoa.openapi.compat;
 
+import java.io.File;
 import java.io.IOException;
-import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.HashMap;
 import java.util.Map;
 
-import io.kemtoa.openapi.compat.walker.OpenApiDiffWalker;
-import io.swagger.v3.oas.models.OpenAPI;
-import io.swagger.v3.parser.OpenAPIV3Parser;
-import org.apache.commons.io.FilenameUtils;
-import org.apache.maven.plugin.AbstractMojo;
+import io.kemtoa.openapi.compat.model.ApiDocument;
+import io.kemtoa.openapi.compat.model.ApiModelBuilder;
+import io.kemtoa.openapi.compat.report.Reports;
+import io.kemtoa.openapi.compat.walker.OperationFilter;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
@@ -21,21 +18,13 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 
-import io.kemtoa.openapi.compat.rules.AddedEnumValueInResponseRule;
-import io.kemtoa.openapi.compat.rules.AddedRequiredRequestParameterRule;
-import io.kemtoa.openapi.compat.rules.CompositeRule;
-import io.kemtoa.openapi.compat.rules.ParameterLocationChangedRule;
-import io.kemtoa.openapi.compat.rules.PropertyRemovedInResponseRule;
-import io.kemtoa.openapi.compat.rules.PropertyTypeChangedRule;
-import io.kemtoa.openapi.compat.rules.RemovedEnumValueInRequestRule;
-import io.kemtoa.openapi.compat.rules.RemovedOperationRule;
-
 /**
  * OpenAPI spec backwards compatibility check
  *
  * This Mojo enforces only backwards compatible change are made to the OpenAPI
  * specs in the {@link #openApiSourceDir} directory.
- * Only OpenAPI 3.0 specifications in the yaml format are supported.
+ * OpenAPI 3.0 specifications in the yaml and json formats are supported,
+ * and are searched recursively.
  *
  * It works by keeping a copy of the last 'validated' specs document
  * in the {@link #openApiLockDir} directory. Each time the Mojo is executed,
@@ -44,6 +33,9 @@ import io.kemtoa.openapi.compat.rules.RemovedOperationRule;
  * Otherwise the execution succeeds and the 'new' spec is copied to
  * the {@link #openApiLockDir} directory and thus becomes the 'old' spec
  * for the next Mojo execution.
+ *
+ * Alternatively, the specs can be compared with the specs of a released
+ * artifact of the project, see {@link #baselineVersion}.
  */
 @Mojo(
     name = "backwards-compatibility-check",
@@ -51,7 +43,7 @@ import io.kemtoa.openapi.compat.rules.RemovedOperationRule;
     requiresDependencyResolution = ResolutionScope.COMPILE,
     threadSafe = true
 )
-public class BackwardsCompatibilityCheckMojo extends AbstractMojo {
+public class BackwardsCompatibilityCheckMojo extends AbstractCompatibilityCheckMojo {
 
     @Parameter(defaultValue = "${basedir}/src/main/openapi")
     private String openApiSourceDir;
@@ -59,14 +51,40 @@ public class BackwardsCompatibilityCheckMojo extends AbstractMojo {
     @Parameter(defaultValue = "${basedir}/src/main/openapi")
     private String openApiLockDir;
 
-    @Parameter(property = "skipOpenApiCheck")
-    private boolean skipOpenApiCheck;
+    /**
+     * Version of a released artifact of the project holding the baseline specs,
+     * or 'latest' for the most recent release found in the local repository.
+     *
+     * When set, the specs are checked against the specs of this artifact
+     * rather than against the .lock files, which are neither read nor written.
+     * The artifact is resolved from the local repository only, with the
+     * {@link #baselineClassifier} classifier.
+     */
+    @Parameter(property = "openApiBaselineVersion")
+    private String baselineVersion;
 
-    private static class OpenApiGroup {
-        private String name;
-        private Path specPath;
-        private Path lockPath;
-    }
+    @Parameter(property = "openApiBaselineClassifier", defaultValue = "openapi")
+    private String baselineClassifier;
+
+    /**
+     * Directory of the baseline specs parsed once, by checksum of their artifact.
+     */
+    @Parameter(property = "openApiBaselineCacheDir", defaultValue = "${settings.localRepository}/.cache/openapi-backwards-compat")
+    private File baselineCacheDir;
+
+    @Parameter(defaultValue = "${settings.localRepository}", readonly = true)
+    private File localRepository;
+
+    @Parameter(defaultValue = "${project.groupId}", readonly = true)
+    private String projectGroupId;
+
+    @Parameter(defaultValue = "${project.artifactId}", readonly = true)
+    private String projectArtifactId;
+
+    @Parameter(defaultValue = "${project.version}", readonly = true)
+    private String projectVersion;
+
+    private static final String LATEST_BASELINE = "latest";
 
     public void execute() throws MojoExecutionException, MojoFailureException {
         try {
@@ -83,97 +101,90 @@ public class BackwardsCompatibilityCheckMojo extends AbstractMojo {
                 return;
             }
 
+            OperationFilter operationFilter = createOperationFilter();
+
+            if (baselineVersion != null && !baselineVersion.isEmpty()) {
+                checkAgainstBaseline(openApiSourcePath, operationFilter);
+                return;
+            }
+
             Files.createDirectories(openApiLockPath);
 
             Map<String, OpenApiGroup> openApiGroups = loadOpenApiGroups(openApiSourcePath, openApiLockPath);
 
-            for (OpenApiGroup group : openApiGroups.values()) {
-                checkOpenApiGroupBackwardsCompatibility(group);
+            CompatibilityChecker checker = createChecker();
+            try (Reports reports = openReports()) {
+                for (OpenApiGroup group : openApiGroups.values()) {
+                    checkOpenApiGroupBackwardsCompatibility(checker, group, operationFilter, reports, getLog());
+                }
+            } finally {
+                logRuleTimings(checker);
             }
         } catch (IOException e) {
             throw new MojoExecutionException("An error occurred while running the OpenApi compatibility check", e);
         }
     }
 
-    private Map<String, OpenApiGroup> loadOpenApiGroups(Path openApiSourcePath, Path openApiLockPath) throws IOException {
-        Map<String, OpenApiGroup> openApiGroups = new HashMap<>();
-
-        try (DirectoryStream<Path> ymlFilesStream = Files.newDirectoryStream(openApiSourcePath, "*.yml")) {
-            for (Path specPath : ymlFilesStream) {
-                OpenApiGroup group = new OpenApiGroup();
-                group.name = FilenameUtils.removeExtension(specPath.getFileName().toString());
-                group.specPath = specPath;
-
-                openApiGroups.put(group.name, group);
+    /**
+     * Checks the specs against the specs of a released artifact rather than against the .lock files
+     */
+    private void checkAgainstBaseline(Path openApiSourcePath, OperationFilter operationFilter) throws IOException, MojoExecutionException, MojoFailureException {
+        Path repository = localRepository.toPath();
+
+        String version = baselineVersion;
+        if (LATEST_BASELINE.equals(version)) {
+            version = BaselineArtifact.latestRelease(repository, projectGroupId, projectArtifactId, projectVersion, baselineClassifier);
+            if (version == null) {
+                throw new MojoExecutionException("No released version of " + projectGroupId + ":" + projectArtifactId
+                        + " with the classifier '" + baselineClassifier + "' was found in the local repository");
             }
         }
 
-        try (DirectoryStream<Path> lockFilesStream = Files.newDirectoryStream(openApiLockPath, "*.lock")) {
-            for (Path lockPath : lockFilesStream) {
-                String name = FilenameUtils.removeExtension(lockPath.getFileName().toString());
-
-                openApiGroups.computeIfAbsent(name, (n) -> new OpenApiGroup());
-
-                OpenApiGroup group = openApiGroups.get(name);
-                group.name = name;
-                group.lockPath = lockPath;
-            }
+        Path jarPath = BaselineArtifact.locate(repository, projectGroupId, projectArtifactId, version, baselineClassifier);
+        if (!Files.exists(jarPath)) {
+            throw new MojoExecutionException("The baseline artifact was not found in the local repository: " + jarPath);
         }
+        getLog().info("Checking the OpenAPI specs against the baseline " + jarPath.getFileName());
 
-        return openApiGroups;
-    }
-
-    private void checkOpenApiGroupBackwardsCompatibility(OpenApiGroup group) throws IOException, MojoFailureException {
-        if (group.specPath == null) {
-            getLog().warn("Found a .lock file without a corresponding .yml file: " + group.lockPath.toString());
+        CompatibilityChecker checker = createChecker();
 
-            throw new MojoFailureException("Backwards compatibility check failed for group " + group.name);
-        }
+        // The baseline nodes are shared with the nodes of all the specs built by the same builder
+        ApiModelBuilder builder = new ApiModelBuilder();
+        Map<String, ApiDocument> baseline = new BaselineArtifact(jarPath).load(checker, builder, baselineCacheDir.toPath());
 
-        if (group.lockPath == null) {
-            group.lockPath = Paths.get(openApiLockDir, group.name + ".lock");
-            Files.createDirectories(Paths.get(openApiLockDir));
-            Files.copy(group.specPath, group.lockPath);
-            getLog().info("Initialized compatibility check for group '" + group.name + "'.");
-            return;
-        }
+        Map<String, OpenApiGroup> openApiGroups = loadOpenApiGroups(openApiSourcePath, openApiSourcePath);
+        openApiGroups.values().removeIf(group -> group.specPath == null);
 
-        OpenAPI openApiOld = new OpenAPIV3Parser().read(group.lockPath.toAbsolutePath().toString());
-        if (openApiOld == null) {
-            throw new MojoFailureException("Unable to parse OpenAPI lock file: " + group.lockPath);
-        }
+        for (String name : baseline.keySet()) {
+            if (!openApiGroups.containsKey(name)) {
+                getLog().warn("Found a baseline spec without a corresponding spec file: " + name);
 
-        OpenAPI openApiNew = new OpenAPIV3Parser().read(group.specPath.toAbsolutePath().toString());
-        if (openApiNew == null) {
-            throw new MojoFailureException("Unable to parse OpenAPI spec: " + group.specPath);
+                throw new MojoFailureException("Backwards compatibility check failed for group " + name);
+            }
         }
 
-        CompositeRule rules = new CompositeRule(
-                new AddedEnumValueInResponseRule(),
-                new AddedRequiredRequestParameterRule(),
-                new ParameterLocationChangedRule(),
-                new PropertyRemovedInResponseRule(),
-                new PropertyTypeChangedRule(),
-                new RemovedEnumValueInRequestRule(),
-                new RemovedOperationRule()
-        );
-
-        OpenApiDiffWalker walker = new OpenApiDiffWalker();
-        walker.walk(rules, openApiOld, openApiNew);
-
-        if (!rules.getErrors().isEmpty()) {
-
-            getLog().error("Backwards incompatible changes were found for group '" + group.name + "':");
-
-            for (String error : rules.getErrors()) {
-                getLog().error(error);
+        try (Reports reports = openReports()) {
+            for (OpenApiGroup group : openApiGroups.values()) {
+                ApiDocument documentOld = baseline.get(group.name);
+                if (documentOld == null) {
+                    getLog().info("The group '" + group.name + "' is not in the baseline, skipping.");
+                    continue;
+                }
+
+                ApiDocument documentNew;
+                try {
+                    documentNew = checker.readDocument(builder, group.specPath);
+                } catch (OpenApiParseException e) {
+                    throw new MojoFailureException(e.getMessage());
+                }
+
+                CheckResult result = checkDocuments(checker, group, documentOld, documentNew, operationFilter, reports, getLog());
+                String check = !result.getStatistics().isComplete() ? "Quick"
+                        : !result.getSkippedRules().isEmpty() ? "Partial" : "Backwards";
+                getLog().info(check + " compatibility check passed for group '" + group.name + "'.");
             }
-
-            throw new MojoFailureException("Backwards compatibility check failed for group " + group.name);
-        } else {
-            Files.createDirectories(Paths.get(openApiLockDir));
-            Files.copy(group.specPath, group.lockPath, StandardCopyOption.REPLACE_EXISTING);
-            getLog().info("Backwards compatibility check passed for group '" + group.name + "'.");
+        } finally {
+            logRuleTimings(checker);
         }
     }
 }
@@ -0,0 +1,212 @@
+package io.kemtoa.openapi.compat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.kemtoa.openapi.compat.model.ApiDocument;
+import io.kemtoa.openapi.compat.model.ApiDocumentCodec;
+import io.kemtoa.openapi.compat.model.ApiModelBuilder;
+import io.swagger.v3.core.util.Yaml;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+
+/**
+ * Baseline specs of a released artifact found in the local repository
+ *
+ * The specs are read straight out of the jar through the zip file system,
+ * without extracting them. The name of a group is the path of its spec in
+ * the jar, without extension. The files that are not OpenAPI documents,
+ * such as the files holding the schemas referred to by the specs, are not
+ * groups.
+ *
+ * Once parsed, the documents are cached in the binary form written by
+ * {@link ApiDocumentCodec}, in a file named after the SHA-256 checksum of
+ * the jar. A released artifact is therefore only parsed once, and a
+ * republished artifact is never mistaken for the cached one.
+ */
+final class BaselineArtifact {
+    private static final Set<String> SPEC_EXTENSIONS = Set.of("yml", "yaml", "json");
+
+    private final Path jarPath;
+
+    BaselineArtifact(Path jarPath) {
+        this.jarPath = jarPath;
+    }
+
+    /**
+     * @return the path of an artifact in a repository with the default layout
+     */
+    static Path locate(Path repository, String groupId, String artifactId, String version, String classifier) {
+        return repository.resolve(groupId.replace('.', '/'))
+                .resolve(artifactId)
+                .resolve(version)
+                .resolve(artifactId + "-" + version + "-" + classifier + ".jar");
+    }
+
+    /**
+     * @return the highest released version older than the current version having an
+     *         artifact with the classifier in the repository, or null when there is none
+     */
+    static String latestRelease(Path repository, String groupId, String artifactId, String currentVersion, String classifier) throws IOException {
+        Path artifactDirectory = repository.resolve(groupId.replace('.', '/')).resolve(artifactId);
+        if (!Files.isDirectory(artifactDirectory)) {
+            return null;
+        }
+
+        ComparableVersion current = new ComparableVersion(currentVersion);
+        ComparableVersion latest = null;
+        try (DirectoryStream<Path> versions = Files.newDirectoryStream(artifactDirectory, Files::isDirectory)) {
+            for (Path versionDirectory : versions) {
+                String version = versionDirectory.getFileName().toString();
+                ComparableVersion candidate = new ComparableVersion(version);
+                if (version.endsWith("-SNAPSHOT")
+                        || candidate.compareTo(current) >= 0
+                        || (latest != null && candidate.compareTo(latest) <= 0)
+                        || !Files.exists(locate(repository, groupId, artifactId, version, classifier))) {
+                    continue;
+                }
+                latest = candidate;
+            }
+        }
+        return latest != null ? latest.toString() : null;
+    }
+
+    Path getJarPath() {
+        return jarPath;
+    }
+
+    /**
+     * Loads the documents of the baseline, from the cache when the jar has already been parsed
+     *
+     * @param cacheDirectory directory of the parsed baselines
+     * @return the documents by group name
+     */
+    Map<String, ApiDocument> load(CompatibilityChecker checker, ApiModelBuilder builder, Path cacheDirectory) throws IOException {
+        Path cachePath = cacheDirectory.resolve(checksum() + ".bin");
+        if (Files.exists(cachePath)) {
+            try {
+                return ApiDocumentCodec.map(cachePath, builder);
+            } catch (IOException e) {
+                // Written by another version of the plugin, or corrupted: parse the jar again
+                Files.deleteIfExists(cachePath);
+            }
+        }
+
+        Map<String, ApiDocument> documents = parse(checker, builder);
+        try {
+            writeCache(cachePath, documents);
+        } catch (IOException e) {
+            // The cache is an optimization only, the documents can still be used
+        }
+        return documents;
+    }
+
+    private Map<String, ApiDocument> parse(CompatibilityChecker checker, ApiModelBuilder builder) throws IOException {
+        Map<String, ApiDocument> documents = new TreeMap<>();
+        try (FileSystem jar = FileSystems.newFileSystem(jarPath, (ClassLoader) null)) {
+            Path root = jar.getPath("/");
+
+            List<Path> specs;
+            try (Stream<Path> files = Files.walk(root)) {
+                specs = files.filter(Files::isRegularFile)
+                        .filter(file -> !file.startsWith("/META-INF"))
+                        .filter(file -> SPEC_EXTENSIONS.contains(FilenameUtils.getExtension(file.getFileName().toString())))
+                        .collect(Collectors.toCollection(ArrayList::new));
+            }
+
+            for (Path spec : specs) {
+                if (!isOpenApiDocument(spec)) {
+                    continue;
+                }
+
+                String name = FilenameUtils.removeExtension(root.relativize(spec).toString());
+                if (documents.put(name, checker.readDocument(builder, spec)) != null) {
+                    throw new IOException("Found several OpenAPI specs for the group " + name + " in " + jarPath);
+                }
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * @return true when the document has a top-level 'openapi' field, only reading the top-level field names
+     */
+    private static boolean isOpenApiDocument(Path spec) throws IOException {
+        // YAML being a superset of JSON, the YAML parser reads both formats
+        try (InputStream in = Files.newInputStream(spec);
+             JsonParser parser = Yaml.mapper().getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                if ("openapi".equals(parser.getCurrentName())) {
+                    return true;
+                }
+                parser.nextToken();
+                parser.skipChildren();
+            }
+            return false;
+        }
+    }
+
+    private static void writeCache(Path cachePath, Map<String, ApiDocument> documents) throws IOException {
+        Path directory = cachePath.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        Path tempPath = Files.createTempFile(directory, "." + cachePath.getFileName(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tempPath)) {
+                ApiDocumentCodec.write(out, documents);
+            }
+            try {
+                Files.move(tempPath, cachePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    private String checksum() throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(jarPath)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
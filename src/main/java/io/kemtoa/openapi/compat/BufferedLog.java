@@ -0,0 +1,143 @@
+package io.kemtoa.openapi.compat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * {@link Log} keeping the messages in memory until they are replayed
+ *
+ * Used to print the messages of the checks running in parallel in a
+ * deterministic order. The levels enabled are those of the target log.
+ */
+final class BufferedLog implements Log {
+    private enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    private static final class Message {
+        private final Level level;
+        private final CharSequence content;
+        private final Throwable error;
+
+        private Message(Level level, CharSequence content, Throwable error) {
+            this.level = level;
+            this.content = content;
+            this.error = error;
+        }
+    }
+
+    private final Log target;
+    private final List<Message> messages = new ArrayList<>();
+
+    BufferedLog(Log target) {
+        this.target = target;
+    }
+
+    /**
+     * Prints the buffered messages to the target log
+     */
+    void replay() {
+        for (Message message : messages) {
+            switch (message.level) {
+                case DEBUG:
+                    target.debug(message.content, message.error);
+                    break;
+                case INFO:
+                    target.info(message.content, message.error);
+                    break;
+                case WARN:
+                    target.warn(message.content, message.error);
+                    break;
+                default:
+                    target.error(message.content, message.error);
+            }
+        }
+        messages.clear();
+    }
+
+    private void add(Level level, CharSequence content, Throwable error) {
+        messages.add(new Message(level, content, error));
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return target.isDebugEnabled();
+    }
+
+    @Override
+    public void debug(CharSequence content) {
+        add(Level.DEBUG, content, null);
+    }
+
+    @Override
+    public void debug(CharSequence content, Throwable error) {
+        add(Level.DEBUG, content, error);
+    }
+
+    @Override
+    public void debug(Throwable error) {
+        add(Level.DEBUG, null, error);
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return target.isInfoEnabled();
+    }
+
+    @Override
+    public void info(CharSequence content) {
+        add(Level.INFO, content, null);
+    }
+
+    @Override
+    public void info(CharSequence content, Throwable error) {
+        add(Level.INFO, content, error);
+    }
+
+    @Override
+    public void info(Throwable error) {
+        add(Level.INFO, null, error);
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return target.isWarnEnabled();
+    }
+
+    @Override
+    public void warn(CharSequence content) {
+        add(Level.WARN, content, null);
+    }
+
+    @Override
+    public void warn(CharSequence content, Throwable error) {
+        add(Level.WARN, content, error);
+    }
+
+    @Override
+    public void warn(Throwable error) {
+        add(Level.WARN, null, error);
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return target.isErrorEnabled();
+    }
+
+    @Override
+    public void error(CharSequence content) {
+        add(Level.ERROR, content, null);
+    }
+
+    @Override
+    public void error(CharSequence content, Throwable error) {
+        add(Level.ERROR, content, error);
+    }
+
+    @Override
+    public void error(Throwable error) {
+        add(Level.ERROR, null, error);
+    }
+}
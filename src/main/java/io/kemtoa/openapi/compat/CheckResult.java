@@ -0,0 +1,69 @@
+package io.kemtoa.openapi.compat;
+
+import java.util.Collections;
+import java.util.List;
+
+import io.kemtoa.openapi.compat.walker.WalkStatistics;
+
+/**
+ * Outcome of the comparison of two OpenAPI specification documents
+ */
+public class CheckResult {
+    private final List<String> errors;
+    private final int errorCount;
+    private final WalkStatistics statistics;
+    private final List<String> skippedRules;
+
+    public CheckResult(List<String> errors, WalkStatistics statistics) {
+        this(errors, errors.size(), statistics);
+    }
+
+    /**
+     * @param errorCount the number of backwards incompatible changes found, including
+     *                   those not retained in the errors
+     */
+    public CheckResult(List<String> errors, int errorCount, WalkStatistics statistics) {
+        this(errors, errorCount, statistics, Collections.emptyList());
+    }
+
+    /**
+     * @param skippedRules the rules not fully evaluated, see {@link #getSkippedRules()}
+     */
+    public CheckResult(List<String> errors, int errorCount, WalkStatistics statistics, List<String> skippedRules) {
+        this.errors = Collections.unmodifiableList(errors);
+        this.errorCount = errorCount;
+        this.statistics = statistics;
+        this.skippedRules = Collections.unmodifiableList(skippedRules);
+    }
+
+    /**
+     * @return true when no backwards incompatible changes were found
+     */
+    public boolean isCompatible() {
+        return errorCount == 0;
+    }
+
+    /**
+     * @return the backwards incompatible changes found, unless they were passed to a
+     *         {@link io.kemtoa.openapi.compat.rules.FindingListener}
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * @return the rules disabled for going over their budget, which may have missed
+     *         backwards incompatible changes
+     */
+    public List<String> getSkippedRules() {
+        return skippedRules;
+    }
+
+    public WalkStatistics getStatistics() {
+        return statistics;
+    }
+}
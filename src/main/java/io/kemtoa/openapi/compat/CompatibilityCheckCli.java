@@ -0,0 +1,200 @@
+package io.kemtoa.openapi.compat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Command line entry point checking many pairs of OpenAPI specs in a single JVM
+ *
+ * Usage: {@code CompatibilityCheckCli [--threads N] [--output FILE] [--lazy-ref-resolution] [--iterative-walk] [--rule-threads N] MANIFEST}
+ *
+ * Each line of the manifest holds the path of the old version of a spec,
+ * followed by the path of its new version, separated by whitespace. Blank
+ * lines and lines starting with '#' are ignored. Relative paths are resolved
+ * against the directory of the manifest.
+ *
+ * The pairs are checked in parallel using a pool of worker threads sharing
+ * the same {@link CompatibilityChecker}. A JSON record is written on its own
+ * line for each pair, in the manifest order.
+ *
+ * The exit status is 0 when all the pairs are compatible, 1 when backwards
+ * incompatible changes were found, and 2 when a pair could not be checked.
+ */
+public class CompatibilityCheckCli {
+    private static final int EXIT_COMPATIBLE = 0;
+    private static final int EXIT_INCOMPATIBLE = 1;
+    private static final int EXIT_ERROR = 2;
+
+    private static final String USAGE =
+            "Usage: CompatibilityCheckCli [--threads N] [--output FILE] [--lazy-ref-resolution] [--iterative-walk] [--rule-threads N] MANIFEST";
+
+    private static class SpecPair {
+        private final Path oldSpec;
+        private final Path newSpec;
+
+        private SpecPair(Path oldSpec, Path newSpec) {
+            this.oldSpec = oldSpec;
+            this.newSpec = newSpec;
+        }
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path output = null;
+        boolean lazyRefResolution = false;
+        boolean iterativeWalk = false;
+        int ruleThreads = 1;
+        Path manifest = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads":
+                        threads = positiveInt(args, ++i, "--threads");
+                        break;
+                    case "--output":
+                        output = Paths.get(args[++i]);
+                        break;
+                    case "--lazy-ref-resolution":
+                        lazyRefResolution = true;
+                        break;
+                    case "--iterative-walk":
+                        iterativeWalk = true;
+                        break;
+                    case "--rule-threads":
+                        ruleThreads = positiveInt(args, ++i, "--rule-threads");
+                        break;
+                    default:
+                        if (args[i].startsWith("--") || manifest != null) {
+                            throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                        }
+                        manifest = Paths.get(args[i]);
+                }
+            }
+            if (manifest == null) {
+                throw new IllegalArgumentException("A manifest is required");
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            err.println("Missing value for " + args[args.length - 1]);
+            err.println(USAGE);
+            return EXIT_ERROR;
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return EXIT_ERROR;
+        }
+
+        try {
+            List<SpecPair> pairs = readManifest(manifest);
+
+            try (Writer writer = output != null
+                    ? Files.newBufferedWriter(output, StandardCharsets.UTF_8)
+                    : new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                return checkAll(new CompatibilityChecker(lazyRefResolution, iterativeWalk, ruleThreads), pairs, threads, writer);
+            }
+        } catch (IOException e) {
+            err.println("An error occurred while running the OpenApi compatibility check: " + e.getMessage());
+            return EXIT_ERROR;
+        }
+    }
+
+    private static int positiveInt(String[] args, int i, String name) {
+        int value;
+        try {
+            value = Integer.parseInt(args[i]);
+        } catch (NumberFormatException e) {
+            value = 0;
+        }
+        if (value < 1) {
+            throw new IllegalArgumentException("The value of " + name + " must be a positive number: " + args[i]);
+        }
+        return value;
+    }
+
+    private static List<SpecPair> readManifest(Path manifest) throws IOException {
+        Path baseDir = manifest.toAbsolutePath().getParent();
+
+        List<SpecPair> pairs = new ArrayList<>();
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] paths = line.split("\\s+");
+            if (paths.length != 2) {
+                throw new IOException("Invalid manifest line, expected two paths: " + line);
+            }
+
+            pairs.add(new SpecPair(baseDir.resolve(paths[0]), baseDir.resolve(paths[1])));
+        }
+        return pairs;
+    }
+
+    private static int checkAll(CompatibilityChecker checker, List<SpecPair> pairs, int threads, Writer writer) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<CheckResult>> results = new ArrayList<>(pairs.size());
+            for (SpecPair pair : pairs) {
+                results.add(executor.submit(() -> checker.check(pair.oldSpec, pair.newSpec)));
+            }
+
+            int exitCode = EXIT_COMPATIBLE;
+            for (int i = 0; i < pairs.size(); i++) {
+                SpecPair pair = pairs.get(i);
+
+                Map<String, Object> record = new LinkedHashMap<>();
+                record.put("old", pair.oldSpec.toString());
+                record.put("new", pair.newSpec.toString());
+
+                try {
+                    CheckResult result = results.get(i).get();
+                    record.put("compatible", result.isCompatible());
+                    record.put("errors", result.getErrors());
+                    record.put("visitedNodes", result.getStatistics().getVisitedNodes());
+
+                    if (!result.isCompatible()) {
+                        exitCode = Math.max(exitCode, EXIT_INCOMPATIBLE);
+                    }
+                } catch (ExecutionException e) {
+                    record.put("failure", String.valueOf(e.getCause().getMessage()));
+                    exitCode = EXIT_ERROR;
+                }
+
+                writer.write(mapper.writeValueAsString(record));
+                writer.write('\n');
+                writer.flush();
+            }
+
+            return exitCode;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while checking the specs", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
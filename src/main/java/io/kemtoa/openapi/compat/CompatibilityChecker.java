@@ -0,0 +1,300 @@
+package io.kemtoa.openapi.compat;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.kemtoa.openapi.compat.model.ApiDocument;
+import io.kemtoa.openapi.compat.model.ApiModelBuilder;
+import io.kemtoa.openapi.compat.model.RefResolver;
+import io.kemtoa.openapi.compat.rules.CompositeRule;
+import io.kemtoa.openapi.compat.rules.Finding;
+import io.kemtoa.openapi.compat.rules.FindingListener;
+import io.kemtoa.openapi.compat.rules.RuleSet;
+import io.kemtoa.openapi.compat.walker.OpenApiDiffWalker;
+import io.kemtoa.openapi.compat.walker.OperationFilter;
+import io.kemtoa.openapi.compat.walker.PipelinedDiffVisitor;
+import io.kemtoa.openapi.compat.walker.WalkStatistics;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import io.swagger.v3.parser.core.models.ParseOptions;
+import io.swagger.v3.parser.core.models.SwaggerParseResult;
+
+/**
+ * Backwards compatibility check of OpenAPI specification documents
+ *
+ * Entry point for using the compatibility check as a library. Parses the
+ * documents, walks them using {@link OpenApiDiffWalker} and evaluates the
+ * backwards compatibility rules.
+ *
+ * Java Flight Recorder events are emitted for the parsing of each spec
+ * when recording is enabled.
+ *
+ * Instances hold no state besides their configuration and the time spent by
+ * the rules, see {@link RuleSet}. They are thread-safe and meant to be reused
+ * for checking many pairs of documents in the same JVM.
+ */
+public class CompatibilityChecker {
+    private final boolean lazyRefResolution;
+    private final boolean iterativeWalk;
+    private final int ruleThreads;
+    private final RuleSet ruleSet;
+
+    public CompatibilityChecker() {
+        this(false);
+    }
+
+    public CompatibilityChecker(boolean lazyRefResolution) {
+        this(lazyRefResolution, false);
+    }
+
+    /**
+     * @param lazyRefResolution parse the documents without resolving their references
+     *                          ahead of time, see {@link RefResolver}
+     * @param iterativeWalk walk the schemas without recursion, for deeply nested schemas,
+     *                      see {@link OpenApiDiffWalker#OpenApiDiffWalker(boolean)}
+     */
+    public CompatibilityChecker(boolean lazyRefResolution, boolean iterativeWalk) {
+        this(lazyRefResolution, iterativeWalk, 1);
+    }
+
+    /**
+     * @param ruleThreads number of threads evaluating the rules while the documents are walked,
+     *                    see {@link PipelinedDiffVisitor}. The rules are evaluated by the walking
+     *                    thread when set to 1.
+     */
+    public CompatibilityChecker(boolean lazyRefResolution, boolean iterativeWalk, int ruleThreads) {
+        this(lazyRefResolution, iterativeWalk, ruleThreads, RuleSet.builder().build());
+    }
+
+    /**
+     * @param ruleSet the rules to evaluate, and their budgets. Defaults to the rules found
+     *                on the class path of this class.
+     */
+    public CompatibilityChecker(boolean lazyRefResolution, boolean iterativeWalk, int ruleThreads, RuleSet ruleSet) {
+        if (ruleThreads < 1) {
+            throw new IllegalArgumentException("The number of rule threads must be positive: " + ruleThreads);
+        }
+        this.lazyRefResolution = lazyRefResolution;
+        this.iterativeWalk = iterativeWalk;
+        this.ruleThreads = ruleThreads;
+        this.ruleSet = ruleSet;
+    }
+
+    /**
+     * @return the rules evaluated, along with the time they spent so far
+     */
+    public RuleSet getRuleSet() {
+        return ruleSet;
+    }
+
+    /**
+     * Checks that the changes from an old version of a spec to a new version are backwards compatible
+     */
+    public CheckResult check(Path oldSpec, Path newSpec) throws OpenApiParseException {
+        // Both documents are built with the same builder so their common nodes are shared
+        ApiModelBuilder builder = new ApiModelBuilder();
+        ApiDocument documentOld = readDocument(builder, oldSpec);
+        ApiDocument documentNew = readDocument(builder, newSpec);
+
+        return check(documentOld, documentNew);
+    }
+
+    /**
+     * Checks that the changes from an old version of a document to a new version are backwards compatible
+     */
+    public CheckResult check(ApiDocument documentOld, ApiDocument documentNew) {
+        return check(documentOld, documentNew, OperationFilter.ALL);
+    }
+
+    /**
+     * Checks that the changes to the operations selected by a filter are backwards compatible
+     */
+    public CheckResult check(ApiDocument documentOld, ApiDocument documentNew, OperationFilter operationFilter) {
+        return check(documentOld, documentNew, operationFilter, null);
+    }
+
+    /**
+     * Checks the changes to the operations selected by a filter, passing the findings
+     * to a listener as soon as they are found rather than retaining them in the result
+     *
+     * The listener is called by the thread running the check, in the order of
+     * the walk, even when the rules are evaluated by several threads.
+     *
+     * @param findingListener the listener of the findings, or null to retain them in the result
+     */
+    public CheckResult check(ApiDocument documentOld, ApiDocument documentNew, OperationFilter operationFilter,
+                             FindingListener findingListener) {
+        return check(documentOld, documentNew, operationFilter, findingListener, null);
+    }
+
+    /**
+     * Checks the changes to the operations selected by a filter within a time budget
+     *
+     * The changed paths are checked first, followed by a sample of the
+     * other paths, until the budget is spent. The part of the documents
+     * checked is given by {@link WalkStatistics#getCoverage()}.
+     *
+     * @param timeBudget the time budget of the walk of the documents, or null to check them in full
+     */
+    public CheckResult check(ApiDocument documentOld, ApiDocument documentNew, OperationFilter operationFilter,
+                             FindingListener findingListener, Duration timeBudget) {
+        CompositeRule rules = ruleSet.createRules();
+
+        OpenApiDiffWalker walker = new OpenApiDiffWalker(iterativeWalk);
+        walker.setOperationFilter(operationFilter);
+        walker.setTimeBudget(timeBudget);
+
+        if (ruleThreads > 1) {
+            try (PipelinedDiffVisitor pipeline = new PipelinedDiffVisitor(rules.getRules(), ruleThreads)) {
+                if (findingListener != null) {
+                    // Reported by the workers, passed to the listener in the order of a sequential walk
+                    Consumer<Finding> findings = pipeline.sequenced(findingListener::onFinding);
+                    rules.setFindingListener(findings::accept);
+                }
+                walker.walk(pipeline, documentOld, documentNew);
+                pipeline.finish();
+            }
+        } else {
+            if (findingListener != null) {
+                rules.setFindingListener(findingListener);
+            }
+            walker.walk(rules, documentOld, documentNew);
+        }
+
+        return new CheckResult(rules.getErrors(), rules.getErrorCount(), walker.getStatistics(),
+                ruleSet.getSkippedRules(rules));
+    }
+
+    public ApiDocument readDocument(Path spec) throws OpenApiParseException {
+        return readDocument(new ApiModelBuilder(), spec);
+    }
+
+    /**
+     * Parses an OpenAPI document and converts it to its compact representation.
+     * The swagger-parser model is discarded as soon as it has been converted.
+     */
+    public ApiDocument readDocument(ApiModelBuilder builder, Path spec) throws OpenApiParseException {
+        return readDocument(builder, spec, false);
+    }
+
+    /**
+     * @param cached take the parsed spec from the {@link ParsedSpecCache} of the JVM,
+     *               when the file has not changed since it was last parsed
+     */
+    ApiDocument readDocument(ApiModelBuilder builder, Path spec, boolean cached) throws OpenApiParseException {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+
+        SwaggerParseResult result = cached
+                ? ParsedSpecCache.get(spec, !lazyRefResolution, this::parseFile)
+                : parseFile(spec);
+        OpenAPI openApi = result.getOpenAPI();
+        ApiDocument document;
+        try {
+            document = openApi != null
+                    ? builder.build(new RefResolver(openApi, spec.toAbsolutePath().toUri()))
+                    : null;
+        } catch (UncheckedIOException e) {
+            // A referenced document could not be read
+            throw new OpenApiParseException(spec, e.getCause());
+        }
+
+        if (event.shouldCommit()) {
+            event.spec = spec.toString();
+            event.fileSize = fileSize(spec);
+            event.nodes = document != null ? document.getPaths().size() + document.getSchemas().size() : 0;
+            event.errors = result.getMessages() != null ? result.getMessages().size() : 0;
+            event.commit();
+        }
+
+        if (document == null) {
+            throw new OpenApiParseException(spec);
+        }
+        return document;
+    }
+
+    private SwaggerParseResult parseFile(Path spec) throws OpenApiParseException {
+        return isJson(spec) ? parseJson(spec) : parse(spec);
+    }
+
+    private SwaggerParseResult parse(Path spec) throws OpenApiParseException {
+        ParseOptions parseOptions = new ParseOptions();
+        parseOptions.setResolve(!lazyRefResolution);
+
+        if (spec.getFileSystem() != FileSystems.getDefault()) {
+            // Such as a spec read from a jar through the zip file system, swagger-parser only reads from locations.
+            // Without a location it cannot resolve the references to other files, RefResolver resolves them instead.
+            parseOptions.setResolve(false);
+            String content;
+            try {
+                content = new String(Files.readAllBytes(spec), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new OpenApiParseException(spec, e);
+            }
+            return new OpenAPIV3Parser().readContents(content, null, parseOptions);
+        }
+
+        return new OpenAPIV3Parser().readLocation(spec.toAbsolutePath().toString(), null, parseOptions);
+    }
+
+    /**
+     * Parses a JSON document with the JSON parser of Jackson, streaming from the file
+     *
+     * The references are not resolved by swagger-parser, they are resolved by
+     * {@link RefResolver} while converting the document.
+     */
+    private SwaggerParseResult parseJson(Path spec) throws OpenApiParseException {
+        JsonNode node;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(spec))) {
+            node = Json.mapper().readTree(in);
+        } catch (IOException e) {
+            throw new OpenApiParseException(spec, e);
+        }
+
+        ParseOptions parseOptions = new ParseOptions();
+        parseOptions.setResolve(false);
+
+        return new OpenAPIV3Parser().parseJsonNode(spec.toAbsolutePath().toString(), node, parseOptions);
+    }
+
+    private static long fileSize(Path spec) {
+        try {
+            return Files.size(spec);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return true when the first significant character of a document opens a JSON object.
+     *         .lock files have the format of their spec, whatever their extension.
+     */
+    private static boolean isJson(Path spec) throws OpenApiParseException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(spec))) {
+            int c = in.read();
+            if (c == 0xEF) {
+                // UTF-8 byte order mark
+                in.skip(2);
+                c = in.read();
+            }
+            while (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                c = in.read();
+            }
+            return c == '{';
+        } catch (IOException e) {
+            throw new OpenApiParseException(spec, e);
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package io.kemtoa.openapi.compat;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coordinated access to the .lock files
+ *
+ * The lock directory may be shared by several modules built in parallel,
+ * in the same JVM or by concurrent processes. Each .lock file is guarded by
+ * an exclusive {@link FileLock} on a hidden sidecar file next to it, so every
+ * process sharing the lock directory locks the same file, and by a lock per
+ * file in the JVM since file locks are held on behalf of the whole process.
+ * The locks of the JVM are dropped once no thread holds or waits for them.
+ *
+ * The .lock files are updated by writing a temporary file in the same
+ * directory and renaming it, so readers never see a partially written file.
+ */
+final class LockFiles {
+    private static final ConcurrentMap<Path, JvmLock> JVM_LOCKS = new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    interface LockedAction<T, E extends Exception> {
+        T run() throws IOException, E;
+    }
+
+    /**
+     * Lock of a .lock file in the JVM, along with the number of threads holding or waiting for it
+     *
+     * The number of users is only changed while computing the entry of the map.
+     */
+    private static final class JvmLock {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int users;
+    }
+
+    private LockFiles() {
+    }
+
+    /**
+     * Runs an action while holding the exclusive lock of a .lock file
+     */
+    static <T, E extends Exception> T withLock(Path lockPath, LockedAction<T, E> action) throws IOException, E {
+        Files.createDirectories(lockPath.toAbsolutePath().getParent());
+        Path path = lockPath.toAbsolutePath().getParent().toRealPath().resolve(lockPath.getFileName());
+        Path sidecarPath = sidecarPath(path);
+
+        JvmLock jvmLock = JVM_LOCKS.compute(path, (p, existing) -> {
+            JvmLock lock = existing != null ? existing : new JvmLock();
+            lock.users++;
+            return lock;
+        });
+        jvmLock.lock.lock();
+        try (FileChannel channel = FileChannel.open(sidecarPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock fileLock = channel.lock();
+            try {
+                return action.run();
+            } finally {
+                fileLock.release();
+            }
+        } finally {
+            jvmLock.lock.unlock();
+            JVM_LOCKS.computeIfPresent(path, (p, lock) -> --lock.users > 0 ? lock : null);
+        }
+    }
+
+    /**
+     * @return the number of .lock files whose lock is held or awaited in the JVM
+     */
+    static int lockedFileCount() {
+        return JVM_LOCKS.size();
+    }
+
+    /**
+     * @return the file locked by the processes updating a .lock file
+     */
+    static Path sidecarPath(Path lockPath) {
+        return lockPath.resolveSibling("." + lockPath.getFileName() + ".lck");
+    }
+
+    /**
+     * Replaces the content of a .lock file with the content of a spec
+     *
+     * Must be called while holding the lock of the .lock file. The file is
+     * left untouched when its content is already up to date, so its
+     * modification time does not change.
+     *
+     * @return true when the .lock file has been written
+     */
+    static boolean update(Path specPath, Path lockPath) throws IOException {
+        byte[] content = Files.readAllBytes(specPath);
+        if (Files.exists(lockPath) && Arrays.equals(content, Files.readAllBytes(lockPath))) {
+            return false;
+        }
+
+        Path directory = lockPath.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        Path tempPath = Files.createTempFile(directory, "." + lockPath.getFileName(), ".tmp");
+        try {
+            Files.write(tempPath, content);
+            try {
+                Files.move(tempPath, lockPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, lockPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,27 @@
+package io.kemtoa.openapi.compat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Thrown when an OpenAPI specification document cannot be parsed
+ */
+public class OpenApiParseException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Path path;
+
+    public OpenApiParseException(Path path) {
+        super("Unable to parse OpenAPI spec: " + path);
+        this.path = path;
+    }
+
+    public OpenApiParseException(Path path, Throwable cause) {
+        super("Unable to parse OpenAPI spec: " + path, cause);
+        this.path = path;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,31 @@
+package io.kemtoa.openapi.compat;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted for the parsing of each spec file
+ */
+@Name("io.kemtoa.openapi.compat.Parse")
+@Label("OpenAPI Spec Parse")
+@Category({"OpenAPI", "Compatibility Check"})
+@Description("Parsing and conversion of an OpenAPI spec file")
+final class ParseEvent extends jdk.jfr.Event {
+    @Label("Spec")
+    String spec;
+
+    @Label("File Size")
+    @DataAmount
+    long fileSize;
+
+    @Label("Nodes")
+    @Description("Number of paths and schemas of the converted document")
+    int nodes;
+
+    @Label("Errors")
+    @Description("Number of messages reported by the parser")
+    int errors;
+}
@@ -0,0 +1,210 @@
+package io.kemtoa.openapi.compat;
+
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import io.swagger.v3.parser.core.models.SwaggerParseResult;
+
+/**
+ * Parsed specs shared by all the executions of the plugin in the JVM
+ *
+ * The classes of the plugin stay loaded between builds when Maven runs as a
+ * daemon, such as with mvnd, so a .lock file left untouched since a previous
+ * build is not parsed again.
+ *
+ * The entries are keyed by the canonical path of the file, its size, its
+ * modification time and a hash of its content, along with the reference
+ * resolution of the parse. They are held through soft references, so the
+ * garbage collector may drop them under memory pressure, and the least
+ * recently used entries are evicted beyond the size limit.
+ *
+ * The cached models are shared between the executions, they must not be
+ * modified. The references to other files are resolved when the models are
+ * converted. The specs referring to other files are not cached when their
+ * references are resolved by swagger-parser, since the key does not cover
+ * the referenced files.
+ */
+final class ParsedSpecCache {
+    static final int DEFAULT_MAX_ENTRIES = 64;
+
+    private static final Map<Key, Entry> ENTRIES = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+    private static final ReferenceQueue<SwaggerParseResult> CLEARED = new ReferenceQueue<>();
+    // A '$ref' key, quoted or not, whose value does not start with '#'
+    private static final Pattern EXTERNAL_REF = Pattern.compile("\\$ref[\"']?\\s*:\\s*[\"']?(?!#)[^\"'\\s]");
+    private static int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    @FunctionalInterface
+    interface Parser {
+        SwaggerParseResult parse(Path spec) throws OpenApiParseException;
+    }
+
+    private static final class Key {
+        private final Path path;
+        private final long size;
+        private final FileTime lastModified;
+        private final byte[] hash;
+        private final boolean resolve;
+
+        private Key(Path path, long size, FileTime lastModified, byte[] hash, boolean resolve) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.resolve = resolve;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return size == key.size && resolve == key.resolve && path.equals(key.path)
+                    && lastModified.equals(key.lastModified) && Arrays.equals(hash, key.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, size, lastModified, Arrays.hashCode(hash), resolve);
+        }
+    }
+
+    private static final class Entry extends SoftReference<SwaggerParseResult> {
+        private final Key key;
+
+        private Entry(Key key, SwaggerParseResult result) {
+            super(result, CLEARED);
+            this.key = key;
+        }
+    }
+
+    private ParsedSpecCache() {
+    }
+
+    /**
+     * Sets the maximum number of parsed specs retained, evicting the least recently used ones
+     *
+     * @param entries the maximum number of entries, the cache is disabled when set to 0
+     */
+    static void setMaxEntries(int entries) {
+        if (entries < 0) {
+            throw new IllegalArgumentException("The size of the parsed spec cache must not be negative: " + entries);
+        }
+        synchronized (ENTRIES) {
+            maxEntries = entries;
+            ENTRIES.entrySet().removeIf(entry -> ENTRIES.size() > maxEntries);
+        }
+    }
+
+    /**
+     * @return the number of parsed specs retained, including the ones already cleared by the garbage collector
+     */
+    static int size() {
+        synchronized (ENTRIES) {
+            return ENTRIES.size();
+        }
+    }
+
+    static void clear() {
+        synchronized (ENTRIES) {
+            ENTRIES.clear();
+        }
+    }
+
+    /**
+     * Returns the parsed spec, parsing the file when it is not cached
+     *
+     * Specs that could not be parsed are not cached, nor specs referring to
+     * other files parsed with the references resolved. Two executions
+     * parsing the same file at the same time may both parse it.
+     *
+     * @param resolve whether the references are resolved by the parser
+     */
+    static SwaggerParseResult get(Path spec, boolean resolve, Parser parser) throws OpenApiParseException {
+        if (spec.getFileSystem() != FileSystems.getDefault()) {
+            return parser.parse(spec);
+        }
+
+        Key key;
+        try {
+            key = key(spec, resolve);
+        } catch (IOException e) {
+            throw new OpenApiParseException(spec, e);
+        }
+        if (key == null) {
+            return parser.parse(spec);
+        }
+
+        synchronized (ENTRIES) {
+            expungeCleared();
+            Entry entry = ENTRIES.get(key);
+            SwaggerParseResult result = entry != null ? entry.get() : null;
+            if (result != null) {
+                return result;
+            }
+        }
+
+        SwaggerParseResult result = parser.parse(spec);
+        if (result.getOpenAPI() != null) {
+            synchronized (ENTRIES) {
+                if (maxEntries > 0) {
+                    ENTRIES.put(key, new Entry(key, result));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return null when the parsed spec must not be cached
+     */
+    private static Key key(Path spec, boolean resolve) throws IOException {
+        Path path = spec.toRealPath();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        byte[] content = Files.readAllBytes(path);
+        if (resolve && EXTERNAL_REF.matcher(new String(content, StandardCharsets.UTF_8)).find()) {
+            return null;
+        }
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return new Key(path, attributes.size(), attributes.lastModifiedTime(), digest.digest(content), resolve);
+    }
+
+    /**
+     * Removes the entries whose parsed spec has been reclaimed by the garbage collector
+     */
+    private static void expungeCleared() {
+        Entry entry;
+        while ((entry = (Entry) CLEARED.poll()) != null) {
+            ENTRIES.remove(entry.key, entry);
+        }
+    }
+}
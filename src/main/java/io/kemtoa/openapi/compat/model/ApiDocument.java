@@ -0,0 +1,58 @@
+package io.kemtoa.openapi.compat.model;
+
+import java.util.Map;
+
+/**
+ * Compact immutable representation of an OpenAPI document
+ *
+ * Only retains what is needed to compare two documents: the paths, and
+ * the schema components reachable from them. All the other references
+ * are resolved when the document is built by {@link ApiModelBuilder}.
+ *
+ * Instances are immutable and can be shared between threads. The path
+ * items and components of the documents read by {@link ApiDocumentCodec}
+ * are decoded when they are first accessed.
+ */
+public final class ApiDocument {
+    private final Map<String, ApiPathItem> paths;
+    private final Map<String, ApiSchema> schemas;
+
+    /**
+     * @param paths the path items, sorted by path
+     * @param schemas the schema components, by canonical reference
+     */
+    ApiDocument(Map<String, ApiPathItem> paths, Map<String, ApiSchema> schemas) {
+        this.paths = paths;
+        this.schemas = schemas;
+    }
+
+    /**
+     * @return the path items sorted by path
+     */
+    public Map<String, ApiPathItem> getPaths() {
+        return paths;
+    }
+
+    /**
+     * @return the schema components, by canonical reference
+     */
+    public Map<String, ApiSchema> getSchemas() {
+        return schemas;
+    }
+
+    /**
+     * @return the schema component a schema points to, or the schema itself when it is not a reference
+     */
+    public ApiSchema resolveSchema(ApiSchema schema) {
+        if (schema == null || schema.getRef() == null) {
+            return schema;
+        }
+
+        ApiSchema resolved = schemas.get(schema.getRef());
+        if (resolved == null) {
+            throw new IllegalStateException("Unable to resolve schema reference: " + schema.getRef());
+        }
+
+        return resolved;
+    }
+}
@@ -0,0 +1,704 @@
+package io.kemtoa.openapi.compat.model;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.swagger.v3.oas.models.PathItem.HttpMethod;
+
+/**
+ * Binary encoding of named {@link ApiDocument}s
+ *
+ * Used to store documents parsed once, such as the specs of a released
+ * artifact, so they can be loaded again without parsing them.
+ *
+ * Each path item and each schema component is encoded on its own, and
+ * found through an index of offsets by path and component name at the
+ * start of the encoding. The documents read are backed by the encoding, and
+ * only decode a path item or a component when it is first accessed. Mapping
+ * an encoded file with {@link #map(Path, ApiModelBuilder)} then only reads
+ * the pages of the entries accessed.
+ *
+ * The documents are decoded through an {@link ApiModelBuilder}, so the
+ * decoded nodes are shared with the documents built by the same builder.
+ * Within an entry, strings and schemas are written once and then referred
+ * to by index.
+ */
+public final class ApiDocumentCodec {
+    private static final int MAGIC = 0x4f415043; // "OAPC"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 12;
+
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+
+    // Back-reference markers, a reference to the entry n of a table is written as n + REF
+    private static final int NULL = 0;
+    private static final int NEW = 1;
+    private static final int REF = 2;
+
+    private static final int ENUM_NULL = 0;
+    private static final int ENUM_STRING = 1;
+    private static final int ENUM_INTEGER = 2;
+    private static final int ENUM_LONG = 3;
+    private static final int ENUM_DOUBLE = 4;
+    private static final int ENUM_FLOAT = 5;
+    private static final int ENUM_BOOLEAN = 6;
+    private static final int ENUM_BIG_DECIMAL = 7;
+    private static final int ENUM_BIG_INTEGER = 8;
+
+    private ApiDocumentCodec() {
+    }
+
+    /**
+     * Writes documents by name
+     *
+     * @throws IOException when the documents cannot be written, or hold enumeration values that cannot be encoded
+     */
+    public static void write(OutputStream output, Map<String, ApiDocument> documents) throws IOException {
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(index);
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        DataOutputStream entriesOut = new DataOutputStream(entries);
+
+        writeVarInt(indexOut, documents.size());
+        for (Map.Entry<String, ApiDocument> document : documents.entrySet()) {
+            writeKey(indexOut, document.getKey());
+
+            Map<String, ApiPathItem> paths = new TreeMap<>(document.getValue().getPaths());
+            writeVarInt(indexOut, paths.size());
+            for (Map.Entry<String, ApiPathItem> entry : paths.entrySet()) {
+                writeKey(indexOut, entry.getKey());
+                indexOut.writeInt(entriesOut.size());
+                new Encoder(entriesOut).writePathItem(entry.getValue());
+            }
+
+            Map<String, ApiSchema> schemas = new TreeMap<>(document.getValue().getSchemas());
+            writeVarInt(indexOut, schemas.size());
+            for (Map.Entry<String, ApiSchema> entry : schemas.entrySet()) {
+                writeKey(indexOut, entry.getKey());
+                indexOut.writeInt(entriesOut.size());
+                new Encoder(entriesOut).writeSchema(entry.getValue());
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(HEADER_SIZE + index.size() + entries.size());
+        index.writeTo(out);
+        entries.writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * Reads documents written by {@link #write(OutputStream, Map)}
+     *
+     * @return the documents by name, in the order they were written
+     * @throws IOException when the documents cannot be read, or were written by another version of the codec
+     */
+    public static Map<String, ApiDocument> read(InputStream input, ApiModelBuilder builder) throws IOException {
+        return read(ByteBuffer.wrap(input.readAllBytes()), builder);
+    }
+
+    /**
+     * Maps a file written by {@link #write(OutputStream, Map)} in memory
+     *
+     * Only the index is read. The path items and components are read from
+     * the mapping when they are first accessed, and the mapping is released
+     * once the documents are no longer used.
+     *
+     * @return the documents by name, in the order they were written
+     * @throws IOException when the documents cannot be read, or were written by another version of the codec
+     */
+    public static Map<String, ApiDocument> map(Path file, ApiModelBuilder builder) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Checked before mapping, a mapped file could not be deleted on some platforms
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Reads the whole header
+            }
+            header.flip();
+            checkHeader(header, channel.size());
+
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), builder);
+        }
+    }
+
+    private static void checkHeader(ByteBuffer buffer, long size) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Unsupported encoding of the documents");
+        }
+        if (buffer.getInt() != size) {
+            throw new IOException("Truncated encoding of the documents");
+        }
+    }
+
+    private static Map<String, ApiDocument> read(ByteBuffer buffer, ApiModelBuilder builder) throws IOException {
+        checkHeader(buffer.duplicate(), buffer.remaining());
+
+        ByteBuffer indexBuffer = buffer.duplicate();
+        indexBuffer.position(HEADER_SIZE);
+        DataInputStream index = new DataInputStream(new ByteBufferInputStream(indexBuffer));
+
+        int count = readVarInt(index);
+        String[] names = new String[count];
+        int[][] pathOffsets = new int[count][];
+        int[][] schemaOffsets = new int[count][];
+        String[][] pathKeys = new String[count][];
+        String[][] schemaKeys = new String[count][];
+        for (int i = 0; i < count; i++) {
+            names[i] = readKey(index, builder);
+
+            pathKeys[i] = new String[readVarInt(index)];
+            pathOffsets[i] = new int[pathKeys[i].length];
+            readIndex(index, builder, pathKeys[i], pathOffsets[i]);
+
+            schemaKeys[i] = new String[readVarInt(index)];
+            schemaOffsets[i] = new int[schemaKeys[i].length];
+            readIndex(index, builder, schemaKeys[i], schemaOffsets[i]);
+        }
+
+        int entriesStart = indexBuffer.position();
+        int entriesSize = buffer.limit() - entriesStart;
+        Map<String, ApiDocument> documents = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            int[] paths = checkOffsets(pathOffsets[i], entriesSize);
+            int[] schemas = checkOffsets(schemaOffsets[i], entriesSize);
+            documents.put(names[i], new ApiDocument(
+                    new LazyEntryMap<>(pathKeys[i], entry -> decoder(buffer, entriesStart + paths[entry], builder).readPathItemEntry()),
+                    new LazyEntryMap<>(schemaKeys[i], entry -> decoder(buffer, entriesStart + schemas[entry], builder).readSchemaEntry())));
+        }
+        return documents;
+    }
+
+    private static void readIndex(DataInputStream index, ApiModelBuilder builder, String[] keys, int[] offsets) throws IOException {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = readKey(index, builder);
+            offsets[i] = index.readInt();
+            if (i > 0 && keys[i - 1].compareTo(keys[i]) >= 0) {
+                throw new IOException("Unsorted keys in the encoding of the documents");
+            }
+        }
+    }
+
+    private static int[] checkOffsets(int[] offsets, int entriesSize) throws IOException {
+        for (int offset : offsets) {
+            if (offset < 0 || offset >= entriesSize) {
+                throw new IOException("Invalid entry offset: " + offset);
+            }
+        }
+        return offsets;
+    }
+
+    private static Decoder decoder(ByteBuffer buffer, int offset, ApiModelBuilder builder) {
+        ByteBuffer entry = buffer.duplicate();
+        entry.position(offset);
+        return new Decoder(new DataInputStream(new ByteBufferInputStream(entry)), builder);
+    }
+
+    private static void writeKey(DataOutputStream out, String key) throws IOException {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readKey(DataInputStream in, ApiModelBuilder builder) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return builder.string(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * {@link InputStream} reading from a buffer, from its position
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run() throws IOException;
+    }
+
+    private static class Encoder {
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final Map<ApiSchema, Integer> schemas = new IdentityHashMap<>();
+
+        private Encoder(DataOutputStream out) {
+            this.out = out;
+        }
+
+        private void writePathItem(ApiPathItem pathItem) throws IOException {
+            writeVarInt(out, METHODS.length);
+            for (HttpMethod method : METHODS) {
+                ApiOperation operation = pathItem.getOperation(method);
+                out.writeBoolean(operation != null);
+                if (operation != null) {
+                    writeOperation(operation);
+                }
+            }
+        }
+
+        private void writeOperation(ApiOperation operation) throws IOException {
+            writeString(operation.getOperationId());
+
+            writeVarInt(out, operation.getTags().size());
+            for (String tag : operation.getTags()) {
+                writeString(tag);
+            }
+
+            writeVarInt(out, operation.getParameters().size());
+            for (ApiParameter parameter : operation.getParameters()) {
+                writeString(parameter.getName());
+                writeString(parameter.getIn());
+                out.writeBoolean(parameter.isRequired());
+            }
+
+            out.writeBoolean(operation.getRequestBody() != null);
+            if (operation.getRequestBody() != null) {
+                writeContent(operation.getRequestBody().getContent());
+            }
+
+            writeVarInt(out, operation.getResponses().size());
+            for (Map.Entry<String, ApiResponse> entry : operation.getResponses().entrySet()) {
+                writeString(entry.getKey());
+                writeContent(entry.getValue().getContent());
+            }
+        }
+
+        private void writeContent(Map<String, ApiMediaType> content) throws IOException {
+            writeVarInt(out, content.size());
+            for (Map.Entry<String, ApiMediaType> entry : content.entrySet()) {
+                writeString(entry.getKey());
+                writeSchema(entry.getValue().getSchema());
+            }
+        }
+
+        /**
+         * Writes a schema and its subschemas, in depth-first order
+         *
+         * The steps left to write are kept on an explicit stack, so the depth
+         * of the schemas is only limited by the heap.
+         */
+        private void writeSchema(ApiSchema schema) throws IOException {
+            Deque<Step> steps = new ArrayDeque<>();
+            steps.push(() -> writeSchemaNode(schema, steps));
+            while (!steps.isEmpty()) {
+                steps.pop().run();
+            }
+        }
+
+        private void writeSchemaNode(ApiSchema schema, Deque<Step> steps) throws IOException {
+            if (schema == null) {
+                writeVarInt(out, NULL);
+                return;
+            }
+
+            Integer index = schemas.get(schema);
+            if (index != null) {
+                writeVarInt(out, index + REF);
+                return;
+            }
+
+            writeVarInt(out, NEW);
+            writeString(schema.getRef());
+            writeString(schema.getType());
+            writeString(schema.getFormat());
+            writeEnum(schema.getEnum());
+
+            List<Step> next = new ArrayList<>();
+            next.add(() -> writeSchemaNode(schema.getItems(), steps));
+
+            Map<String, ApiSchema> properties = schema.getProperties();
+            next.add(() -> writeVarInt(out, properties != null ? properties.size() + 1 : NULL));
+            if (properties != null) {
+                for (Map.Entry<String, ApiSchema> entry : properties.entrySet()) {
+                    next.add(() -> writeString(entry.getKey()));
+                    next.add(() -> writeSchemaNode(entry.getValue(), steps));
+                }
+            }
+
+            next.add(() -> {
+                String[] required = schema.getRequiredNames();
+                writeVarInt(out, required != null ? required.length + 1 : NULL);
+                if (required != null) {
+                    for (String name : required) {
+                        writeString(name);
+                    }
+                }
+
+                // Registered once its content is written, the children being numbered first when decoding too
+                schemas.put(schema, schemas.size());
+            });
+
+            for (int i = next.size() - 1; i >= 0; i--) {
+                steps.push(next.get(i));
+            }
+        }
+
+        private void writeEnum(List<Object> values) throws IOException {
+            writeVarInt(out, values != null ? values.size() + 1 : NULL);
+            if (values == null) {
+                return;
+            }
+
+            for (Object value : values) {
+                if (value == null) {
+                    out.writeByte(ENUM_NULL);
+                } else if (value instanceof String) {
+                    out.writeByte(ENUM_STRING);
+                    writeString((String) value);
+                } else if (value instanceof Integer) {
+                    out.writeByte(ENUM_INTEGER);
+                    out.writeInt((Integer) value);
+                } else if (value instanceof Long) {
+                    out.writeByte(ENUM_LONG);
+                    out.writeLong((Long) value);
+                } else if (value instanceof Double) {
+                    out.writeByte(ENUM_DOUBLE);
+                    out.writeDouble((Double) value);
+                } else if (value instanceof Float) {
+                    out.writeByte(ENUM_FLOAT);
+                    out.writeFloat((Float) value);
+                } else if (value instanceof Boolean) {
+                    out.writeByte(ENUM_BOOLEAN);
+                    out.writeBoolean((Boolean) value);
+                } else if (value instanceof BigDecimal) {
+                    out.writeByte(ENUM_BIG_DECIMAL);
+                    writeString(value.toString());
+                } else if (value instanceof BigInteger) {
+                    out.writeByte(ENUM_BIG_INTEGER);
+                    writeString(value.toString());
+                } else {
+                    throw new IOException("Unsupported enumeration value type: " + value.getClass().getName());
+                }
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarInt(out, NULL);
+                return;
+            }
+
+            Integer index = strings.get(value);
+            if (index != null) {
+                writeVarInt(out, index + REF);
+                return;
+            }
+
+            strings.put(value, strings.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, NEW);
+            writeVarInt(out, bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static class Decoder {
+        private final DataInputStream in;
+        private final ApiModelBuilder builder;
+        private final List<String> strings = new ArrayList<>();
+        private final List<ApiSchema> schemas = new ArrayList<>();
+
+        private Decoder(DataInputStream in, ApiModelBuilder builder) {
+            this.in = in;
+            this.builder = builder;
+        }
+
+        /**
+         * Decodes a path item entry, holding the builder since decoding may happen on any thread
+         */
+        private ApiPathItem readPathItemEntry() throws IOException {
+            synchronized (builder) {
+                return readPathItem();
+            }
+        }
+
+        private ApiSchema readSchemaEntry() throws IOException {
+            synchronized (builder) {
+                return readSchema();
+            }
+        }
+
+        private ApiPathItem readPathItem() throws IOException {
+            if (readVarInt(in) != METHODS.length) {
+                throw new IOException("Unsupported encoding of the HTTP methods");
+            }
+
+            ApiOperation[] operations = new ApiOperation[METHODS.length];
+            for (int i = 0; i < operations.length; i++) {
+                if (in.readBoolean()) {
+                    operations[i] = readOperation();
+                }
+            }
+            return new ApiPathItem(operations);
+        }
+
+        private ApiOperation readOperation() throws IOException {
+            String operationId = readString();
+
+            String[] tags = new String[readVarInt(in)];
+            for (int i = 0; i < tags.length; i++) {
+                tags[i] = readString();
+            }
+
+            ApiParameter[] parameters = new ApiParameter[readVarInt(in)];
+            for (int i = 0; i < parameters.length; i++) {
+                parameters[i] = new ApiParameter(readString(), readString(), in.readBoolean());
+            }
+
+            ApiRequestBody requestBody = in.readBoolean() ? new ApiRequestBody(readContent()) : null;
+
+            int responseCount = readVarInt(in);
+            Map<String, ApiResponse> responses = new HashMap<>();
+            for (int i = 0; i < responseCount; i++) {
+                String key = readString();
+                responses.put(key, new ApiResponse(readContent()));
+            }
+
+            return new ApiOperation(operationId, List.of(tags), List.of(parameters), requestBody,
+                    SortedArrayMap.copyOf(responses));
+        }
+
+        private SortedArrayMap<ApiMediaType> readContent() throws IOException {
+            int count = readVarInt(in);
+            Map<String, ApiMediaType> mediaTypes = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                String key = readString();
+                mediaTypes.put(key, new ApiMediaType(readSchema()));
+            }
+            return SortedArrayMap.copyOf(mediaTypes);
+        }
+
+        /**
+         * Reads a schema and its subschemas
+         *
+         * The schemas being read are kept on an explicit stack, so the depth
+         * of the schemas is only limited by the heap.
+         */
+        private ApiSchema readSchema() throws IOException {
+            Deque<SchemaFrame> frames = new ArrayDeque<>();
+            while (true) {
+                int marker = readVarInt(in);
+                if (marker == NEW) {
+                    frames.push(new SchemaFrame(readString(), readString(), readString(), readEnum()));
+                    continue;
+                }
+
+                ApiSchema schema = marker == NULL ? null : schemaAt(marker - REF);
+                // Completes the schemas holding the one read, until one of them has a property left to read
+                while (true) {
+                    SchemaFrame frame = frames.peek();
+                    if (frame == null) {
+                        return schema;
+                    }
+                    if (!frame.add(schema)) {
+                        break;
+                    }
+                    frames.pop();
+                    schema = frame.build();
+                }
+            }
+        }
+
+        private List<Object> readEnum() throws IOException {
+            int count = readVarInt(in);
+            if (count == NULL) {
+                return null;
+            }
+
+            Object[] values = new Object[count - 1];
+            for (int i = 0; i < values.length; i++) {
+                int tag = in.readUnsignedByte();
+                switch (tag) {
+                    case ENUM_NULL:
+                        break;
+                    case ENUM_STRING:
+                        values[i] = readString();
+                        break;
+                    case ENUM_INTEGER:
+                        values[i] = in.readInt();
+                        break;
+                    case ENUM_LONG:
+                        values[i] = in.readLong();
+                        break;
+                    case ENUM_DOUBLE:
+                        values[i] = in.readDouble();
+                        break;
+                    case ENUM_FLOAT:
+                        values[i] = in.readFloat();
+                        break;
+                    case ENUM_BOOLEAN:
+                        values[i] = in.readBoolean();
+                        break;
+                    case ENUM_BIG_DECIMAL:
+                        values[i] = new BigDecimal(readString());
+                        break;
+                    case ENUM_BIG_INTEGER:
+                        values[i] = new BigInteger(readString());
+                        break;
+                    default:
+                        throw new IOException("Unsupported enumeration value tag: " + tag);
+                }
+            }
+            return Collections.unmodifiableList(Arrays.asList(values));
+        }
+
+        /**
+         * A schema being read, waiting for its subschemas
+         */
+        private final class SchemaFrame {
+            private final String ref;
+            private final String type;
+            private final String format;
+            private final List<Object> enumValues;
+            private boolean itemsRead;
+            private ApiSchema items;
+            private Map<String, ApiSchema> properties;
+            private int propertiesLeft;
+            private String propertyKey;
+
+            private SchemaFrame(String ref, String type, String format, List<Object> enumValues) {
+                this.ref = ref;
+                this.type = type;
+                this.format = format;
+                this.enumValues = enumValues;
+            }
+
+            /**
+             * Adds the subschema just read, and reads the key of the next property, if any
+             *
+             * @return true when all the subschemas have been read
+             */
+            private boolean add(ApiSchema schema) throws IOException {
+                if (!itemsRead) {
+                    itemsRead = true;
+                    items = schema;
+
+                    int propertyCount = readVarInt(in);
+                    if (propertyCount != NULL) {
+                        properties = new HashMap<>();
+                        propertiesLeft = propertyCount - 1;
+                    }
+                } else {
+                    properties.put(propertyKey, schema);
+                    propertiesLeft--;
+                }
+
+                if (propertiesLeft > 0) {
+                    propertyKey = readString();
+                    return false;
+                }
+                return true;
+            }
+
+            private ApiSchema build() throws IOException {
+                String[] required = null;
+                int requiredCount = readVarInt(in);
+                if (requiredCount != NULL) {
+                    required = new String[requiredCount - 1];
+                    for (int i = 0; i < required.length; i++) {
+                        required[i] = readString();
+                    }
+                }
+
+                ApiSchema schema = builder.intern(new ApiSchema(ref, type, format, enumValues, items,
+                        properties != null ? SortedArrayMap.copyOf(properties) : null, required));
+                schemas.add(schema);
+                return schema;
+            }
+        }
+
+        private ApiSchema schemaAt(int index) throws IOException {
+            if (index >= schemas.size()) {
+                throw new IOException("Invalid schema reference: " + index);
+            }
+            return schemas.get(index);
+        }
+
+        private String readString() throws IOException {
+            int marker = readVarInt(in);
+            if (marker == NULL) {
+                return null;
+            }
+            if (marker != NEW) {
+                if (marker - REF >= strings.size()) {
+                    throw new IOException("Invalid string reference: " + (marker - REF));
+                }
+                return strings.get(marker - REF);
+            }
+
+            byte[] bytes = new byte[readVarInt(in)];
+            in.readFully(bytes);
+            String value = builder.string(new String(bytes, StandardCharsets.UTF_8));
+            strings.add(value);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.kemtoa.openapi.compat.model;
+
+import java.util.Objects;
+
+/**
+ * Immutable media type node
+ */
+public final class ApiMediaType {
+    private final ApiSchema schema;
+
+    ApiMediaType(ApiSchema schema) {
+        this.schema = schema;
+    }
+
+    public ApiSchema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ApiMediaType that = (ApiMediaType) o;
+        return Objects.equals(schema, that.schema);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(schema);
+    }
+}
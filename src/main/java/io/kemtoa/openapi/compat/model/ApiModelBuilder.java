@@ -0,0 +1,291 @@
+package io.kemtoa.openapi.compat.model;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.PathItem.HttpMethod;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import io.swagger.v3.oas.models.parameters.RequestBody;
+import io.swagger.v3.oas.models.responses.ApiResponses;
+
+/**
+ * Builds {@link ApiDocument} instances from swagger-parser models
+ *
+ * Only the nodes reachable from the paths of the document are converted.
+ * References are resolved using a {@link RefResolver} while converting.
+ * Once the conversion is done, the swagger-parser model is no longer
+ * needed.
+ *
+ * Strings are interned and structurally identical schemas are shared,
+ * including between the documents built by the same builder. Building
+ * both documents of a comparison with the same instance allows storing
+ * the schemas left unchanged only once.
+ *
+ * The paths, responses, media types and properties are kept sorted by key,
+ * not in the order of the document, see {@link SortedArrayMap}. The walk,
+ * and so the findings, follow this order.
+ *
+ * Instances are not thread-safe.
+ */
+public class ApiModelBuilder {
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+
+    private final Map<String, String> strings = new HashMap<>();
+    private final Map<ApiSchema, ApiSchema> schemas = new HashMap<>();
+
+    public ApiDocument build(OpenAPI openAPI) {
+        return build(new RefResolver(openAPI));
+    }
+
+    public ApiDocument build(RefResolver resolver) {
+        return new DocumentConversion(resolver).convert();
+    }
+
+    String string(String value) {
+        return value != null ? strings.computeIfAbsent(value, Function.identity()) : null;
+    }
+
+    ApiSchema intern(ApiSchema schema) {
+        return schemas.computeIfAbsent(schema, Function.identity());
+    }
+
+    private class DocumentConversion {
+        private final RefResolver resolver;
+
+        private final Map<String, ApiSchema> components = new HashMap<>();
+        private final Deque<Map.Entry<String, Schema>> pendingComponents = new ArrayDeque<>();
+        private final Set<String> queuedComponents = new HashSet<>();
+        private final Map<Object, Object> convertedComponents = new IdentityHashMap<>(); // Shared parameters, request bodies and responses
+
+        private DocumentConversion(RefResolver resolver) {
+            this.resolver = resolver;
+        }
+
+        private ApiDocument convert() {
+            OpenAPI openAPI = resolver.getOpenAPI();
+
+            Map<String, ApiPathItem> paths = new HashMap<>();
+            if (openAPI.getPaths() != null) {
+                openAPI.getPaths().forEach((key, pathItem) -> paths.put(string(key), convertPathItem(pathItem)));
+            }
+
+            // Schema components are converted last, and only once, so recursive schemas don't need special handling
+            while (!pendingComponents.isEmpty()) {
+                Map.Entry<String, Schema> pending = pendingComponents.poll();
+                components.put(pending.getKey(), convertSchema(resolver.resolveSchema(pending.getValue())));
+            }
+
+            return new ApiDocument(SortedArrayMap.copyOf(paths), SortedArrayMap.copyOf(components));
+        }
+
+        private ApiPathItem convertPathItem(PathItem pathItem) {
+            ApiOperation[] operations = new ApiOperation[METHODS.length];
+            pathItem.readOperationsMap().forEach((method, operation) ->
+                    operations[method.ordinal()] = convertOperation(operation));
+
+            return new ApiPathItem(operations);
+        }
+
+        private ApiOperation convertOperation(Operation operation) {
+            ApiParameter[] parameters = new ApiParameter[0];
+            if (operation.getParameters() != null) {
+                parameters = operation.getParameters().stream()
+                        .map(resolver::resolveParameter)
+                        .map(this::convertParameter)
+                        .toArray(ApiParameter[]::new);
+            }
+
+            ApiRequestBody requestBody = null;
+            if (operation.getRequestBody() != null) {
+                requestBody = convertRequestBody(resolver.resolveRequestBody(operation.getRequestBody()));
+            }
+
+            Map<String, ApiResponse> responses = new HashMap<>();
+            ApiResponses operationResponses = operation.getResponses();
+            if (operationResponses != null) {
+                operationResponses.forEach((key, response) -> responses.put(string(key),
+                        convertResponse(resolver.resolveResponse(response))));
+            }
+
+            String[] tags = new String[0];
+            if (operation.getTags() != null) {
+                tags = operation.getTags().stream()
+                        .filter(Objects::nonNull)
+                        .map(ApiModelBuilder.this::string)
+                        .toArray(String[]::new);
+            }
+
+            return new ApiOperation(string(operation.getOperationId()), List.of(tags),
+                    List.of(parameters), requestBody, SortedArrayMap.copyOf(responses));
+        }
+
+        private ApiParameter convertParameter(Parameter parameter) {
+            return (ApiParameter) convertedComponents.computeIfAbsent(parameter, key -> new ApiParameter(
+                    string(parameter.getName()),
+                    string(parameter.getIn()),
+                    Boolean.TRUE.equals(parameter.getRequired())));
+        }
+
+        private ApiRequestBody convertRequestBody(RequestBody requestBody) {
+            return (ApiRequestBody) convertedComponents.computeIfAbsent(requestBody, key ->
+                    new ApiRequestBody(convertContent(requestBody.getContent())));
+        }
+
+        private ApiResponse convertResponse(io.swagger.v3.oas.models.responses.ApiResponse response) {
+            return (ApiResponse) convertedComponents.computeIfAbsent(response, key ->
+                    new ApiResponse(convertContent(response.getContent())));
+        }
+
+        private SortedArrayMap<ApiMediaType> convertContent(Content content) {
+            if (content == null) {
+                return SortedArrayMap.empty();
+            }
+
+            Map<String, ApiMediaType> mediaTypes = new HashMap<>();
+            content.forEach((key, mediaType) -> mediaTypes.put(string(key), convertMediaType(mediaType)));
+            return SortedArrayMap.copyOf(mediaTypes);
+        }
+
+        private ApiMediaType convertMediaType(MediaType mediaType) {
+            return new ApiMediaType(mediaType != null ? convertSchema(mediaType.getSchema()) : null);
+        }
+
+        /**
+         * Converts a schema and its inline subschemas
+         *
+         * The subschemas are converted before the schemas holding them, using
+         * an explicit stack, so the depth of the schemas is only limited by the
+         * heap and not by the stack of the thread.
+         */
+        private ApiSchema convertSchema(Schema root) {
+            if (root == null) {
+                return null;
+            }
+
+            Map<Schema, ApiSchema> converted = new IdentityHashMap<>();
+            Set<Schema> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+            Deque<Schema> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                Schema schema = stack.peek();
+                if (converted.containsKey(schema)) {
+                    stack.pop();
+                    continue;
+                }
+
+                boolean childrenConverted = true;
+                for (Schema child : children(schema)) {
+                    if (child != null && !converted.containsKey(child)) {
+                        if (pending.contains(child)) {
+                            throw new IllegalStateException("Circular inline schema");
+                        }
+                        stack.push(child);
+                        childrenConverted = false;
+                    }
+                }
+                if (childrenConverted) {
+                    converted.put(stack.pop(), convertSchemaNode(schema, converted));
+                    pending.remove(schema);
+                } else {
+                    pending.add(schema);
+                }
+            }
+            return converted.get(root);
+        }
+
+        /**
+         * @return the inline subschemas of a schema, which may hold nulls
+         */
+        private List<Schema> children(Schema schema) {
+            if (schema.get$ref() != null) {
+                return Collections.emptyList();
+            }
+
+            List<Schema> children = new ArrayList<>();
+            children.add(schema.getItems());
+            if (schema.getProperties() != null) {
+                children.addAll(((Map<String, Schema>) schema.getProperties()).values());
+            }
+            return children;
+        }
+
+        /**
+         * Converts a schema whose subschemas are already converted
+         */
+        private ApiSchema convertSchemaNode(Schema schema, Map<Schema, ApiSchema> converted) {
+            if (schema.get$ref() != null) {
+                String ref = string(resolver.canonicalRef(schema.get$ref()));
+                if (queuedComponents.add(ref)) {
+                    pendingComponents.add(new AbstractMap.SimpleImmutableEntry<>(ref, schema));
+                }
+
+                return intern(new ApiSchema(ref, string(schema.getType()), string(schema.getFormat()),
+                        null, null, null, null));
+            }
+
+            List<Object> enumValues = null;
+            if (schema.getEnum() != null) {
+                Object[] values = schema.getEnum().toArray();
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] instanceof byte[]) {
+                        // The values of 'byte' schemas are decoded by swagger-parser, arrays have no value equality
+                        values[i] = Base64.getEncoder().encodeToString((byte[]) values[i]);
+                    }
+                    if (values[i] instanceof String) {
+                        values[i] = string((String) values[i]);
+                    }
+                }
+                enumValues = Collections.unmodifiableList(Arrays.asList(values));
+            }
+
+            SortedArrayMap<ApiSchema> properties = null;
+            if (schema.getProperties() != null) {
+                Map<String, ApiSchema> convertedProperties = new HashMap<>();
+                for (Object entryObject : schema.getProperties().entrySet()) {
+                    Map.Entry<String, Schema> entry = (Map.Entry<String, Schema>) entryObject;
+                    convertedProperties.put(string(entry.getKey()), entry.getValue() != null ? converted.get(entry.getValue()) : null);
+                }
+                properties = SortedArrayMap.copyOf(convertedProperties);
+            }
+
+            String[] required = null;
+            if (schema.getRequired() != null) {
+                Set<String> requiredNames = new TreeSet<>();
+                for (Object name : schema.getRequired()) {
+                    requiredNames.add(string((String) name));
+                }
+                required = requiredNames.toArray(new String[0]);
+            }
+
+            return intern(new ApiSchema(
+                    null,
+                    string(schema.getType()),
+                    string(schema.getFormat()),
+                    enumValues,
+                    schema.getItems() != null ? converted.get(schema.getItems()) : null,
+                    properties,
+                    required
+            ));
+        }
+    }
+}
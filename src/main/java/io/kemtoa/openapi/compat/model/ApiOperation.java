@@ -0,0 +1,75 @@
+package io.kemtoa.openapi.compat.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable operation node
+ */
+public final class ApiOperation {
+    private final String operationId;
+    private final List<String> tags;
+    private final List<ApiParameter> parameters;
+    private final ApiRequestBody requestBody;
+    private final SortedArrayMap<ApiResponse> responses;
+
+    ApiOperation(String operationId, List<String> tags, List<ApiParameter> parameters,
+                 ApiRequestBody requestBody, SortedArrayMap<ApiResponse> responses) {
+        this.operationId = operationId;
+        this.tags = tags;
+        this.parameters = parameters;
+        this.requestBody = requestBody;
+        this.responses = responses;
+    }
+
+    /**
+     * @return the operationId, or null when the operation has none
+     */
+    public String getOperationId() {
+        return operationId;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public List<ApiParameter> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return the request body, or null when the operation has none
+     */
+    public ApiRequestBody getRequestBody() {
+        return requestBody;
+    }
+
+    /**
+     * @return the responses sorted by status code
+     */
+    public Map<String, ApiResponse> getResponses() {
+        return responses;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ApiOperation that = (ApiOperation) o;
+        return Objects.equals(operationId, that.operationId)
+                && tags.equals(that.tags)
+                && parameters.equals(that.parameters)
+                && Objects.equals(requestBody, that.requestBody)
+                && responses.equals(that.responses);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(operationId, tags, parameters, requestBody, responses);
+    }
+}
@@ -0,0 +1,52 @@
+package io.kemtoa.openapi.compat.model;
+
+import java.util.Objects;
+
+/**
+ * Immutable parameter node, with its reference already resolved
+ */
+public final class ApiParameter {
+    private final String name;
+    private final String in;
+    private final boolean required;
+
+    ApiParameter(String name, String in, boolean required) {
+        this.name = name;
+        this.in = in;
+        this.required = required;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the location of the parameter: 'query', 'header', 'path' or 'cookie'
+     */
+    public String getIn() {
+        return in;
+    }
+
+    public boolean isRequired() {
+        return required;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ApiParameter that = (ApiParameter) o;
+        return required == that.required
+                && Objects.equals(name, that.name)
+                && Objects.equals(in, that.in);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, in, required);
+    }
+}
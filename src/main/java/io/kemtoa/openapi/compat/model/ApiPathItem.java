@@ -0,0 +1,59 @@
+package io.kemtoa.openapi.compat.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.swagger.v3.oas.models.PathItem.HttpMethod;
+
+/**
+ * Immutable path item node
+ *
+ * Operations are stored in an array indexed by HTTP method.
+ */
+public final class ApiPathItem {
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+
+    private final ApiOperation[] operations;
+
+    ApiPathItem(ApiOperation[] operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * @return the operation for the specified method, or null when there is none
+     */
+    public ApiOperation getOperation(HttpMethod method) {
+        return operations[method.ordinal()];
+    }
+
+    /**
+     * @return the HTTP methods having an operation in this path item
+     */
+    public List<HttpMethod> getMethods() {
+        List<HttpMethod> methods = new ArrayList<>(operations.length);
+        for (HttpMethod method : METHODS) {
+            if (operations[method.ordinal()] != null) {
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ApiPathItem that = (ApiPathItem) o;
+        return Arrays.equals(operations, that.operations);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(operations);
+    }
+}
@@ -0,0 +1,38 @@
+package io.kemtoa.openapi.compat.model;
+
+import java.util.Map;
+
+/**
+ * Immutable response node, with its reference already resolved
+ */
+public final class ApiResponse {
+    private final SortedArrayMap<ApiMediaType> content;
+
+    ApiResponse(SortedArrayMap<ApiMediaType> content) {
+        this.content = content;
+    }
+
+    /**
+     * @return the media types sorted by name
+     */
+    public Map<String, ApiMediaType> getContent() {
+        return content;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ApiResponse that = (ApiResponse) o;
+        return content.equals(that.content);
+    }
+
+    @Override
+    public int hashCode() {
+        return content.hashCode();
+    }
+}
@@ -0,0 +1,121 @@
+package io.kemtoa.openapi.compat.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable schema node
+ *
+ * Only the fields used for comparing documents are retained. References
+ * to other schemas are kept as is, and are resolved through
+ * {@link ApiDocument#resolveSchema(ApiSchema)}.
+ *
+ * Schema nodes have a structural equality. The hash code is computed once
+ * when the node is created.
+ */
+public final class ApiSchema {
+    private final String ref;
+    private final String type;
+    private final String format;
+    private final List<Object> enumValues;
+    private final ApiSchema items;
+    private final SortedArrayMap<ApiSchema> properties;
+    private final String[] required;
+    private final int hash;
+
+    ApiSchema(String ref, String type, String format, List<Object> enumValues, ApiSchema items,
+              SortedArrayMap<ApiSchema> properties, String[] required) {
+        this.ref = ref;
+        this.type = type;
+        this.format = format;
+        this.enumValues = enumValues;
+        this.items = items;
+        this.properties = properties;
+        this.required = required;
+        this.hash = Objects.hash(ref, type, format, enumValues, items, properties) * 31 + Arrays.hashCode(required);
+    }
+
+    /**
+     * @return the canonical reference to the schema component this node points to,
+     *         or null when the schema is not a reference
+     */
+    public String getRef() {
+        return ref;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * @return the enumeration values, or null when the schema is not an enumeration
+     */
+    public List<Object> getEnum() {
+        return enumValues;
+    }
+
+    public ApiSchema getItems() {
+        return items;
+    }
+
+    /**
+     * @return the properties sorted by name, or null when the schema does not declare properties
+     */
+    public Map<String, ApiSchema> getProperties() {
+        return properties;
+    }
+
+    /**
+     * @return the names of the required properties, sorted
+     */
+    public List<String> getRequired() {
+        return required != null ? Collections.unmodifiableList(Arrays.asList(required)) : Collections.emptyList();
+    }
+
+    /**
+     * @return the sorted names of the required properties, or null when the schema has none
+     */
+    String[] getRequiredNames() {
+        return required;
+    }
+
+    public boolean isRequired(String propertyName) {
+        return required != null && Arrays.binarySearch(required, propertyName) >= 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ApiSchema that = (ApiSchema) o;
+        return hash == that.hash
+                && Objects.equals(ref, that.ref)
+                && Objects.equals(type, that.type)
+                && Objects.equals(format, that.format)
+                && Objects.equals(enumValues, that.enumValues)
+                && Objects.equals(items, that.items)
+                && Objects.equals(properties, that.properties)
+                && Arrays.equals(required, that.required);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return ref != null ? ref : "ApiSchema{type=" + type + ", format=" + format + "}";
+    }
+}
@@ -0,0 +1,148 @@
+package io.kemtoa.openapi.compat.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Immutable map with string keys whose values are decoded on first access
+ *
+ * The keys are held in a sorted array, like {@link SortedArrayMap}. Each
+ * value is decoded by a {@link ValueDecoder} the first time it is read, and
+ * then retained. Iterating over the keys does not decode any value.
+ *
+ * Safe for concurrent readers, a value decoded concurrently by several
+ * threads being only retained once.
+ *
+ * @param <V> the type of the values
+ */
+final class LazyEntryMap<V> extends AbstractMap<String, V> {
+    private final String[] keys;
+    private final ValueDecoder<V> decoder;
+    private final AtomicReferenceArray<V> values;
+
+    @FunctionalInterface
+    interface ValueDecoder<V> {
+        V decode(int index) throws IOException;
+    }
+
+    /**
+     * @param keys the keys, sorted
+     * @param decoder the decoder of the value of the key at an index
+     */
+    LazyEntryMap(String[] keys, ValueDecoder<V> decoder) {
+        this.keys = keys;
+        this.decoder = decoder;
+        this.values = new AtomicReferenceArray<>(keys.length);
+    }
+
+    /**
+     * @return the number of values decoded so far
+     */
+    int decodedCount() {
+        int count = 0;
+        for (int i = 0; i < values.length(); i++) {
+            if (values.get(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        int index = indexOf(key);
+        return index >= 0 ? valueAt(index) : null;
+    }
+
+    private V valueAt(int index) {
+        V value = values.get(index);
+        if (value != null) {
+            return value;
+        }
+
+        try {
+            value = decoder.decode(index);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to decode the value of " + keys[index], e);
+        }
+        return values.compareAndSet(index, null, value) ? value : values.get(index);
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return Collections.unmodifiableList(Arrays.asList(keys)).iterator();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        return new AbstractSet<Entry<String, V>>() {
+            @Override
+            public Iterator<Entry<String, V>> iterator() {
+                return new Iterator<Entry<String, V>>() {
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < keys.length;
+                    }
+
+                    @Override
+                    public Entry<String, V> next() {
+                        if (index >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+
+                        Entry<String, V> entry = new SimpleImmutableEntry<>(keys[index], valueAt(index));
+                        index++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        return Arrays.binarySearch(keys, key);
+    }
+}
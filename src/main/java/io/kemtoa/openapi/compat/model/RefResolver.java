@@ -0,0 +1,251 @@
+package io.kemtoa.openapi.compat.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLConnection;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.core.util.Yaml;
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import io.swagger.v3.oas.models.parameters.RequestBody;
+import io.swagger.v3.oas.models.responses.ApiResponse;
+
+/**
+ * Resolves the '$ref' references of an OpenAPI document on demand.
+ *
+ * Documents parsed with reference resolution turned off keep all their
+ * references, including references to external files. This class resolves
+ * them only when they are needed by the walker, and caches the results so
+ * each reference is resolved at most once per document.
+ *
+ * References to external documents are resolved relative to the location
+ * of the document. The references found inside an external document are
+ * rewritten as absolute references so they can later be resolved from
+ * the root document.
+ */
+public class RefResolver {
+    private static final String COMPONENTS_PREFIX = "#/components/";
+
+    private final OpenAPI openAPI;
+    private final URI location;
+
+    private final Map<String, Object> resolvedRefs = new HashMap<>();
+    private final Map<URI, JsonNode> externalDocuments = new HashMap<>();
+
+    /**
+     * @param openAPI the document references are resolved against
+     */
+    public RefResolver(OpenAPI openAPI) {
+        this(openAPI, null);
+    }
+
+    /**
+     * @param openAPI the document references are resolved against
+     * @param location the location of the document, used to resolve references to
+     *                 external documents. When null, the working directory is used.
+     */
+    public RefResolver(OpenAPI openAPI, URI location) {
+        this.openAPI = openAPI;
+        this.location = location != null ? location : Paths.get("").toAbsolutePath().toUri();
+    }
+
+    public OpenAPI getOpenAPI() {
+        return openAPI;
+    }
+
+    /**
+     * @return a reference that no longer depends on the location of the document,
+     *         for references to external documents
+     */
+    public String canonicalRef(String ref) {
+        return ref.startsWith("#") ? ref : resolveUri(location, ref).toString();
+    }
+
+    public Schema resolveSchema(Schema schema) {
+        return follow(schema, Schema::get$ref, "schemas", Components::getSchemas, Schema.class);
+    }
+
+    public Parameter resolveParameter(Parameter parameter) {
+        return follow(parameter, Parameter::get$ref, "parameters", Components::getParameters, Parameter.class);
+    }
+
+    public RequestBody resolveRequestBody(RequestBody requestBody) {
+        return follow(requestBody, RequestBody::get$ref, "requestBodies", Components::getRequestBodies, RequestBody.class);
+    }
+
+    public ApiResponse resolveResponse(ApiResponse response) {
+        return follow(response, ApiResponse::get$ref, "responses", Components::getResponses, ApiResponse.class);
+    }
+
+    /**
+     * Follows references until a node that is not a reference is found.
+     * Null nodes are returned as is.
+     */
+    private <T> T follow(T node, Function<T, String> refGetter, String componentType,
+                         Function<Components, Map<String, T>> componentsGetter, Class<T> type) {
+        Set<String> followedRefs = new HashSet<>();
+
+        String ref;
+        while (node != null && (ref = refGetter.apply(node)) != null) {
+            if (!followedRefs.add(ref)) {
+                throw new IllegalStateException("Circular reference: " + ref);
+            }
+
+            node = resolve(ref, componentType, componentsGetter, type);
+        }
+
+        return node;
+    }
+
+    private <T> T resolve(String ref, String componentType, Function<Components, Map<String, T>> componentsGetter, Class<T> type) {
+        Object cached = resolvedRefs.get(ref);
+        if (cached != null) {
+            return type.cast(cached);
+        }
+
+        T resolved;
+        if (ref.startsWith("#")) {
+            resolved = resolveLocal(ref, componentType, componentsGetter);
+        } else {
+            resolved = resolveExternal(ref, type);
+        }
+
+        if (resolved == null) {
+            throw new IllegalStateException("Unable to resolve reference: " + ref);
+        }
+
+        resolvedRefs.put(ref, resolved);
+        return resolved;
+    }
+
+    private <T> T resolveLocal(String ref, String componentType, Function<Components, Map<String, T>> componentsGetter) {
+        String prefix = COMPONENTS_PREFIX + componentType + "/";
+        if (!ref.startsWith(prefix)) {
+            throw new IllegalStateException("Unsupported local reference: " + ref);
+        }
+
+        Components components = openAPI.getComponents();
+        if (components == null) {
+            return null;
+        }
+        Map<String, T> componentsOfType = componentsGetter.apply(components);
+        if (componentsOfType == null) {
+            return null;
+        }
+
+        return componentsOfType.get(unescapePointerToken(ref.substring(prefix.length())));
+    }
+
+    private <T> T resolveExternal(String ref, Class<T> type) {
+        URI refUri = resolveUri(location, ref);
+        String fragment = refUri.getFragment();
+
+        URI documentUri;
+        try {
+            documentUri = new URI(refUri.getScheme(), refUri.getSchemeSpecificPart(), null);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Invalid reference: " + ref, e);
+        }
+
+        JsonNode document = externalDocuments.computeIfAbsent(documentUri, this::readExternalDocument);
+        JsonNode node = fragment != null && !fragment.isEmpty() ? document.at(fragment) : document;
+        if (node.isMissingNode()) {
+            return null;
+        }
+
+        node = absolutizeRefs(node.deepCopy(), documentUri);
+
+        return Json.mapper().convertValue(node, type);
+    }
+
+    private JsonNode readExternalDocument(URI documentUri) {
+        try {
+            URLConnection connection = documentUri.toURL().openConnection();
+            // Otherwise the jar files the documents are read from stay open
+            connection.setUseCaches(false);
+            try (InputStream in = connection.getInputStream()) {
+                // YAML being a superset of JSON, the YAML mapper reads both formats
+                return Yaml.mapper().readTree(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read referenced document: " + documentUri, e);
+        } catch (IllegalArgumentException e) {
+            // Such as a reference that is still relative, the location of the document not being hierarchical
+            throw new UncheckedIOException(new IOException("Unable to read referenced document: " + documentUri, e));
+        }
+    }
+
+    /**
+     * Rewrites the references found in a node extracted from an external
+     * document so they no longer depend on the location of that document
+     *
+     * The nodes are visited with an explicit stack, deeply nested documents
+     * are not limited by the stack of the thread.
+     */
+    private JsonNode absolutizeRefs(JsonNode root, URI documentUri) {
+        Deque<JsonNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            JsonNode node = stack.pop();
+            if (node.isObject()) {
+                ObjectNode objectNode = (ObjectNode) node;
+                JsonNode ref = objectNode.get("$ref");
+                if (ref != null && ref.isTextual()) {
+                    objectNode.set("$ref", TextNode.valueOf(resolveUri(documentUri, ref.asText()).toString()));
+                }
+            }
+
+            Iterator<JsonNode> children = node.elements();
+            while (children.hasNext()) {
+                stack.push(children.next());
+            }
+        }
+
+        return root;
+    }
+
+    /**
+     * Resolves a reference against the location of a document
+     *
+     * The locations of the documents read from a jar, such as
+     * 'jar:file:/api.jar!/v1/api.yml', are opaque URIs that
+     * {@link URI#resolve(String)} leaves references unresolved against, the
+     * reference is then resolved against the path of the entry in the jar.
+     */
+    static URI resolveUri(URI base, String ref) {
+        URI refUri = URI.create(ref);
+        if (refUri.isAbsolute() || !base.isOpaque() || !"jar".equals(base.getScheme())) {
+            return base.resolve(refUri);
+        }
+
+        String archive = base.getRawSchemeSpecificPart();
+        int separator = archive.indexOf("!/");
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid location of a document in a jar: " + base);
+        }
+        URI entry = URI.create(archive.substring(separator + 1));
+        return URI.create("jar:" + archive.substring(0, separator + 1) + entry.resolve(refUri));
+    }
+
+    private static String unescapePointerToken(String token) {
+        return token.replace("~1", "/").replace("~0", "~");
+    }
+}
@@ -0,0 +1,178 @@
+package io.kemtoa.openapi.compat.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable map with string keys backed by two sorted arrays
+ *
+ * Lookups are performed using a binary search. Iteration follows the
+ * natural ordering of the keys. Compared to a {@link java.util.HashMap},
+ * no entry objects are retained.
+ *
+ * @param <V> the type of the values
+ */
+public final class SortedArrayMap<V> extends AbstractMap<String, V> {
+    private static final SortedArrayMap<?> EMPTY = new SortedArrayMap<>(new String[0], new Object[0]);
+
+    private final String[] keys;
+    private final Object[] values;
+    private int hash;
+
+    private SortedArrayMap(String[] keys, Object[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> SortedArrayMap<V> empty() {
+        return (SortedArrayMap<V>) EMPTY;
+    }
+
+    public static <V> SortedArrayMap<V> copyOf(Map<String, ? extends V> map) {
+        if (map instanceof SortedArrayMap) {
+            @SuppressWarnings("unchecked")
+            SortedArrayMap<V> sortedArrayMap = (SortedArrayMap<V>) map;
+            return sortedArrayMap;
+        }
+
+        if (map.isEmpty()) {
+            return empty();
+        }
+
+        String[] keys = map.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+
+        Object[] values = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = map.get(keys[i]);
+        }
+
+        return new SortedArrayMap<>(keys, values);
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int index = indexOf(key);
+        return index >= 0 ? (V) values[index] : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super String, ? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            action.accept(keys[i], (V) values[i]);
+        }
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return Collections.unmodifiableList(Arrays.asList(keys)).iterator();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<V> values() {
+        return Collections.unmodifiableList((List<V>) Arrays.asList(values));
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        return new AbstractSet<Entry<String, V>>() {
+            @Override
+            public Iterator<Entry<String, V>> iterator() {
+                return new Iterator<Entry<String, V>>() {
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < keys.length;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Entry<String, V> next() {
+                        if (index >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+
+                        Entry<String, V> entry = new SimpleImmutableEntry<>(keys[index], (V) values[index]);
+                        index++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof SortedArrayMap) {
+            SortedArrayMap<?> that = (SortedArrayMap<?>) o;
+            return hashCode() == that.hashCode()
+                    && Arrays.equals(keys, that.keys)
+                    && Arrays.equals(values, that.values);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && keys.length > 0) {
+            h = super.hashCode();
+            hash = h;
+        }
+        return h;
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        return Arrays.binarySearch(keys, key);
+    }
+}
@@ -0,0 +1,83 @@
+package io.kemtoa.openapi.compat.report;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import io.kemtoa.openapi.compat.rules.Finding;
+
+/**
+ * JUnit XML report, for the test tabs of CI servers
+ *
+ * Each finding is a failed test case named after its location, in the
+ * class named after its group and rule. A compatible group is a passed test
+ * case. The totals of the suite are not written, since they are only known
+ * once all the groups are checked; CI servers count the test cases instead.
+ */
+public class JUnitReportWriter implements ReportWriter {
+    private static final String SUITE_NAME = "openapi-backwards-compat";
+
+    private final Writer writer;
+    private final XMLStreamWriter xml;
+
+    JUnitReportWriter(Writer writer) throws IOException {
+        this.writer = writer;
+        try {
+            this.xml = XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeStartElement("testsuite");
+            xml.writeAttribute("name", SUITE_NAME);
+        } catch (XMLStreamException e) {
+            throw new IOException("Unable to write the JUnit report", e);
+        }
+    }
+
+    @Override
+    public synchronized void finding(String group, Path spec, Finding finding) throws IOException {
+        try {
+            xml.writeStartElement("testcase");
+            xml.writeAttribute("classname", group + "." + finding.getRuleId());
+            xml.writeAttribute("name", String.join(", ", finding.getFrames()));
+            xml.writeStartElement("failure");
+            xml.writeAttribute("type", finding.getRuleId());
+            xml.writeAttribute("message", finding.getMessage());
+            xml.writeCharacters("old: " + finding.getLeft() + "\nnew: " + finding.getRight());
+            xml.writeEndElement();
+            xml.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw new IOException("Unable to write the JUnit report", e);
+        }
+    }
+
+    @Override
+    public synchronized void groupChecked(String group, Path spec, int errorCount) throws IOException {
+        try {
+            if (errorCount == 0) {
+                xml.writeEmptyElement("testcase");
+                xml.writeAttribute("classname", group);
+                xml.writeAttribute("name", "compatible");
+            }
+            xml.flush();
+            writer.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException("Unable to write the JUnit report", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Unable to write the JUnit report", e);
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package io.kemtoa.openapi.compat.report;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.kemtoa.openapi.compat.rules.Finding;
+
+/**
+ * Report with a JSON record per line for each finding, and for each group checked
+ */
+public class JsonLinesReportWriter implements ReportWriter {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Writer writer;
+    private final SpecUris specUris;
+
+    JsonLinesReportWriter(Writer writer, SpecUris specUris) {
+        this.writer = writer;
+        this.specUris = specUris;
+    }
+
+    @Override
+    public synchronized void finding(String group, Path spec, Finding finding) throws IOException {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("type", "finding");
+        record.put("group", group);
+        record.put("spec", specUris.uri(spec));
+        record.put("ruleId", finding.getRuleId());
+        record.put("location", finding.getFrames());
+        record.put("message", finding.getMessage());
+        record.put("left", finding.getLeft());
+        record.put("right", finding.getRight());
+        write(record);
+    }
+
+    @Override
+    public synchronized void groupChecked(String group, Path spec, int errorCount) throws IOException {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("type", "group");
+        record.put("group", group);
+        record.put("spec", specUris.uri(spec));
+        record.put("compatible", errorCount == 0);
+        record.put("errors", errorCount);
+        write(record);
+        writer.flush();
+    }
+
+    private void write(Map<String, Object> record) throws IOException {
+        writer.write(mapper.writeValueAsString(record));
+        writer.write('\n');
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
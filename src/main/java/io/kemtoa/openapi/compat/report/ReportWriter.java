@@ -0,0 +1,36 @@
+package io.kemtoa.openapi.compat.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import io.kemtoa.openapi.compat.rules.Finding;
+
+/**
+ * Writes the findings of the compatibility checks to a report file as they are found
+ *
+ * The findings are written as soon as they are received, so the memory
+ * used does not depend on their number, and the report is flushed after each
+ * group so it holds the results of the groups already checked even when the
+ * build fails. The report is completed when the writer is closed.
+ *
+ * Implementations are thread-safe: several groups may be checked in
+ * parallel, and the findings of a group may be reported by several threads.
+ */
+public interface ReportWriter extends Closeable {
+
+    /**
+     * Writes a finding of a group
+     *
+     * @param group the name of the group
+     * @param spec the spec of the group
+     */
+    void finding(String group, Path spec, Finding finding) throws IOException;
+
+    /**
+     * Records that the check of a group is complete, and flushes the report
+     *
+     * @param errorCount the number of findings of the group
+     */
+    void groupChecked(String group, Path spec, int errorCount) throws IOException;
+}
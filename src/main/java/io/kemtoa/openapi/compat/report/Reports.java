@@ -0,0 +1,114 @@
+package io.kemtoa.openapi.compat.report;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+
+import io.kemtoa.openapi.compat.rules.Finding;
+
+/**
+ * {@link ReportWriter} writing the reports of several formats at once
+ *
+ * The supported formats are {@value #SARIF}, {@value #JUNIT} and {@value #JSON_LINES}.
+ */
+public final class Reports implements ReportWriter {
+    public static final String SARIF = "sarif";
+    public static final String JUNIT = "junit";
+    public static final String JSON_LINES = "jsonl";
+
+    private final List<ReportWriter> writers;
+
+    private Reports(List<ReportWriter> writers) {
+        this.writers = writers;
+    }
+
+    /**
+     * Creates the report files of the specified formats
+     *
+     * @param directory the directory of the report files
+     * @param name the base name of the report files
+     * @param baseDirectory the directory the paths of the specs are relative to in the reports
+     * @throws IllegalArgumentException when a format is not supported
+     */
+    public static Reports open(Collection<String> formats, Path directory, String name, Path baseDirectory) throws IOException {
+        List<ReportWriter> writers = new ArrayList<>();
+        if (formats.isEmpty()) {
+            return new Reports(writers);
+        }
+
+        Files.createDirectories(directory);
+        SpecUris specUris = new SpecUris(baseDirectory);
+        try {
+            for (String format : new LinkedHashSet<>(formats)) {
+                switch (format.trim().toLowerCase(Locale.ROOT)) {
+                    case SARIF:
+                        writers.add(new SarifReportWriter(open(directory.resolve(name + ".sarif")), specUris));
+                        break;
+                    case JUNIT:
+                        writers.add(new JUnitReportWriter(open(directory.resolve("TEST-" + name + ".xml"))));
+                        break;
+                    case JSON_LINES:
+                        writers.add(new JsonLinesReportWriter(open(directory.resolve(name + ".jsonl")), specUris));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unsupported report format: " + format);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            new Reports(writers).close();
+            throw e;
+        }
+        return new Reports(writers);
+    }
+
+    private static Writer open(Path path) throws IOException {
+        return Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+    }
+
+    public boolean isEmpty() {
+        return writers.isEmpty();
+    }
+
+    @Override
+    public void finding(String group, Path spec, Finding finding) throws IOException {
+        for (ReportWriter writer : writers) {
+            writer.finding(group, spec, finding);
+        }
+    }
+
+    @Override
+    public void groupChecked(String group, Path spec, int errorCount) throws IOException {
+        for (ReportWriter writer : writers) {
+            writer.groupChecked(group, spec, errorCount);
+        }
+    }
+
+    /**
+     * Completes and closes all the reports, even when some of them fail
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (ReportWriter writer : writers) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
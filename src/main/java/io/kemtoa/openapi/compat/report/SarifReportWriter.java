@@ -0,0 +1,93 @@
+package io.kemtoa.openapi.compat.report;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.kemtoa.openapi.compat.rules.Finding;
+
+/**
+ * SARIF 2.1.0 report, for code scanning tools
+ *
+ * The document holds a single run, with a result per finding. The results
+ * are written as they are received, and the enclosing arrays and objects are
+ * closed when the writer is closed.
+ */
+public class SarifReportWriter implements ReportWriter {
+    private static final String SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+    private static final String TOOL_NAME = "openapi-backwards-compat";
+
+    private final JsonGenerator generator;
+    private final SpecUris specUris;
+
+    SarifReportWriter(Writer writer, SpecUris specUris) throws IOException {
+        this.generator = new JsonFactory().createGenerator(writer);
+        this.specUris = specUris;
+
+        generator.writeStartObject();
+        generator.writeStringField("$schema", SCHEMA);
+        generator.writeStringField("version", "2.1.0");
+        generator.writeArrayFieldStart("runs");
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("tool");
+        generator.writeObjectFieldStart("driver");
+        generator.writeStringField("name", TOOL_NAME);
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeArrayFieldStart("results");
+    }
+
+    @Override
+    public synchronized void finding(String group, Path spec, Finding finding) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("ruleId", finding.getRuleId());
+        generator.writeStringField("level", "error");
+        generator.writeObjectFieldStart("message");
+        generator.writeStringField("text", finding.getMessage());
+        generator.writeEndObject();
+
+        generator.writeArrayFieldStart("locations");
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("physicalLocation");
+        generator.writeObjectFieldStart("artifactLocation");
+        generator.writeStringField("uri", specUris.uri(spec));
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeArrayFieldStart("logicalLocations");
+        generator.writeStartObject();
+        generator.writeStringField("fullyQualifiedName", String.join(", ", finding.getFrames()));
+        generator.writeEndObject();
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeEndArray();
+
+        generator.writeObjectFieldStart("properties");
+        generator.writeStringField("group", group);
+        generator.writeArrayFieldStart("frames");
+        for (String frame : finding.getFrames()) {
+            generator.writeString(frame);
+        }
+        generator.writeEndArray();
+        generator.writeStringField("left", finding.getLeft());
+        generator.writeStringField("right", finding.getRight());
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    @Override
+    public synchronized void groupChecked(String group, Path spec, int errorCount) throws IOException {
+        generator.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.close();
+    }
+}
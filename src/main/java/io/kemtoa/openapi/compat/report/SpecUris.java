@@ -0,0 +1,27 @@
+package io.kemtoa.openapi.compat.report;
+
+import java.nio.file.Path;
+
+import org.apache.commons.io.FilenameUtils;
+
+/**
+ * Relative URIs of the specs in the reports, so the reports do not depend on where the build ran
+ */
+final class SpecUris {
+    private final Path baseDirectory;
+
+    SpecUris(Path baseDirectory) {
+        this.baseDirectory = baseDirectory.toAbsolutePath().normalize();
+    }
+
+    /**
+     * @return the path of a spec relative to the base directory, or its absolute URI when it is outside
+     */
+    String uri(Path spec) {
+        Path path = spec.toAbsolutePath().normalize();
+        if (!path.startsWith(baseDirectory)) {
+            return path.toUri().toString();
+        }
+        return FilenameUtils.separatorsToUnix(baseDirectory.relativize(path).toString());
+    }
+}
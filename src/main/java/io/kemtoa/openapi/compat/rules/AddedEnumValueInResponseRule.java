@@ -10,7 +10,7 @@ public class AddedEnumValueInResponseRule extends Rule {
     @Override
     public <T> void acceptEnumValue(T left, T right) {
         if (left == null && location.isResponse()) {
-            addError("The enum value '" + right + "' has been added in the new spec.");
+            addError("The enum value '" + right + "' has been added in the new spec.", null, right);
         }
     }
 }
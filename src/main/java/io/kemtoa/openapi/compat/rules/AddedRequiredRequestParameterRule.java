@@ -1,9 +1,9 @@
 package io.kemtoa.openapi.compat.rules;
 
-import io.swagger.v3.oas.models.media.Schema;
-import io.swagger.v3.oas.models.parameters.Parameter;
+import java.util.Set;
 
-import java.util.Map;
+import io.kemtoa.openapi.compat.model.ApiParameter;
+import io.kemtoa.openapi.compat.walker.SchemaDiff;
 
 /**
  * Adding a required property to a request parameter causes client requests
@@ -12,30 +12,26 @@ import java.util.Map;
 public class AddedRequiredRequestParameterRule extends Rule {
 
     @Override
-    public void acceptParameter(Parameter left, Parameter right) {
-        if (left == null && right.getRequired()) {
-            addError("The required parameter '" + right.getName() + "' has been added in the new spec.");
+    public void acceptParameter(ApiParameter left, ApiParameter right) {
+        if (left == null && right.isRequired()) {
+            addError("The required parameter '" + right.getName() + "' has been added in the new spec.", null, right.getName());
         }
     }
 
     @Override
-    public void acceptSchema(Schema left, Schema right) {
-        if (right == null || right.getProperties() == null) {
+    public void acceptSchema(SchemaDiff schemas) {
+        if (schemas.getRight() == null || !location.isRequest()) {
             return;
         }
 
-        for (Object rightPropertyObject : right.getProperties().entrySet()) {
-            Map.Entry<String, Schema> rightProperty = (Map.Entry<String, Schema>) rightPropertyObject;
-            String propertyName = rightProperty.getKey();
-            boolean newPropertyIsRequired = right.getRequired() != null && right.getRequired().contains(propertyName);
-
-            Schema leftProperty = null;
-            if (left.getProperties() != null) {
-                leftProperty = (Schema) left.getProperties().get(propertyName);
-            }
+        Set<String> required = schemas.getRightRequired();
+        if (required.isEmpty()) {
+            return;
+        }
 
-            if (leftProperty == null && newPropertyIsRequired && location.isRequest()) {
-                addError("The required property '" + propertyName + "' has been added in the new spec.");
+        for (String propertyName : schemas.getAddedProperties()) {
+            if (required.contains(propertyName)) {
+                addError("The required property '" + propertyName + "' has been added in the new spec.", null, propertyName);
             }
         }
     }
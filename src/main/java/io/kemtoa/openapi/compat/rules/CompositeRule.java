@@ -4,15 +4,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import io.kemtoa.openapi.compat.model.ApiMediaType;
+import io.kemtoa.openapi.compat.model.ApiOperation;
+import io.kemtoa.openapi.compat.model.ApiParameter;
+import io.kemtoa.openapi.compat.model.ApiPathItem;
+import io.kemtoa.openapi.compat.model.ApiRequestBody;
+import io.kemtoa.openapi.compat.model.ApiResponse;
 import io.kemtoa.openapi.compat.walker.Location;
+import io.kemtoa.openapi.compat.walker.SchemaDiff;
 import io.swagger.v3.oas.models.PathItem.HttpMethod;
-import io.swagger.v3.oas.models.Operation;
-import io.swagger.v3.oas.models.PathItem;
-import io.swagger.v3.oas.models.media.MediaType;
-import io.swagger.v3.oas.models.media.Schema;
-import io.swagger.v3.oas.models.parameters.Parameter;
-import io.swagger.v3.oas.models.parameters.RequestBody;
-import io.swagger.v3.oas.models.responses.ApiResponse;
 
 /**
  * Composite {@link Rule}
@@ -28,6 +28,13 @@ public class CompositeRule extends Rule {
         this.rules = Arrays.asList(rules);
     }
 
+    /**
+     * @return the delegate rules, in the order their errors are reported
+     */
+    public List<Rule> getRules() {
+        return rules;
+    }
+
     @Override
     public List<String> getErrors() {
         List<String> errors = new ArrayList<>();
@@ -37,28 +44,38 @@ public class CompositeRule extends Rule {
         return errors;
     }
 
+    @Override
+    public int getErrorCount() {
+        return rules.stream().mapToInt(Rule::getErrorCount).sum();
+    }
+
+    @Override
+    public void setFindingListener(FindingListener findingListener) {
+        rules.forEach(v -> v.setFindingListener(findingListener));
+    }
+
     @Override
     public void setLocation(Location location) {
         rules.forEach(v -> v.setLocation(location));
     }
 
     @Override
-    public void acceptPath(String key, PathItem left, PathItem right) {
+    public void acceptPath(String key, ApiPathItem left, ApiPathItem right) {
         rules.forEach(v -> v.acceptPath(key, left, right));
     }
 
     @Override
-    public void acceptOperation(HttpMethod operationKey, Operation left, Operation right) {
+    public void acceptOperation(HttpMethod operationKey, ApiOperation left, ApiOperation right) {
         rules.forEach(v -> v.acceptOperation(operationKey, left, right));
     }
 
     @Override
-    public void acceptParameter(Parameter left, Parameter right) {
+    public void acceptParameter(ApiParameter left, ApiParameter right) {
         rules.forEach(v -> v.acceptParameter(left, right));
     }
 
     @Override
-    public void acceptRequestBody(RequestBody left, RequestBody right) {
+    public void acceptRequestBody(ApiRequestBody left, ApiRequestBody right) {
         rules.forEach(v -> v.acceptRequestBody(left, right));
     }
 
@@ -68,18 +85,18 @@ public class CompositeRule extends Rule {
     }
 
     @Override
-    public void acceptMediaType(String key, MediaType left, MediaType right) {
+    public void acceptMediaType(String key, ApiMediaType left, ApiMediaType right) {
         rules.forEach(v -> v.acceptMediaType(key, left, right));
     }
 
     @Override
-    public void acceptSchema(Schema left, Schema right) {
-        rules.forEach(v -> v.acceptSchema(left, right));
+    public void acceptSchema(SchemaDiff schemas) {
+        rules.forEach(v -> v.acceptSchema(schemas));
     }
 
     @Override
-    public void acceptProperty(String key, Schema left, Schema right) {
-        rules.forEach(v -> v.acceptProperty(key, left, right));
+    public void acceptProperty(String key, SchemaDiff schemas) {
+        rules.forEach(v -> v.acceptProperty(key, schemas));
     }
 
     @Override
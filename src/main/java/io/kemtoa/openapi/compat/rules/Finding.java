@@ -0,0 +1,63 @@
+package io.kemtoa.openapi.compat.rules;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Backwards incompatible change reported by a {@link Rule}
+ */
+public final class Finding {
+    private final String ruleId;
+    private final List<String> frames;
+    private final String message;
+    private final String left;
+    private final String right;
+
+    public Finding(String ruleId, List<String> frames, String message, Object left, Object right) {
+        this.ruleId = ruleId;
+        this.frames = Collections.unmodifiableList(frames);
+        this.message = message;
+        this.left = left != null ? String.valueOf(left) : null;
+        this.right = right != null ? String.valueOf(right) : null;
+    }
+
+    /**
+     * @return the identifier of the rule reporting the change
+     */
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    /**
+     * @return the frames of the location of the change, from the outermost one
+     */
+    public List<String> getFrames() {
+        return frames;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return the value in the old document, or null when it is not relevant
+     */
+    public String getLeft() {
+        return left;
+    }
+
+    /**
+     * @return the value in the new document, or null when it is not relevant
+     */
+    public String getRight() {
+        return right;
+    }
+
+    /**
+     * @return the location and the message, as reported in the errors of a {@link Rule}
+     */
+    @Override
+    public String toString() {
+        return String.join(", ", frames) + " : " + message;
+    }
+}
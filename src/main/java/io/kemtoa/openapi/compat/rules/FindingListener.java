@@ -0,0 +1,15 @@
+package io.kemtoa.openapi.compat.rules;
+
+/**
+ * Receives the findings of the rules as soon as they are reported
+ *
+ * When the rules are evaluated by several threads, the listener is called
+ * concurrently and must be thread-safe, unless it is wrapped with
+ * {@link io.kemtoa.openapi.compat.walker.PipelinedDiffVisitor#sequenced}.
+ * {@link io.kemtoa.openapi.compat.CompatibilityChecker} does so, its
+ * listeners are called in the order of a sequential walk.
+ */
+@FunctionalInterface
+public interface FindingListener {
+    void onFinding(Finding finding);
+}
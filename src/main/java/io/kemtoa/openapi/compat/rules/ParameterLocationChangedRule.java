@@ -1,6 +1,6 @@
 package io.kemtoa.openapi.compat.rules;
 
-import io.swagger.v3.oas.models.parameters.Parameter;
+import io.kemtoa.openapi.compat.model.ApiParameter;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -13,14 +13,14 @@ import org.apache.commons.lang3.StringUtils;
 public class ParameterLocationChangedRule extends Rule {
 
     @Override
-    public void acceptParameter(Parameter left, Parameter right) {
+    public void acceptParameter(ApiParameter left, ApiParameter right) {
         if (left == null || right == null) {
             return; // Handled in other rules
         }
 
         if (!StringUtils.equals(left.getIn(), right.getIn())) {
             addError("The location of parameter '" + left.getName() + "' has changed in the new spec: '"
-                    + right.getIn() + "' previously was '" + left.getIn() + "'.");
+                    + right.getIn() + "' previously was '" + left.getIn() + "'.", left.getIn(), right.getIn());
         }
     }
 }
@@ -1,6 +1,6 @@
 package io.kemtoa.openapi.compat.rules;
 
-import io.swagger.v3.oas.models.media.Schema;
+import io.kemtoa.openapi.compat.walker.SchemaDiff;
 
 /**
  * Removing a required property from an object leads to false expectation
@@ -13,9 +13,9 @@ import io.swagger.v3.oas.models.media.Schema;
 public class PropertyRemovedInResponseRule extends Rule {
 
     @Override
-    public void acceptProperty(String key, Schema left, Schema right) {
-        if (right == null && location.isResponse()) {
-            addError("The property '" + key + "' has been removed in the new spec.");
+    public void acceptProperty(String key, SchemaDiff schemas) {
+        if (schemas.getRight() == null && location.isResponse()) {
+            addError("The property '" + key + "' has been removed in the new spec.", key, null);
         }
     }
 }
@@ -1,6 +1,6 @@
 package io.kemtoa.openapi.compat.rules;
 
-import io.swagger.v3.oas.models.media.Schema;
+import io.kemtoa.openapi.compat.walker.SchemaDiff;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -14,19 +14,21 @@ import org.apache.commons.lang3.StringUtils;
 public class PropertyTypeChangedRule extends Rule {
 
     @Override
-    public void acceptProperty(String key, Schema left, Schema right) {
-        if (left == null || right == null) {
+    public void acceptProperty(String key, SchemaDiff schemas) {
+        if (schemas.getLeft() == null || schemas.getRight() == null) {
             return; // Handled in other rules
         }
 
-        if (!StringUtils.equals(left.getType(), right.getType())) {
+        if (!StringUtils.equals(schemas.getLeftType(), schemas.getRightType())) {
             addError("The type of property '" + key + "' has changed in the new spec: '"
-                    + right.getType() + "' was previously '" + left.getType() + "'.");
+                    + schemas.getRightType() + "' was previously '" + schemas.getLeftType() + "'.",
+                    schemas.getLeftType(), schemas.getRightType());
         }
 
-        if (!StringUtils.equals(left.getFormat(), right.getFormat())) {
+        if (!StringUtils.equals(schemas.getLeftFormat(), schemas.getRightFormat())) {
             addError("The format of property '" + key + "' has changed in the new spec: '"
-                    + right.getFormat() + "' was previously '" + left.getFormat() + "'.");
+                    + schemas.getRightFormat() + "' was previously '" + schemas.getLeftFormat() + "'.",
+                    schemas.getLeftFormat(), schemas.getRightFormat());
         }
     }
 }
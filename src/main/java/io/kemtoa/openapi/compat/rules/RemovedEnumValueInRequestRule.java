@@ -11,7 +11,7 @@ public class RemovedEnumValueInRequestRule extends Rule {
     @Override
     public <T> void acceptEnumValue(T left, T right) {
         if (right == null && location.isRequest()) {
-            addError("The enum value '" + left + "' has been removed in the new spec.");
+            addError("The enum value '" + left + "' has been removed in the new spec.", left, null);
         }
     }
 }
@@ -1,6 +1,7 @@
 package io.kemtoa.openapi.compat.rules;
 
-import io.swagger.v3.oas.models.Operation;
+import io.kemtoa.openapi.compat.model.ApiOperation;
+import io.kemtoa.openapi.compat.model.ApiPathItem;
 import io.swagger.v3.oas.models.PathItem;
 
 /**
@@ -10,16 +11,16 @@ import io.swagger.v3.oas.models.PathItem;
 public class RemovedOperationRule extends Rule {
 
     @Override
-    public void acceptPath(String key, PathItem left, PathItem right) {
+    public void acceptPath(String key, ApiPathItem left, ApiPathItem right) {
         if (right == null) {
-            addError("The path was removed in the new spec.");
+            addError("The path was removed in the new spec.", key, null);
         }
     }
 
     @Override
-    public void acceptOperation(PathItem.HttpMethod operationKey, Operation left, Operation right) {
+    public void acceptOperation(PathItem.HttpMethod operationKey, ApiOperation left, ApiOperation right) {
         if (right == null) {
-            addError("The operation was removed in the new spec.");
+            addError("The operation was removed in the new spec.", operationKey, null);
         }
     }
 }
@@ -2,6 +2,7 @@ package io.kemtoa.openapi.compat.rules;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import io.kemtoa.openapi.compat.walker.Location;
 import io.kemtoa.openapi.compat.walker.OpenApiDiffVisitor;
@@ -11,21 +12,72 @@ import io.kemtoa.openapi.compat.walker.OpenApiDiffVisitor;
  *
  * Two Swagger specifications are deemed compatible when a set
  * of rules are verified when comparing the documents.
+ *
+ * The rules are looked up with {@link java.util.ServiceLoader}, see
+ * {@link RuleSet}. Custom rules need a public no-argument constructor, and
+ * are listed in a META-INF/services/io.kemtoa.openapi.compat.rules.Rule file.
  */
 public abstract class Rule implements OpenApiDiffVisitor {
     protected Location location;
     private final List<String> errors = new ArrayList<>();
+    private int errorCount;
+    private FindingListener findingListener;
 
     @Override
     public void setLocation(Location location) {
         this.location = location;
     }
 
+    /**
+     * Passes the findings to a listener as soon as they are reported, rather than retaining
+     * them in {@link #getErrors()}, so the memory used does not depend on their number
+     */
+    public void setFindingListener(FindingListener findingListener) {
+        this.findingListener = findingListener;
+    }
+
+    /**
+     * Configures a rule of a {@link RuleSet} with the properties set in the POM,
+     * before it is used. Does nothing by default.
+     */
+    public void configure(Map<String, String> properties) {
+    }
+
+    /**
+     * @return the identifier of the rule in the findings and in the configuration
+     */
+    public String getId() {
+        return getClass().getSimpleName();
+    }
+
     public void addError(String message) {
-        errors.add(location.getFullLocation() + " : " + message);
+        addError(message, null, null);
     }
 
+    /**
+     * @param left the value in the old document the change is about, if any
+     * @param right the value in the new document the change is about, if any
+     */
+    public void addError(String message, Object left, Object right) {
+        Finding finding = new Finding(getId(), location.getFrames(), message, left, right);
+        errorCount++;
+
+        if (findingListener != null) {
+            findingListener.onFinding(finding);
+        } else {
+            errors.add(finding.toString());
+        }
+    }
+
+    /**
+     * @return the errors reported, unless they were passed to a {@link FindingListener}
+     */
     public List<String> getErrors() {
         return errors;
     }
+
+    @Override
+    public int getErrorCount() {
+        return errorCount;
+    }
 }
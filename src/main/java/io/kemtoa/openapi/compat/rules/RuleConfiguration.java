@@ -0,0 +1,86 @@
+package io.kemtoa.openapi.compat.rules;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration of a {@link Rule} of a {@link RuleSet}, as set in the POM
+ *
+ * <pre>
+ * &lt;rule&gt;
+ *     &lt;id&gt;PropertyTypeChangedRule&lt;/id&gt;
+ *     &lt;budget&gt;2000&lt;/budget&gt;
+ *     &lt;properties&gt;
+ *         &lt;name&gt;value&lt;/name&gt;
+ *     &lt;/properties&gt;
+ * &lt;/rule&gt;
+ * </pre>
+ */
+public class RuleConfiguration {
+    private String id;
+    private boolean enabled = true;
+    private Long budget;
+    private Boolean disableOverBudget;
+    private Map<String, String> properties = new HashMap<>();
+
+    public RuleConfiguration() {
+    }
+
+    public RuleConfiguration(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the identifier of the rule, see {@link Rule#getId()}
+     */
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the time the rule may spend over the whole run in milliseconds, or null
+     *         for the budget of the rule set
+     */
+    public Long getBudget() {
+        return budget;
+    }
+
+    public void setBudget(Long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * @return whether the rule is disabled once over its budget, or null for the
+     *         behavior of the rule set
+     */
+    public Boolean getDisableOverBudget() {
+        return disableOverBudget;
+    }
+
+    public void setDisableOverBudget(Boolean disableOverBudget) {
+        this.disableOverBudget = disableOverBudget;
+    }
+
+    /**
+     * @return the properties passed to {@link Rule#configure(Map)}
+     */
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    public void setProperties(Map<String, String> properties) {
+        this.properties = properties;
+    }
+}
@@ -0,0 +1,218 @@
+package io.kemtoa.openapi.compat.rules;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Rules found through {@link ServiceLoader}, along with their configuration
+ * and the time they spent
+ *
+ * The rules are implementations of {@link Rule} listed in the
+ * META-INF/services/io.kemtoa.openapi.compat.rules.Rule files of the class
+ * path, including the built-in rules. They are looked up once, when the rule
+ * set is built, and a new instance of each rule is created for every check
+ * by {@link #createRules()}.
+ *
+ * The time spent by each rule is accumulated over all the checks. A rule
+ * going over its budget is reported in {@link #getTimings()}, and is no
+ * longer called for the rest of the run when configured so. The rule sets
+ * are thread-safe, the same rule set can be used by concurrent checks.
+ */
+public final class RuleSet {
+    private final List<Entry> entries;
+
+    /**
+     * A rule found, and its state for the run
+     */
+    static final class Entry {
+        private final ServiceLoader.Provider<Rule> provider;
+        private final String id;
+        private final Map<String, String> properties;
+        private final long budgetNanos;
+        private final boolean disableOverBudget;
+        private final AtomicLong elapsedNanos = new AtomicLong();
+        private volatile boolean disabled;
+
+        private Entry(ServiceLoader.Provider<Rule> provider, String id, Map<String, String> properties,
+                      long budgetNanos, boolean disableOverBudget) {
+            this.provider = provider;
+            this.id = id;
+            this.properties = properties;
+            this.budgetNanos = budgetNanos;
+            this.disableOverBudget = disableOverBudget;
+        }
+
+        boolean isDisabled() {
+            return disabled;
+        }
+
+        void record(long nanos) {
+            long elapsed = elapsedNanos.addAndGet(nanos);
+            if (disableOverBudget && budgetNanos > 0 && elapsed > budgetNanos) {
+                disabled = true;
+            }
+        }
+
+        private Rule create() {
+            // The provider creates a new instance on each call
+            Rule rule = provider.get();
+            rule.configure(properties);
+            return new TimedRule(rule, this);
+        }
+
+        private RuleTiming timing() {
+            return new RuleTiming(id, Duration.ofNanos(elapsedNanos.get()),
+                    budgetNanos > 0 ? Duration.ofNanos(budgetNanos) : null, disabled);
+        }
+    }
+
+    private RuleSet(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the identifiers of the rules enabled, in the order they are evaluated
+     */
+    public List<String> getRuleIds() {
+        return entries.stream().map(entry -> entry.id).collect(Collectors.toList());
+    }
+
+    /**
+     * Creates new instances of the rules enabled, for a single check
+     *
+     * The rules disabled for going over their budget are left out.
+     */
+    public CompositeRule createRules() {
+        return new CompositeRule(entries.stream()
+                .filter(entry -> !entry.isDisabled())
+                .map(Entry::create)
+                .toArray(Rule[]::new));
+    }
+
+    /**
+     * Lists the rules not fully evaluated by a check, once the check is done
+     *
+     * @param rules the rules of the check, created by {@link #createRules()}
+     * @return the identifiers of the rules left out of the check or disabled during the check,
+     *         for going over their budget
+     */
+    public List<String> getSkippedRules(CompositeRule rules) {
+        Set<String> created = new HashSet<>();
+        List<String> skipped = new ArrayList<>();
+        for (Rule rule : rules.getRules()) {
+            created.add(rule.getId());
+            if (rule instanceof TimedRule && ((TimedRule) rule).isSkipped()) {
+                skipped.add(rule.getId());
+            }
+        }
+        for (Entry entry : entries) {
+            if (!created.contains(entry.id)) {
+                skipped.add(entry.id);
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * @return the time spent by each rule enabled so far
+     */
+    public List<RuleTiming> getTimings() {
+        return entries.stream().map(Entry::timing).collect(Collectors.toList());
+    }
+
+    public static final class Builder {
+        private final Map<String, RuleConfiguration> configurations = new LinkedHashMap<>();
+        private ClassLoader classLoader = RuleSet.class.getClassLoader();
+        private Duration budget;
+        private boolean disableOverBudget;
+
+        private Builder() {
+        }
+
+        /**
+         * @param classLoader the class loader the rules are looked up from
+         */
+        public Builder classLoader(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException when a configuration has no rule identifier
+         */
+        public Builder configure(Collection<RuleConfiguration> configurations) {
+            for (RuleConfiguration configuration : configurations) {
+                if (configuration.getId() == null) {
+                    throw new IllegalArgumentException("The configuration of a rule is missing its id");
+                }
+                this.configurations.put(configuration.getId(), configuration);
+            }
+            return this;
+        }
+
+        /**
+         * @param budget the time each rule may spend over the whole run, unless configured
+         *               otherwise, or null for no budget
+         */
+        public Builder budget(Duration budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        /**
+         * Stops calling the rules once they are over their budget, unless configured otherwise
+         */
+        public Builder disableOverBudget(boolean disableOverBudget) {
+            this.disableOverBudget = disableOverBudget;
+            return this;
+        }
+
+        /**
+         * Looks up the rules
+         *
+         * @throws IllegalArgumentException when a configuration does not match any rule found,
+         *                                  or when several rules have the same identifier
+         * @throws java.util.ServiceConfigurationError when a rule cannot be loaded
+         */
+        public RuleSet build() {
+            Map<String, Entry> entries = new LinkedHashMap<>();
+            for (ServiceLoader.Provider<Rule> provider : ServiceLoader.load(Rule.class, classLoader).stream().collect(Collectors.toList())) {
+                String id = provider.get().getId();
+                if (entries.containsKey(id)) {
+                    throw new IllegalArgumentException("Several rules have the id " + id + ": "
+                            + entries.get(id).provider.type().getName() + " and " + provider.type().getName());
+                }
+
+                RuleConfiguration configuration = configurations.getOrDefault(id, new RuleConfiguration(id));
+                Duration ruleBudget = configuration.getBudget() != null ? Duration.ofMillis(configuration.getBudget()) : budget;
+                entries.put(id, new Entry(provider, id, Map.copyOf(configuration.getProperties()),
+                        ruleBudget != null ? ruleBudget.toNanos() : 0,
+                        configuration.getDisableOverBudget() != null ? configuration.getDisableOverBudget() : disableOverBudget));
+            }
+
+            List<String> unknownIds = new ArrayList<>(configurations.keySet());
+            unknownIds.removeAll(entries.keySet());
+            if (!unknownIds.isEmpty()) {
+                throw new IllegalArgumentException("Unknown rules " + unknownIds + ", the rules found are " + entries.keySet());
+            }
+
+            List<Entry> enabled = entries.values().stream()
+                    .filter(entry -> configurations.getOrDefault(entry.id, new RuleConfiguration(entry.id)).isEnabled())
+                    .collect(Collectors.toList());
+            return new RuleSet(enabled);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.kemtoa.openapi.compat.rules;
+
+import java.time.Duration;
+
+/**
+ * Time spent by a rule of a {@link RuleSet} so far
+ */
+public final class RuleTiming {
+    private final String ruleId;
+    private final Duration elapsed;
+    private final Duration budget;
+    private final boolean disabled;
+
+    RuleTiming(String ruleId, Duration elapsed, Duration budget, boolean disabled) {
+        this.ruleId = ruleId;
+        this.elapsed = elapsed;
+        this.budget = budget;
+        this.disabled = disabled;
+    }
+
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return the budget of the rule, or null when it has none
+     */
+    public Duration getBudget() {
+        return budget;
+    }
+
+    public boolean isOverBudget() {
+        return budget != null && elapsed.compareTo(budget) > 0;
+    }
+
+    /**
+     * @return true when the rule was disabled for going over its budget
+     */
+    public boolean isDisabled() {
+        return disabled;
+    }
+
+    @Override
+    public String toString() {
+        return ruleId + ": " + elapsed.toMillis() + " ms" + (budget != null ? " of " + budget.toMillis() + " ms" : "");
+    }
+}
@@ -0,0 +1,188 @@
+package io.kemtoa.openapi.compat.rules;
+
+import java.util.List;
+
+import io.kemtoa.openapi.compat.model.ApiMediaType;
+import io.kemtoa.openapi.compat.model.ApiOperation;
+import io.kemtoa.openapi.compat.model.ApiParameter;
+import io.kemtoa.openapi.compat.model.ApiPathItem;
+import io.kemtoa.openapi.compat.model.ApiRequestBody;
+import io.kemtoa.openapi.compat.model.ApiResponse;
+import io.kemtoa.openapi.compat.walker.Location;
+import io.kemtoa.openapi.compat.walker.SchemaDiff;
+import io.swagger.v3.oas.models.PathItem.HttpMethod;
+
+/**
+ * {@link Rule} measuring the time spent by another rule against its budget
+ *
+ * The calls are no longer passed to the rule once it is disabled. The
+ * findings it reported until then are kept, and the rule is reported as
+ * skipped by {@link RuleSet#getSkippedRules(CompositeRule)}.
+ */
+final class TimedRule extends Rule {
+    private final Rule delegate;
+    private final RuleSet.Entry entry;
+    private volatile boolean skipped;
+
+    TimedRule(Rule delegate, RuleSet.Entry entry) {
+        this.delegate = delegate;
+        this.entry = entry;
+    }
+
+    /**
+     * @return true when calls were not passed to the rule
+     */
+    boolean isSkipped() {
+        return skipped;
+    }
+
+    private boolean isDisabled() {
+        if (entry.isDisabled()) {
+            skipped = true;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public void setFindingListener(FindingListener findingListener) {
+        delegate.setFindingListener(findingListener);
+    }
+
+    @Override
+    public void setLocation(Location location) {
+        delegate.setLocation(location);
+    }
+
+    @Override
+    public List<String> getErrors() {
+        return delegate.getErrors();
+    }
+
+    @Override
+    public int getErrorCount() {
+        return delegate.getErrorCount();
+    }
+
+    @Override
+    public void acceptPath(String key, ApiPathItem left, ApiPathItem right) {
+        if (isDisabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            delegate.acceptPath(key, left, right);
+        } finally {
+            entry.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void acceptOperation(HttpMethod operationKey, ApiOperation left, ApiOperation right) {
+        if (isDisabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            delegate.acceptOperation(operationKey, left, right);
+        } finally {
+            entry.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void acceptParameter(ApiParameter left, ApiParameter right) {
+        if (isDisabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            delegate.acceptParameter(left, right);
+        } finally {
+            entry.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void acceptRequestBody(ApiRequestBody left, ApiRequestBody right) {
+        if (isDisabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            delegate.acceptRequestBody(left, right);
+        } finally {
+            entry.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void acceptResponse(String key, ApiResponse left, ApiResponse right) {
+        if (isDisabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            delegate.acceptResponse(key, left, right);
+        } finally {
+            entry.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void acceptMediaType(String key, ApiMediaType left, ApiMediaType right) {
+        if (isDisabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            delegate.acceptMediaType(key, left, right);
+        } finally {
+            entry.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void acceptSchema(SchemaDiff schemas) {
+        if (isDisabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            delegate.acceptSchema(schemas);
+        } finally {
+            entry.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void acceptProperty(String key, SchemaDiff schemas) {
+        if (isDisabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            delegate.acceptProperty(key, schemas);
+        } finally {
+            entry.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public <T> void acceptEnumValue(T left, T right) {
+        if (isDisabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            delegate.acceptEnumValue(left, right);
+        } finally {
+            entry.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.kemtoa.openapi.compat.walker;
+
+import io.kemtoa.openapi.compat.model.ApiMediaType;
+import io.kemtoa.openapi.compat.model.ApiOperation;
+import io.kemtoa.openapi.compat.model.ApiParameter;
+import io.kemtoa.openapi.compat.model.ApiPathItem;
+import io.kemtoa.openapi.compat.model.ApiRequestBody;
+import io.kemtoa.openapi.compat.model.ApiResponse;
+import io.swagger.v3.oas.models.PathItem.HttpMethod;
+
+/**
+ * Immutable record of a call of an {@link OpenApiDiffVisitor} method
+ *
+ * Published by {@link PipelinedDiffVisitor} so the call can be replayed on
+ * the visitors of another thread, at the location it was made.
+ */
+final class DiffEvent {
+    private final NodeKind kind;
+    private final Object key;
+    private final Object left;
+    private final Object right;
+    private final Location location;
+
+    DiffEvent(NodeKind kind, Object key, Object left, Object right, Location location) {
+        this.kind = kind;
+        this.key = key;
+        this.left = left;
+        this.right = right;
+        this.location = location;
+    }
+
+    /**
+     * Calls the visitor method this event was recorded from
+     */
+    void dispatch(OpenApiDiffVisitor visitor) {
+        visitor.setLocation(location);
+
+        switch (kind) {
+            case PATH:
+                visitor.acceptPath((String) key, (ApiPathItem) left, (ApiPathItem) right);
+                break;
+            case OPERATION:
+                visitor.acceptOperation((HttpMethod) key, (ApiOperation) left, (ApiOperation) right);
+                break;
+            case PARAMETER:
+                visitor.acceptParameter((ApiParameter) left, (ApiParameter) right);
+                break;
+            case REQUEST_BODY:
+                visitor.acceptRequestBody((ApiRequestBody) left, (ApiRequestBody) right);
+                break;
+            case RESPONSE:
+                visitor.acceptResponse((String) key, (ApiResponse) left, (ApiResponse) right);
+                break;
+            case MEDIA_TYPE:
+                visitor.acceptMediaType((String) key, (ApiMediaType) left, (ApiMediaType) right);
+                break;
+            case SCHEMA:
+                visitor.acceptSchema((SchemaDiff) left);
+                break;
+            case PROPERTY:
+                visitor.acceptProperty((String) key, (SchemaDiff) left);
+                break;
+            case ENUM_VALUE:
+                visitor.acceptEnumValue(left, right);
+                break;
+            default:
+                throw new IllegalStateException("Unexpected node kind: " + kind);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.kemtoa.openapi.compat.walker;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers for comparing enumeration values
+ *
+ * The same number may be represented by different {@link Number} types
+ * depending on how the document was parsed: 1, 1L and 1.0 are all the
+ * same enumeration value. Values are normalized before being compared.
+ */
+final class EnumValues {
+
+    private EnumValues() {
+    }
+
+    /**
+     * @return the values indexed by their normalized value, in the list order.
+     *         Null values are ignored.
+     */
+    static <T> Map<Object, T> index(List<T> values) {
+        if (values == null || values.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Object, T> index = new LinkedHashMap<>(values.size() * 4 / 3 + 1);
+        for (T value : values) {
+            if (value != null) {
+                index.putIfAbsent(normalize(value), value);
+            }
+        }
+        return index;
+    }
+
+    static Object normalize(Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+
+        if (!(value instanceof Number)) {
+            return value;
+        }
+
+        BigDecimal decimal;
+        if (value instanceof BigDecimal) {
+            decimal = (BigDecimal) value;
+        } else if (value instanceof BigInteger) {
+            decimal = new BigDecimal((BigInteger) value);
+        } else {
+            double doubleValue = ((Number) value).doubleValue();
+            if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+                return doubleValue;
+            }
+            // Using the string representation so 0.1f is not read as 0.100000001490116...
+            decimal = new BigDecimal(value.toString());
+        }
+
+        decimal = decimal.stripTrailingZeros();
+        if (decimal.scale() <= 0) {
+            BigInteger integer = decimal.toBigIntegerExact();
+            if (integer.bitLength() < 64) {
+                return integer.longValue();
+            }
+        }
+        return decimal;
+    }
+}
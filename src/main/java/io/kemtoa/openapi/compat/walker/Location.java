@@ -1,16 +1,48 @@
 package io.kemtoa.openapi.compat.walker;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * Position in a OpenAPI specification document
+ *
+ * The frames of the path are stored as an immutable linked list, so a
+ * {@link #snapshot()} of the location is taken in constant time and is not
+ * affected by the following changes of the location.
  */
 public class Location {
     private boolean isRequest;
     private boolean isResponse;
-    private final Deque<String> path = new ArrayDeque<>();
+    private Frame top;
+
+    private static final class Frame {
+        private final String name;
+        private final Frame parent;
+        private final int depth;
+
+        private Frame(String name, Frame parent) {
+            this.name = name;
+            this.parent = parent;
+            this.depth = parent != null ? parent.depth + 1 : 1;
+        }
+    }
+
+    public Location() {
+    }
+
+    private Location(boolean isRequest, boolean isResponse, Frame top) {
+        this.isRequest = isRequest;
+        this.isResponse = isResponse;
+        this.top = top;
+    }
+
+    /**
+     * @return a copy of the current location, unaffected by the following changes of this location
+     */
+    public Location snapshot() {
+        return new Location(isRequest, isResponse, top);
+    }
 
     public boolean isRequest() {
         return isRequest;
@@ -29,25 +61,35 @@ public class Location {
     }
 
     public void pushPath(String name) {
-        path.push(name);
+        top = new Frame(name, top);
     }
 
     public void popPath() {
-        path.pop();
+        if (top == null) {
+            throw new NoSuchElementException();
+        }
+        top = top.parent;
     }
 
-    public String getFullLocation() {
-        StringBuilder fullLocation = new StringBuilder();
-
-        Iterator<String> iterator = path.descendingIterator();
-        while (iterator.hasNext()) {
-            fullLocation.append(iterator.next());
+    /**
+     * @return the number of frames in the current location
+     */
+    public int getDepth() {
+        return top != null ? top.depth : 0;
+    }
 
-            if (iterator.hasNext()) {
-                fullLocation.append(", ");
-            }
+    /**
+     * @return the names of the frames of the current location, from the outermost one
+     */
+    public List<String> getFrames() {
+        String[] names = new String[getDepth()];
+        for (Frame frame = top; frame != null; frame = frame.parent) {
+            names[frame.depth - 1] = frame.name;
         }
+        return Arrays.asList(names);
+    }
 
-        return fullLocation.toString();
+    public String getFullLocation() {
+        return String.join(", ", getFrames());
     }
 }
@@ -0,0 +1,16 @@
+package io.kemtoa.openapi.compat.walker;
+
+/**
+ * Kinds of nodes visited by {@link OpenApiDiffWalker}
+ */
+public enum NodeKind {
+    PATH,
+    OPERATION,
+    PARAMETER,
+    REQUEST_BODY,
+    RESPONSE,
+    MEDIA_TYPE,
+    SCHEMA,
+    PROPERTY,
+    ENUM_VALUE
+}
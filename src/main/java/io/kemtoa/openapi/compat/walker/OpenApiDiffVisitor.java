@@ -1,13 +1,12 @@
 package io.kemtoa.openapi.compat.walker;
 
-import io.swagger.v3.oas.models.Operation;
-import io.swagger.v3.oas.models.PathItem;
+import io.kemtoa.openapi.compat.model.ApiMediaType;
+import io.kemtoa.openapi.compat.model.ApiOperation;
+import io.kemtoa.openapi.compat.model.ApiParameter;
+import io.kemtoa.openapi.compat.model.ApiPathItem;
+import io.kemtoa.openapi.compat.model.ApiRequestBody;
+import io.kemtoa.openapi.compat.model.ApiResponse;
 import io.swagger.v3.oas.models.PathItem.HttpMethod;
-import io.swagger.v3.oas.models.media.MediaType;
-import io.swagger.v3.oas.models.media.Schema;
-import io.swagger.v3.oas.models.parameters.Parameter;
-import io.swagger.v3.oas.models.parameters.RequestBody;
-import io.swagger.v3.oas.models.responses.ApiResponse;
 
 /**
  * Diff visitor interface for the element types found in OpenAPI specifications
@@ -17,35 +16,54 @@ import io.swagger.v3.oas.models.responses.ApiResponse;
  * Methods are called by the walker for each node found in at least one of the
  * documents to compare. When a node is found only in one of the documents,
  * the corresponding parameter is null.
+ *
+ * The nodes are part of the immutable {@link io.kemtoa.openapi.compat.model.ApiDocument}
+ * representation of the compared documents.
  */
 public interface OpenApiDiffVisitor {
-    default void acceptPath(String key, PathItem left, PathItem right) {
+    default void acceptPath(String key, ApiPathItem left, ApiPathItem right) {
     }
 
-    default void acceptOperation(HttpMethod operationKey, Operation left, Operation right) {
+    default void acceptOperation(HttpMethod operationKey, ApiOperation left, ApiOperation right) {
     }
 
-    default void acceptParameter(Parameter left, Parameter right) {
+    default void acceptParameter(ApiParameter left, ApiParameter right) {
     }
 
-    default void acceptRequestBody(RequestBody left, RequestBody right) {
+    default void acceptRequestBody(ApiRequestBody left, ApiRequestBody right) {
     }
 
     default void acceptResponse(String key, ApiResponse left, ApiResponse right) {
     }
 
-    default void acceptMediaType(String key, MediaType left, MediaType right) {
+    default void acceptMediaType(String key, ApiMediaType left, ApiMediaType right) {
     }
 
-    default void acceptSchema(Schema left, Schema right) {
+    /**
+     * Called for each pair of schemas. The same {@link SchemaDiff} is passed to
+     * {@link #acceptProperty(String, SchemaDiff)} when the schemas are the
+     * values of a property.
+     */
+    default void acceptSchema(SchemaDiff schemas) {
     }
 
-    default void acceptProperty(String key, Schema left, Schema right) {
+    default void acceptProperty(String key, SchemaDiff schemas) {
     }
 
+    /**
+     * Called for the enumeration values added or removed between the documents.
+     * Values present in both documents are not reported.
+     */
     default <T> void acceptEnumValue(T left, T right) {
     }
 
     default void setLocation(Location location) {
     }
+
+    /**
+     * @return the number of errors reported so far, used for diagnostics only
+     */
+    default int getErrorCount() {
+        return 0;
+    }
 }
@@ -1,20 +1,21 @@
 package io.kemtoa.openapi.compat.walker;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Stream;
 
-import io.swagger.v3.core.util.RefUtils;
-import io.swagger.v3.oas.models.Components;
+import io.kemtoa.openapi.compat.model.ApiDocument;
+import io.kemtoa.openapi.compat.model.ApiMediaType;
+import io.kemtoa.openapi.compat.model.ApiModelBuilder;
+import io.kemtoa.openapi.compat.model.ApiOperation;
+import io.kemtoa.openapi.compat.model.ApiParameter;
+import io.kemtoa.openapi.compat.model.ApiPathItem;
+import io.kemtoa.openapi.compat.model.ApiRequestBody;
+import io.kemtoa.openapi.compat.model.ApiResponse;
+import io.kemtoa.openapi.compat.model.ApiSchema;
+import io.kemtoa.openapi.compat.model.RefResolver;
 import io.swagger.v3.oas.models.OpenAPI;
-import io.swagger.v3.oas.models.Operation;
 import io.swagger.v3.oas.models.PathItem;
-import io.swagger.v3.oas.models.media.Content;
-import io.swagger.v3.oas.models.media.MediaType;
-import io.swagger.v3.oas.models.media.Schema;
-import io.swagger.v3.oas.models.parameters.Parameter;
-import io.swagger.v3.oas.models.parameters.RequestBody;
-import io.swagger.v3.oas.models.responses.ApiResponse;
-import io.swagger.v3.oas.models.responses.ApiResponses;
 
 /**
  * OpenAPI tool for comparing two specification documents.
@@ -24,82 +25,301 @@ import io.swagger.v3.oas.models.responses.ApiResponses;
  * one of the documents.
  *
  * Keeps track of the position in the tree using {@link Location}.
+ *
+ * The documents are traversed using their {@link ApiDocument} representation.
+ * swagger-parser models are converted before walking.
+ *
+ * The schemas are walked recursively, or iteratively using an explicit
+ * stack for documents with deeply nested schemas.
+ *
+ * The walk can be restricted to some operations using an {@link OperationFilter},
+ * and bounded in time using {@link #setTimeBudget(Duration)}.
+ *
+ * Counters about the last walk are available using {@link #getStatistics()}.
+ * Java Flight Recorder events are emitted for the walk and for each path
+ * when recording is enabled.
  */
 public class OpenApiDiffWalker {
 
-    private OpenAPI openApiLeft;
-    private OpenAPI openApiRight;
+    private ApiDocument documentLeft;
+    private ApiDocument documentRight;
     private final Location location = new Location();
+    private final boolean iterative;
+    private OperationFilter operationFilter = OperationFilter.ALL;
+    private Duration timeBudget;
+    private WalkStatistics statistics = new WalkStatistics();
+
+    private final Set<ApiSchema> visitedSchemas = new HashSet<>(); // Used to prevent infinite recursion
+    private Map<String, String> pathParameterRenames = Collections.emptyMap(); // For the path being visited
+
+    private static class PathMatch {
+        private final String leftKey;
+        private final String rightKey;
+
+        private PathMatch(String leftKey, String rightKey) {
+            this.leftKey = leftKey;
+            this.rightKey = rightKey;
+        }
+    }
 
-    private final Set<Schema> visitedSchemas = new HashSet<>(); // Used to prevent infinite recursion
+    /**
+     * Frame of the explicit stack used by the iterative traversal of the schemas
+     *
+     * A frame walks a schema, and the property holding it unless it is the
+     * root schema of the traversal.
+     */
+    private static final class SchemaFrame {
+        private final String propertyName;
+        private final SchemaDiff schemas;
+
+        private boolean entered;
+        private String ref;
+        private long visitedNodes;
+        private Map<String, ApiSchema> leftChildren = Collections.emptyMap();
+        private Map<String, ApiSchema> rightChildren = Collections.emptyMap();
+        private Iterator<String> children = Collections.emptyIterator();
+
+        private SchemaFrame(String propertyName, SchemaDiff schemas) {
+            this.propertyName = propertyName;
+            this.schemas = schemas;
+        }
+    }
+
+    public OpenApiDiffWalker() {
+        this(false);
+    }
+
+    /**
+     * @param iterative walk the schemas using an explicit stack allocated on the heap
+     *                  rather than the call stack, so that the depth of the schemas
+     *                  is not limited by the thread stack size. The visitor callbacks
+     *                  and the locations are the same in both modes.
+     */
+    public OpenApiDiffWalker(boolean iterative) {
+        this.iterative = iterative;
+    }
+
+    /**
+     * Restricts the following walks to the operations selected by a filter
+     */
+    public void setOperationFilter(OperationFilter operationFilter) {
+        this.operationFilter = operationFilter;
+    }
+
+    /**
+     * Bounds the time spent by the following walks
+     *
+     * The changed paths are walked first, followed by a sample of the other
+     * paths, see {@link PathSampler}. The walk stops once the budget is
+     * spent, after the path being walked. How much of the documents was
+     * walked is reported by {@link WalkStatistics#getCoverage()}.
+     *
+     * @param timeBudget the time budget of a walk, or null to walk the documents in full
+     */
+    public void setTimeBudget(Duration timeBudget) {
+        this.timeBudget = timeBudget;
+    }
 
     public void walk(OpenApiDiffVisitor visitor, OpenAPI openApiLeft, OpenAPI openApiRight) {
-        this.openApiLeft = openApiLeft;
-        this.openApiRight = openApiRight;
+        walk(visitor, new RefResolver(openApiLeft), new RefResolver(openApiRight));
+    }
+
+    public void walk(OpenApiDiffVisitor visitor, RefResolver resolverLeft, RefResolver resolverRight) {
+        ApiModelBuilder builder = new ApiModelBuilder();
+        walk(visitor, builder.build(resolverLeft), builder.build(resolverRight));
+    }
+
+    public void walk(OpenApiDiffVisitor visitor, ApiDocument documentLeft, ApiDocument documentRight) {
+        this.documentLeft = documentLeft;
+        this.documentRight = documentRight;
+        this.statistics = new WalkStatistics();
 
         visitor.setLocation(location);
 
-        Set<String> leftKeys  = openApiLeft.getPaths() != null ? openApiLeft.getPaths().keySet() : new HashSet<>();
-        Set<String> rightKeys = openApiRight.getPaths() != null ? openApiRight.getPaths().keySet() : new HashSet<>();
-        Stream.concat(
-                leftKeys.stream(),
-                rightKeys.stream()
-        ).distinct().forEach(key -> doVisitAndRecurse(
-                visitor, key,
-                openApiLeft.getPaths().get(key),
-                openApiRight.getPaths().get(key))
-        );
+        // The error count of a pipeline trails the walk, it is only known once the pipeline is finished
+        boolean countsErrors = !(visitor instanceof PipelinedDiffVisitor);
+
+        WalkEvent walkEvent = new WalkEvent();
+        walkEvent.begin();
+
+        long start = System.nanoTime();
+        Map<String, ApiPathItem> leftPaths = documentLeft.getPaths();
+        Map<String, ApiPathItem> rightPaths = documentRight.getPaths();
+        List<PathMatch> matches = new ArrayList<>();
+        boolean needsPathItems = operationFilter.needsPathItems();
+        for (PathMatch match : matchPaths(leftPaths, rightPaths)) {
+            // The path items of mapped documents are decoded on access, the keys are checked first
+            if (!operationFilter.mayIncludePathKeys(match.leftKey, match.rightKey)) {
+                continue;
+            }
+            if (!needsPathItems || operationFilter.includesPath(
+                    match.leftKey, leftPaths.get(match.leftKey),
+                    match.rightKey, rightPaths.get(match.rightKey))) {
+                matches.add(match);
+            }
+        }
+
+        int changedPaths = 0;
+        if (timeBudget != null) {
+            PathSampler sampler = new PathSampler(documentLeft, documentRight);
+            List<PathMatch> changed = new ArrayList<>();
+            List<PathMatch> unchanged = new ArrayList<>();
+            for (PathMatch match : matches) {
+                boolean isChanged = sampler.isChanged(leftPaths.get(match.leftKey), rightPaths.get(match.rightKey));
+                (isChanged ? changed : unchanged).add(match);
+            }
+
+            changedPaths = changed.size();
+            matches = changed;
+            matches.addAll(PathSampler.stratify(unchanged, match -> match.leftKey));
+        }
+        statistics.pathsPlanned(matches.size(), changedPaths, timeBudget != null);
+
+        for (int i = 0; i < matches.size(); i++) {
+            if (timeBudget != null && System.nanoTime() - start >= timeBudget.toNanos()) {
+                break;
+            }
+
+            PathMatch match = matches.get(i);
+
+            if (match.leftKey != null && match.rightKey != null && !match.leftKey.equals(match.rightKey)) {
+                pathParameterRenames = PathTemplateTrie.parameterRenames(match.leftKey, match.rightKey);
+            } else {
+                pathParameterRenames = Collections.emptyMap();
+            }
+
+            String key = match.rightKey != null ? match.rightKey : match.leftKey;
+            long visitedNodes = statistics.getVisitedNodes();
+
+            PathWalkEvent pathEvent = new PathWalkEvent();
+            int errors = pathEvent.isEnabled() && countsErrors ? visitor.getErrorCount() : 0;
+            pathEvent.begin();
+
+            doVisitAndRecurse(
+                    visitor, match.leftKey, key,
+                    leftPaths.get(match.leftKey),
+                    rightPaths.get(match.rightKey));
+
+            statistics.pathWalked(key, statistics.getVisitedNodes() - visitedNodes, i < changedPaths);
+
+            if (pathEvent.shouldCommit()) {
+                pathEvent.path = key;
+                pathEvent.visitedNodes = statistics.getVisitedNodes() - visitedNodes;
+                pathEvent.errors = countsErrors ? visitor.getErrorCount() - errors : -1;
+                pathEvent.commit();
+            }
+        }
+        pathParameterRenames = Collections.emptyMap();
+
+        if (walkEvent.shouldCommit()) {
+            walkEvent.paths = (int) statistics.getVisitedNodes(NodeKind.PATH);
+            walkEvent.visitedNodes = statistics.getVisitedNodes();
+            walkEvent.errors = countsErrors ? visitor.getErrorCount() : -1;
+            walkEvent.commit();
+        }
+    }
+
+    /**
+     * @return the counters collected during the last walk
+     */
+    public WalkStatistics getStatistics() {
+        return statistics;
     }
 
-    private void doVisitAndRecurse(OpenApiDiffVisitor visitor, String pathKey, PathItem left, PathItem right) {
+    /**
+     * Pairs the paths of both documents
+     *
+     * Paths are first matched by key. The remaining paths are matched using
+     * their templates, so paths where only the names of the parameters
+     * changed are considered the same.
+     */
+    private List<PathMatch> matchPaths(Map<String, ApiPathItem> leftPaths, Map<String, ApiPathItem> rightPaths) {
+        List<PathMatch> matches = new ArrayList<>(Math.max(leftPaths.size(), rightPaths.size()));
+
+        PathTemplateTrie unmatchedRightPaths = new PathTemplateTrie();
+        for (String rightKey : rightPaths.keySet()) {
+            if (!leftPaths.containsKey(rightKey)) {
+                unmatchedRightPaths.add(rightKey);
+            }
+        }
+
+        Set<String> matchedRightKeys = new HashSet<>();
+        for (String leftKey : leftPaths.keySet()) {
+            if (rightPaths.containsKey(leftKey)) {
+                matches.add(new PathMatch(leftKey, leftKey));
+                continue;
+            }
+
+            String rightKey = unmatchedRightPaths.find(leftKey).stream()
+                    .filter(candidate -> !matchedRightKeys.contains(candidate))
+                    .findFirst().orElse(null);
+            if (rightKey != null) {
+                matchedRightKeys.add(rightKey);
+            }
+            matches.add(new PathMatch(leftKey, rightKey));
+        }
+
+        for (String rightKey : rightPaths.keySet()) {
+            if (!leftPaths.containsKey(rightKey) && !matchedRightKeys.contains(rightKey)) {
+                matches.add(new PathMatch(null, rightKey));
+            }
+        }
+
+        return matches;
+    }
+
+    private void doVisitAndRecurse(OpenApiDiffVisitor visitor, String leftKey, String pathKey, ApiPathItem left, ApiPathItem right) {
         location.pushPath("Path " + pathKey);
 
         try {
+            statistics.visit(NodeKind.PATH, location.getDepth());
             visitor.acceptPath(pathKey, left, right);
 
             if (left == null || right == null) {
                 return;
             }
 
-            Set<PathItem.HttpMethod> leftKeys = left.readOperationsMap().keySet();
-            Set<PathItem.HttpMethod> rightKeys = right.readOperationsMap().keySet();
             Stream.concat(
-                    leftKeys.stream(),
-                    rightKeys.stream()
-            ).distinct().forEach(key -> doVisitAndRecurse(visitor, key,
-                    left.readOperationsMap().get(key),
-                    right.readOperationsMap().get(key))
+                    left.getMethods().stream(),
+                    right.getMethods().stream()
+            ).distinct().filter(key -> operationFilter.includesOperation(leftKey, pathKey, key,
+                    left.getOperation(key),
+                    right.getOperation(key))
+            ).forEach(key -> doVisitAndRecurse(visitor, key,
+                    left.getOperation(key),
+                    right.getOperation(key))
             );
         } finally {
             location.popPath();
         }
     }
 
-    private void doVisitAndRecurse(OpenApiDiffVisitor visitor, PathItem.HttpMethod operationKey, Operation left, Operation right) {
+    private void doVisitAndRecurse(OpenApiDiffVisitor visitor, PathItem.HttpMethod operationKey, ApiOperation left, ApiOperation right) {
         location.pushPath("Operation " + operationKey);
 
         try {
+            statistics.visit(NodeKind.OPERATION, location.getDepth());
             visitor.acceptOperation(operationKey, left, right);
 
             if (left == null || right == null) {
                 return;
             }
 
-            List<Parameter> leftParameters = left.getParameters() != null ? left.getParameters() : new ArrayList<>();
-            List<Parameter> rightParameters = right.getParameters() != null ? right.getParameters() : new ArrayList<>();
+            List<ApiParameter> leftParameters = left.getParameters();
+            List<ApiParameter> rightParameters = right.getParameters();
             Stream.concat(
-                    leftParameters.stream().map(Parameter::getName),
-                    rightParameters.stream().map(Parameter::getName)
+                    leftParameters.stream().map(this::renamedParameterName),
+                    rightParameters.stream().map(ApiParameter::getName)
             ).distinct().forEach(name -> {
-                Parameter leftParam = leftParameters.stream().filter(param -> param.getName().equals(name)).findAny().orElse(null);
-                Parameter rightParam = rightParameters.stream().filter(param -> param.getName().equals(name)).findAny().orElse(null);
+                ApiParameter leftParam = leftParameters.stream().filter(param -> renamedParameterName(param).equals(name)).findAny().orElse(null);
+                ApiParameter rightParam = rightParameters.stream().filter(param -> param.getName().equals(name)).findAny().orElse(null);
                 doVisitAndRecurse(visitor, leftParam, rightParam);
             });
 
             doVisitAndRecurse(visitor, left.getRequestBody(), right.getRequestBody());
 
-            ApiResponses leftResponses  = left.getResponses() != null ? left.getResponses() : new ApiResponses();
-            ApiResponses rightResponses = right.getResponses() != null ? right.getResponses() : new ApiResponses();
+            Map<String, ApiResponse> leftResponses  = left.getResponses();
+            Map<String, ApiResponse> rightResponses = right.getResponses();
             Stream.concat(
                     leftResponses.keySet().stream(),
                     rightResponses.keySet().stream()
@@ -112,11 +332,23 @@ public class OpenApiDiffWalker {
         }
     }
 
-    private void doVisitAndRecurse(OpenApiDiffVisitor visitor, Parameter left, Parameter right) {
+    /**
+     * @return the name of a parameter of the left document, taking into account
+     *         the path parameters renamed in the right document
+     */
+    private String renamedParameterName(ApiParameter parameter) {
+        if (!"path".equals(parameter.getIn())) {
+            return parameter.getName();
+        }
+        return pathParameterRenames.getOrDefault(parameter.getName(), parameter.getName());
+    }
+
+    private void doVisitAndRecurse(OpenApiDiffVisitor visitor, ApiParameter left, ApiParameter right) {
         location.pushPath("Parameter " + (left != null ? left.getName() : right.getName()));
         location.setRequest(true);
 
         try {
+            statistics.visit(NodeKind.PARAMETER, location.getDepth());
             visitor.acceptParameter(left, right);
         } finally {
             visitedSchemas.clear();
@@ -125,23 +357,20 @@ public class OpenApiDiffWalker {
         }
     }
 
-    private void doVisitAndRecurse(OpenApiDiffVisitor visitor, RequestBody left, RequestBody right) {
+    private void doVisitAndRecurse(OpenApiDiffVisitor visitor, ApiRequestBody left, ApiRequestBody right) {
         location.pushPath("RequestBody");
         location.setRequest(true);
 
         try {
+            statistics.visit(NodeKind.REQUEST_BODY, location.getDepth());
             visitor.acceptRequestBody(left, right);
 
             if (left == null || right == null) {
                 return;
             }
 
-            if (left.getContent() == null && right.getContent() == null) {
-                return;
-            }
-
-            Content leftContent  = left.getContent() != null ? left.getContent() : new Content();
-            Content rightContent = right.getContent() != null ? right.getContent() : new Content();
+            Map<String, ApiMediaType> leftContent  = left.getContent();
+            Map<String, ApiMediaType> rightContent = right.getContent();
             Stream.concat(
                     leftContent.keySet().stream(),
                     rightContent.keySet().stream()
@@ -163,18 +392,15 @@ public class OpenApiDiffWalker {
         location.setResponse(true);
 
         try {
+            statistics.visit(NodeKind.RESPONSE, location.getDepth());
             visitor.acceptResponse(key, left, right);
 
             if (left == null || right == null) {
                 return;
             }
 
-            if (left.getContent() == null && right.getContent() == null) {
-                return;
-            }
-
-            Content leftContent  = left.getContent() != null ? left.getContent() : new Content();
-            Content rightContent = right.getContent() != null ? right.getContent() : new Content();
+            Map<String, ApiMediaType> leftContent  = left.getContent();
+            Map<String, ApiMediaType> rightContent = right.getContent();
             Stream.concat(
                     leftContent.keySet().stream(),
                     rightContent.keySet().stream()
@@ -191,9 +417,10 @@ public class OpenApiDiffWalker {
         }
     }
 
-    private void doVisitAndRecurse(OpenApiDiffVisitor visitor, String key, MediaType left, MediaType right) {
+    private void doVisitAndRecurse(OpenApiDiffVisitor visitor, String key, ApiMediaType left, ApiMediaType right) {
         location.pushPath("MediaType " + key);
 
+        statistics.visit(NodeKind.MEDIA_TYPE, location.getDepth());
         visitor.acceptMediaType(key, left, right);
 
         try {
@@ -201,19 +428,29 @@ public class OpenApiDiffWalker {
                 return;
             }
 
-            doVisitAndRecurse(visitor, left.getSchema(), right.getSchema());
+            SchemaDiff schemas = new SchemaDiff(left.getSchema(), right.getSchema(), documentLeft, documentRight);
+            if (iterative) {
+                doVisitIteratively(visitor, schemas);
+            } else {
+                doVisitAndRecurse(visitor, schemas);
+            }
         } finally {
             location.popPath();
         }
     }
 
-    private void doVisitAndRecurse(OpenApiDiffVisitor visitor, Schema left, Schema right) {
+    private void doVisitAndRecurse(OpenApiDiffVisitor visitor, SchemaDiff schemas) {
+        ApiSchema left = schemas.getLeft();
+        ApiSchema right = schemas.getRight();
+
         if (visitedSchemas.contains(left) && visitedSchemas.contains(right)) {
             // Prevent infinite recursion
+            statistics.cycleCutOff();
             return;
         }
 
-        visitor.acceptSchema(left, right);
+        statistics.visit(NodeKind.SCHEMA, location.getDepth());
+        visitor.acceptSchema(schemas);
 
         if (left != null) {
             visitedSchemas.add(left);
@@ -226,13 +463,11 @@ public class OpenApiDiffWalker {
             return;
         }
 
-        if (left.get$ref() != null) {
-            left = resolveSchema(openApiLeft, left.get$ref());
-        }
+        String ref = right.getRef() != null ? right.getRef() : left.getRef();
+        long visitedNodes = statistics.getVisitedNodes();
 
-        if (right.get$ref() != null) {
-            right = resolveSchema(openApiRight, right.get$ref());
-        }
+        left = resolved(left, schemas.getResolvedLeft());
+        right = resolved(right, schemas.getResolvedRight());
 
         if (left.getItems() != null && right.getItems() != null) {
             doVisitAndRecurse(visitor, "items", left.getItems(), right.getItems());
@@ -240,29 +475,23 @@ public class OpenApiDiffWalker {
             doVisitEnumValues(visitor, left.getEnum(), right.getEnum());
             doVisitAndRecurse(visitor, left.getProperties(), right.getProperties());
         }
-    }
 
-    private Schema resolveSchema(OpenAPI openAPI, String ref) {
-        Components components = openAPI.getComponents();
-        if (components == null) {
-            throw new IllegalStateException("Unable to resolve schema reference: " + ref);
-        }
-        Map<String, Schema> schemas = components.getSchemas();
-        if (schemas == null) {
-            throw new IllegalStateException("Unable to resolve schema reference: " + ref);
+        if (ref != null) {
+            statistics.componentWalked(ref, statistics.getVisitedNodes() - visitedNodes);
         }
+    }
 
-        String simpleRef = (String) RefUtils.extractSimpleName(ref).getKey();
-
-        Schema resolved = schemas.get(simpleRef);
-        if (resolved == null) {
-            throw new IllegalStateException("Unable to resolve schema reference: " + ref);
+    /**
+     * Counts the resolution of a schema reference
+     */
+    private ApiSchema resolved(ApiSchema schema, ApiSchema resolvedSchema) {
+        if (schema.getRef() != null) {
+            statistics.schemaResolved();
         }
-
-        return resolved;
+        return resolvedSchema;
     }
 
-    private void doVisitAndRecurse(OpenApiDiffVisitor visitor, Map<String, Schema> left, Map<String, Schema> right) {
+    private void doVisitAndRecurse(OpenApiDiffVisitor visitor, Map<String, ApiSchema> left, Map<String, ApiSchema> right) {
         if (left == null || right == null) {
             return;
         }
@@ -278,32 +507,144 @@ public class OpenApiDiffWalker {
         );
     }
 
-    private void doVisitAndRecurse(OpenApiDiffVisitor visitor, String name, Schema left, Schema right) {
+    private void doVisitAndRecurse(OpenApiDiffVisitor visitor, String name, ApiSchema left, ApiSchema right) {
         location.pushPath("Property " + name);
 
         try {
-            visitor.acceptProperty(name, left, right);
+            SchemaDiff schemas = new SchemaDiff(left, right, documentLeft, documentRight);
+
+            statistics.visit(NodeKind.PROPERTY, location.getDepth());
+            visitor.acceptProperty(name, schemas);
 
-            doVisitAndRecurse(visitor, left, right);
+            doVisitAndRecurse(visitor, schemas);
         } finally {
             location.popPath();
         }
     }
 
-    private <T> void doVisitEnumValues(OpenApiDiffVisitor visitor, List<T> leftValues, List<T> rightValues) {
-        Set<T> enumValues = new HashSet<>();
-        if (leftValues != null) {
-            enumValues.addAll(leftValues);
+    /**
+     * Walks a pair of schemas like {@link #doVisitAndRecurse(OpenApiDiffVisitor, SchemaDiff)}
+     * using an explicit stack of {@link SchemaFrame}s.
+     */
+    private void doVisitIteratively(OpenApiDiffVisitor visitor, SchemaDiff schemas) {
+        Deque<SchemaFrame> stack = new ArrayDeque<>();
+        stack.push(new SchemaFrame(null, schemas));
+
+        try {
+            while (!stack.isEmpty()) {
+                SchemaFrame frame = stack.peek();
+
+                if (!frame.entered) {
+                    frame.entered = true;
+                    if (frame.propertyName != null) {
+                        location.pushPath("Property " + frame.propertyName);
+                        statistics.visit(NodeKind.PROPERTY, location.getDepth());
+                        visitor.acceptProperty(frame.propertyName, frame.schemas);
+                    }
+                    enterSchema(visitor, frame);
+                }
+
+                if (frame.children.hasNext()) {
+                    String name = frame.children.next();
+                    stack.push(new SchemaFrame(name, new SchemaDiff(
+                            frame.leftChildren.get(name), frame.rightChildren.get(name),
+                            documentLeft, documentRight)));
+                    continue;
+                }
+
+                stack.pop();
+                exitSchema(frame);
+            }
+        } finally {
+            // Restore the location when a visitor failed in the middle of the traversal
+            for (SchemaFrame frame : stack) {
+                if (frame.entered && frame.propertyName != null) {
+                    location.popPath();
+                }
+            }
         }
-        if (rightValues != null) {
-            enumValues.addAll(rightValues);
+    }
+
+    /**
+     * Visits the schema of a frame and prepares the iteration over its children
+     */
+    private void enterSchema(OpenApiDiffVisitor visitor, SchemaFrame frame) {
+        ApiSchema left = frame.schemas.getLeft();
+        ApiSchema right = frame.schemas.getRight();
+
+        if (visitedSchemas.contains(left) && visitedSchemas.contains(right)) {
+            // Prevent infinite recursion
+            statistics.cycleCutOff();
+            return;
         }
 
-        for (T value : enumValues) {
-            visitor.acceptEnumValue(
-                    leftValues != null && leftValues.contains(value) ? value : null,
-                    rightValues != null && rightValues.contains(value) ? value : null
-            );
+        statistics.visit(NodeKind.SCHEMA, location.getDepth());
+        visitor.acceptSchema(frame.schemas);
+
+        if (left != null) {
+            visitedSchemas.add(left);
         }
+        if (right != null) {
+            visitedSchemas.add(right);
+        }
+
+        if (left == null || right == null) {
+            return;
+        }
+
+        frame.ref = right.getRef() != null ? right.getRef() : left.getRef();
+        frame.visitedNodes = statistics.getVisitedNodes();
+
+        left = resolved(left, frame.schemas.getResolvedLeft());
+        right = resolved(right, frame.schemas.getResolvedRight());
+
+        if (left.getItems() != null && right.getItems() != null) {
+            frame.leftChildren = Collections.singletonMap("items", left.getItems());
+            frame.rightChildren = Collections.singletonMap("items", right.getItems());
+        } else {
+            doVisitEnumValues(visitor, left.getEnum(), right.getEnum());
+
+            if (left.getProperties() != null && right.getProperties() != null) {
+                frame.leftChildren = left.getProperties();
+                frame.rightChildren = right.getProperties();
+            }
+        }
+
+        Set<String> names = new LinkedHashSet<>(frame.leftChildren.keySet());
+        names.addAll(frame.rightChildren.keySet());
+        frame.children = names.iterator();
+    }
+
+    private void exitSchema(SchemaFrame frame) {
+        if (frame.ref != null) {
+            statistics.componentWalked(frame.ref, statistics.getVisitedNodes() - frame.visitedNodes);
+        }
+        if (frame.propertyName != null) {
+            location.popPath();
+        }
+    }
+
+    private <T> void doVisitEnumValues(OpenApiDiffVisitor visitor, List<T> leftValues, List<T> rightValues) {
+        if (leftValues == rightValues) {
+            // Unchanged schemas share their enumeration values
+            return;
+        }
+
+        Map<Object, T> leftIndex = EnumValues.index(leftValues);
+        Map<Object, T> rightIndex = EnumValues.index(rightValues);
+
+        leftIndex.forEach((normalized, value) -> {
+            if (!rightIndex.containsKey(normalized)) {
+                statistics.visit(NodeKind.ENUM_VALUE, location.getDepth());
+                visitor.acceptEnumValue(value, null);
+            }
+        });
+
+        rightIndex.forEach((normalized, value) -> {
+            if (!leftIndex.containsKey(normalized)) {
+                statistics.visit(NodeKind.ENUM_VALUE, location.getDepth());
+                visitor.acceptEnumValue(null, value);
+            }
+        });
     }
 }
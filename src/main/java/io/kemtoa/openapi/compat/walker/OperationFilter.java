@@ -0,0 +1,320 @@
+package io.kemtoa.openapi.compat.walker;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import io.kemtoa.openapi.compat.model.ApiOperation;
+import io.kemtoa.openapi.compat.model.ApiPathItem;
+import io.swagger.v3.oas.models.PathItem.HttpMethod;
+
+/**
+ * Restricts the walk of {@link OpenApiDiffWalker} to a subset of the operations
+ *
+ * Operations can be selected by path globs, tags and operationIds, and by a
+ * list of the operations actually consumed by the clients of the API.
+ * An operation is walked when it matches each of the configured include
+ * criteria and none of the exclude criteria.
+ *
+ * In path globs, '*' matches any characters within a path segment, '**'
+ * matches any characters across segments and '?' matches a single character.
+ * Consumed operations are matched by their path template, so the names of
+ * the path parameters do not matter.
+ *
+ * Tags and operationIds are matched against the operation of the old
+ * document, or of the new document for added operations.
+ */
+public final class OperationFilter {
+    /**
+     * Filter walking all the operations
+     */
+    public static final OperationFilter ALL = builder().build();
+
+    private final Pattern includePaths;
+    private final Pattern excludePaths;
+    private final Set<String> includeTags;
+    private final Set<String> excludeTags;
+    private final Set<String> includeOperationIds;
+    private final Set<String> excludeOperationIds;
+    private final Map<String, Set<HttpMethod>> consumedOperations; // Keyed by normalized path template
+
+    private OperationFilter(Builder builder) {
+        this.includePaths = compileGlobs(builder.includePaths);
+        this.excludePaths = compileGlobs(builder.excludePaths);
+        this.includeTags = Set.copyOf(builder.includeTags);
+        this.excludeTags = Set.copyOf(builder.excludeTags);
+        this.includeOperationIds = Set.copyOf(builder.includeOperationIds);
+        this.excludeOperationIds = Set.copyOf(builder.excludeOperationIds);
+        this.consumedOperations = builder.consumedOperations != null ? Map.copyOf(builder.consumedOperations) : null;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return true when the filter walks all the operations
+     */
+    public boolean isEmpty() {
+        return includePaths == null && excludePaths == null
+                && includeTags.isEmpty() && excludeTags.isEmpty()
+                && includeOperationIds.isEmpty() && excludeOperationIds.isEmpty()
+                && consumedOperations == null;
+    }
+
+    /**
+     * Checks the criteria that only depend on the keys of the paired paths,
+     * so that the paths excluded by them are not fetched from the documents
+     *
+     * @return false when none of the operations of the paired paths can be walked
+     */
+    boolean mayIncludePathKeys(String leftKey, String rightKey) {
+        return isEmpty() || includesPathKey(leftKey) || includesPathKey(rightKey);
+    }
+
+    /**
+     * @return true when the operations of the path items are needed to tell whether they are walked
+     */
+    boolean needsPathItems() {
+        return !includeTags.isEmpty() || !excludeTags.isEmpty()
+                || !includeOperationIds.isEmpty() || !excludeOperationIds.isEmpty()
+                || consumedOperations != null;
+    }
+
+    /**
+     * @return true when at least one operation of the paired path items is walked
+     */
+    boolean includesPath(String leftKey, ApiPathItem left, String rightKey, ApiPathItem right) {
+        if (isEmpty()) {
+            return true;
+        }
+
+        EnumSet<HttpMethod> methods = EnumSet.noneOf(HttpMethod.class);
+        if (left != null) {
+            methods.addAll(left.getMethods());
+        }
+        if (right != null) {
+            methods.addAll(right.getMethods());
+        }
+
+        for (HttpMethod method : methods) {
+            if (includesOperation(leftKey, rightKey, method,
+                    left != null ? left.getOperation(method) : null,
+                    right != null ? right.getOperation(method) : null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true when the paired operations are walked
+     */
+    boolean includesOperation(String leftKey, String rightKey, HttpMethod method, ApiOperation left, ApiOperation right) {
+        if (isEmpty()) {
+            return true;
+        }
+
+        if (!includesPathKey(leftKey, method) && !includesPathKey(rightKey, method)) {
+            return false;
+        }
+
+        ApiOperation operation = left != null ? left : right;
+        if (operation == null) {
+            return false;
+        }
+
+        List<String> tags = operation.getTags();
+        if (!includeTags.isEmpty() && tags.stream().noneMatch(includeTags::contains)) {
+            return false;
+        }
+        if (tags.stream().anyMatch(excludeTags::contains)) {
+            return false;
+        }
+
+        String operationId = operation.getOperationId();
+        if (!includeOperationIds.isEmpty() && (operationId == null || !includeOperationIds.contains(operationId))) {
+            return false;
+        }
+        return operationId == null || !excludeOperationIds.contains(operationId);
+    }
+
+    private boolean includesPathKey(String path, HttpMethod method) {
+        if (!includesPathKey(path)) {
+            return false;
+        }
+        if (consumedOperations != null) {
+            return consumedOperations.get(normalizePath(path)).contains(method);
+        }
+        return true;
+    }
+
+    /**
+     * @return true when at least one operation of the path may be walked
+     */
+    private boolean includesPathKey(String path) {
+        if (path == null) {
+            return false;
+        }
+        if (includePaths != null && !includePaths.matcher(path).matches()) {
+            return false;
+        }
+        if (excludePaths != null && excludePaths.matcher(path).matches()) {
+            return false;
+        }
+        return consumedOperations == null || consumedOperations.containsKey(normalizePath(path));
+    }
+
+    private static String normalizePath(String path) {
+        // Parameters are replaced in the whole path at once, as they never span segments
+        return PathTemplateTrie.normalizeSegment(path);
+    }
+
+    /**
+     * Compiles a set of globs into a single pattern
+     *
+     * @return null when there are no globs
+     */
+    private static Pattern compileGlobs(List<String> globs) {
+        if (globs.isEmpty()) {
+            return null;
+        }
+
+        return Pattern.compile(globs.stream()
+                .map(OperationFilter::globToRegex)
+                .collect(Collectors.joining("|")));
+    }
+
+    private static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder("(?:");
+        int literalStart = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c != '*' && c != '?') {
+                continue;
+            }
+
+            if (i > literalStart) {
+                regex.append(Pattern.quote(glob.substring(literalStart, i)));
+            }
+            if (c == '?') {
+                regex.append("[^/]");
+            } else if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i++;
+            } else {
+                regex.append("[^/]*");
+            }
+            literalStart = i + 1;
+        }
+        if (literalStart < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return regex.append(')').toString();
+    }
+
+    public static final class Builder {
+        private final List<String> includePaths = new ArrayList<>();
+        private final List<String> excludePaths = new ArrayList<>();
+        private final Set<String> includeTags = new HashSet<>();
+        private final Set<String> excludeTags = new HashSet<>();
+        private final Set<String> includeOperationIds = new HashSet<>();
+        private final Set<String> excludeOperationIds = new HashSet<>();
+        private Map<String, Set<HttpMethod>> consumedOperations;
+
+        private Builder() {
+        }
+
+        public Builder includePaths(Collection<String> globs) {
+            includePaths.addAll(globs);
+            return this;
+        }
+
+        public Builder excludePaths(Collection<String> globs) {
+            excludePaths.addAll(globs);
+            return this;
+        }
+
+        public Builder includeTags(Collection<String> tags) {
+            includeTags.addAll(tags);
+            return this;
+        }
+
+        public Builder excludeTags(Collection<String> tags) {
+            excludeTags.addAll(tags);
+            return this;
+        }
+
+        public Builder includeOperationIds(Collection<String> operationIds) {
+            includeOperationIds.addAll(operationIds);
+            return this;
+        }
+
+        public Builder excludeOperationIds(Collection<String> operationIds) {
+            excludeOperationIds.addAll(operationIds);
+            return this;
+        }
+
+        /**
+         * Restricts the walk to a consumed operation. Once an operation has been
+         * added, the operations that were not added are not walked.
+         */
+        public Builder consumedOperation(HttpMethod method, String path) {
+            if (consumedOperations == null) {
+                consumedOperations = new HashMap<>();
+            }
+            consumedOperations.computeIfAbsent(normalizePath(path), p -> EnumSet.noneOf(HttpMethod.class)).add(method);
+            return this;
+        }
+
+        /**
+         * Restricts the walk to the operations listed in a manifest
+         *
+         * Each line of the manifest holds an HTTP method followed by a path,
+         * such as 'GET /pets/{petId}'. Blank lines and lines starting with '#'
+         * are ignored.
+         */
+        public Builder consumedOperations(Path manifest) throws IOException {
+            if (consumedOperations == null) {
+                consumedOperations = new HashMap<>();
+            }
+
+            for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] parts = line.split("\\s+");
+                HttpMethod method;
+                try {
+                    method = parts.length == 2 ? HttpMethod.valueOf(parts[0].toUpperCase(Locale.ROOT)) : null;
+                } catch (IllegalArgumentException e) {
+                    method = null;
+                }
+                if (method == null) {
+                    throw new IOException("Invalid consumed operation, expected a method and a path: " + line);
+                }
+
+                consumedOperation(method, parts[1]);
+            }
+            return this;
+        }
+
+        public OperationFilter build() {
+            return new OperationFilter(this);
+        }
+    }
+}
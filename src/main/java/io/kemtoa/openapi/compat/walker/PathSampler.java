@@ -0,0 +1,178 @@
+package io.kemtoa.openapi.compat.walker;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import io.kemtoa.openapi.compat.model.ApiDocument;
+import io.kemtoa.openapi.compat.model.ApiMediaType;
+import io.kemtoa.openapi.compat.model.ApiOperation;
+import io.kemtoa.openapi.compat.model.ApiPathItem;
+import io.kemtoa.openapi.compat.model.ApiResponse;
+import io.kemtoa.openapi.compat.model.ApiSchema;
+import io.swagger.v3.oas.models.PathItem.HttpMethod;
+
+/**
+ * Order of the paths of a time-boxed walk, see {@link OpenApiDiffWalker#setTimeBudget}
+ *
+ * The changed paths come first: the paths added or removed, the path items
+ * that differ between the documents, and the path items referring to a
+ * schema component that differs, directly or through other components.
+ *
+ * The other paths follow as a stratified sample: one path of each first path
+ * segment in turn, so that a walk stopped early still covers every part of
+ * the API. The paths of a segment are shuffled with a fixed seed, the sample
+ * is the same from one run to the next.
+ */
+final class PathSampler {
+    private static final long SEED = 0x5eed;
+
+    private final Set<String> changedComponents;
+
+    PathSampler(ApiDocument documentLeft, ApiDocument documentRight) {
+        this.changedComponents = changedComponents(documentLeft.getSchemas(), documentRight.getSchemas());
+    }
+
+    /**
+     * @return true when a path may hold backwards incompatible changes
+     */
+    boolean isChanged(ApiPathItem left, ApiPathItem right) {
+        if (left == null || right == null || !left.equals(right)) {
+            return true;
+        }
+        if (changedComponents.isEmpty()) {
+            return false;
+        }
+
+        Set<String> refs = new HashSet<>();
+        collectRefs(right, refs);
+        return !Collections.disjoint(refs, changedComponents);
+    }
+
+    /**
+     * Orders the unchanged paths by taking one path of each first path segment in turn
+     *
+     * @param key the key of the path of an element
+     */
+    static <T> List<T> stratify(List<T> paths, Function<T, String> key) {
+        Map<String, Deque<T>> strata = new LinkedHashMap<>();
+        for (T path : paths) {
+            strata.computeIfAbsent(firstSegment(key.apply(path)), segment -> new ArrayDeque<>()).add(path);
+        }
+
+        Random random = new Random(SEED);
+        List<Deque<T>> queues = new ArrayList<>();
+        for (Deque<T> stratum : strata.values()) {
+            List<T> shuffled = new ArrayList<>(stratum);
+            Collections.shuffle(shuffled, random);
+            queues.add(new ArrayDeque<>(shuffled));
+        }
+
+        List<T> ordered = new ArrayList<>(paths.size());
+        while (ordered.size() < paths.size()) {
+            for (Deque<T> queue : queues) {
+                if (!queue.isEmpty()) {
+                    ordered.add(queue.poll());
+                }
+            }
+        }
+        return ordered;
+    }
+
+    static String firstSegment(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        return end >= 0 ? path.substring(start, end) : path.substring(start);
+    }
+
+    /**
+     * @return the components that differ between the documents, and the components referring to them
+     */
+    private static Set<String> changedComponents(Map<String, ApiSchema> left, Map<String, ApiSchema> right) {
+        Set<String> changed = new HashSet<>();
+        Map<String, Set<String>> referrers = new HashMap<>();
+
+        Set<String> refs = new HashSet<>(left.keySet());
+        refs.addAll(right.keySet());
+        for (String ref : refs) {
+            ApiSchema rightSchema = right.get(ref);
+            if (!Objects.equals(left.get(ref), rightSchema)) {
+                changed.add(ref);
+            }
+            if (rightSchema != null) {
+                Set<String> referred = new HashSet<>();
+                collectRefs(rightSchema, referred);
+                for (String referredRef : referred) {
+                    referrers.computeIfAbsent(referredRef, r -> new HashSet<>()).add(ref);
+                }
+            }
+        }
+
+        Deque<String> queue = new ArrayDeque<>(changed);
+        while (!queue.isEmpty()) {
+            for (String referrer : referrers.getOrDefault(queue.poll(), Collections.emptySet())) {
+                if (changed.add(referrer)) {
+                    queue.add(referrer);
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static void collectRefs(ApiPathItem pathItem, Set<String> refs) {
+        for (HttpMethod method : pathItem.getMethods()) {
+            ApiOperation operation = pathItem.getOperation(method);
+            if (operation.getRequestBody() != null) {
+                collectRefs(operation.getRequestBody().getContent(), refs);
+            }
+            for (ApiResponse response : operation.getResponses().values()) {
+                collectRefs(response.getContent(), refs);
+            }
+        }
+    }
+
+    private static void collectRefs(Map<String, ApiMediaType> content, Set<String> refs) {
+        if (content == null) {
+            return;
+        }
+        for (ApiMediaType mediaType : content.values()) {
+            if (mediaType.getSchema() != null) {
+                collectRefs(mediaType.getSchema(), refs);
+            }
+        }
+    }
+
+    /**
+     * Collects the references of an inline schema, without following them
+     */
+    private static void collectRefs(ApiSchema root, Set<String> refs) {
+        Deque<ApiSchema> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            ApiSchema schema = stack.pop();
+            if (schema.getRef() != null) {
+                refs.add(schema.getRef());
+            }
+            if (schema.getItems() != null) {
+                stack.push(schema.getItems());
+            }
+            if (schema.getProperties() != null) {
+                for (ApiSchema property : schema.getProperties().values()) {
+                    if (property != null) {
+                        stack.push(property);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.kemtoa.openapi.compat.walker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trie of OpenAPI path templates
+ *
+ * Paths are split in segments, and the parameters found in each segment
+ * are replaced with a wildcard. Paths differing only by the names of
+ * their parameters, such as '/pets/{id}' and '/pets/{petId}', end up in
+ * the same node of the trie, as they describe the same wire contract.
+ */
+final class PathTemplateTrie {
+    private static final String WILDCARD = "{}";
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>(4);
+        private final List<String> paths = new ArrayList<>(1);
+    }
+
+    private final Node root = new Node();
+
+    void add(String path) {
+        Node node = root;
+        for (String segment : path.split("/", -1)) {
+            node = node.children.computeIfAbsent(normalizeSegment(segment), s -> new Node());
+        }
+        node.paths.add(path);
+    }
+
+    /**
+     * @return the paths added to the trie having the same template as the specified path,
+     *         in the order they were added
+     */
+    List<String> find(String path) {
+        Node node = root;
+        for (String segment : path.split("/", -1)) {
+            node = node.children.get(normalizeSegment(segment));
+            if (node == null) {
+                return Collections.emptyList();
+            }
+        }
+        return node.paths;
+    }
+
+    /**
+     * @return the names of the parameters of the 'from' path mapped to the names of
+     *         the parameters at the same position in the 'to' path
+     */
+    static Map<String, String> parameterRenames(String from, String to) {
+        List<String> fromNames = parameterNames(from);
+        List<String> toNames = parameterNames(to);
+
+        Map<String, String> renames = new HashMap<>();
+        for (int i = 0; i < fromNames.size() && i < toNames.size(); i++) {
+            if (!fromNames.get(i).equals(toNames.get(i))) {
+                renames.put(fromNames.get(i), toNames.get(i));
+            }
+        }
+        return renames;
+    }
+
+    static String normalizeSegment(String segment) {
+        int start = segment.indexOf('{');
+        if (start < 0) {
+            return segment;
+        }
+
+        StringBuilder normalized = new StringBuilder(segment.length());
+        int position = 0;
+        while (start >= 0) {
+            int end = segment.indexOf('}', start);
+            if (end < 0) {
+                break;
+            }
+
+            normalized.append(segment, position, start).append(WILDCARD);
+            position = end + 1;
+            start = segment.indexOf('{', position);
+        }
+        normalized.append(segment, position, segment.length());
+
+        return normalized.toString();
+    }
+
+    private static List<String> parameterNames(String path) {
+        List<String> names = new ArrayList<>();
+
+        int start = path.indexOf('{');
+        while (start >= 0) {
+            int end = path.indexOf('}', start);
+            if (end < 0) {
+                break;
+            }
+
+            names.add(path.substring(start + 1, end));
+            start = path.indexOf('{', end);
+        }
+
+        return names;
+    }
+}
@@ -0,0 +1,25 @@
+package io.kemtoa.openapi.compat.walker;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted for the walk of each path of the documents
+ */
+@Name("io.kemtoa.openapi.compat.PathWalk")
+@Label("OpenAPI Path Walk")
+@Category({"OpenAPI", "Compatibility Check"})
+@Description("Walk of the subtree of a path of a pair of OpenAPI documents")
+final class PathWalkEvent extends jdk.jfr.Event {
+    @Label("Path")
+    String path;
+
+    @Label("Visited Nodes")
+    long visitedNodes;
+
+    @Label("Errors")
+    @Description("Errors reported by the visitor, -1 when the rules are evaluated by a pipeline, which reports them after the walk")
+    int errors;
+}
@@ -0,0 +1,379 @@
+package io.kemtoa.openapi.compat.walker;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import io.kemtoa.openapi.compat.model.ApiMediaType;
+import io.kemtoa.openapi.compat.model.ApiOperation;
+import io.kemtoa.openapi.compat.model.ApiParameter;
+import io.kemtoa.openapi.compat.model.ApiPathItem;
+import io.kemtoa.openapi.compat.model.ApiRequestBody;
+import io.kemtoa.openapi.compat.model.ApiResponse;
+import io.swagger.v3.oas.models.PathItem.HttpMethod;
+
+/**
+ * {@link OpenApiDiffVisitor} evaluating a set of visitors on worker threads
+ *
+ * Each call made by {@link OpenApiDiffWalker} is recorded as a
+ * {@link DiffEvent}, along with a snapshot of the location, and published
+ * into a bounded ring buffer. The walk then goes on without waiting for the
+ * visitors, unless the buffer is full.
+ *
+ * The visitors are partitioned between the workers. Every worker consumes
+ * all the events, in sequence order, and dispatches them to its own
+ * visitors only. A visitor is therefore only called from a single thread,
+ * with the same calls in the same order as in a sequential walk, and does
+ * not need to be thread-safe. Its findings are identical to the findings of
+ * a sequential walk.
+ *
+ * The callbacks made by the visitors, such as the listeners of the findings
+ * of the rules, can be wrapped with {@link #sequenced(Consumer)} so that
+ * they are called by the walking thread, in the order of a sequential walk.
+ *
+ * The workers run on a cached pool of daemon threads shared by all the
+ * pipelines of the JVM, so the threads are reused from one check to the
+ * next. A worker holds its thread until the pipeline is finished.
+ *
+ * {@link #finish()} must be called once the walk is done, before reading
+ * the findings of the visitors.
+ */
+public class PipelinedDiffVisitor implements OpenApiDiffVisitor, AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService SHARED_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "openapi-compat-rules-" + THREAD_COUNT.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final DiffEvent[] buffer;
+    private final int mask;
+    private final AtomicLong published = new AtomicLong(-1);
+    private final List<Worker> workers = new ArrayList<>();
+    private final CountDownLatch stopped;
+    private final ThreadLocal<Worker> currentWorker = new ThreadLocal<>();
+    private final AtomicLong deferredCount = new AtomicLong();
+    private final PriorityBlockingQueue<Deferred<?>> deferred = new PriorityBlockingQueue<>(16,
+            Comparator.<Deferred<?>>comparingLong(d -> d.sequence)
+                    .thenComparingInt(d -> d.visitorIndex)
+                    .thenComparingLong(d -> d.order));
+
+    private Location location;
+    private long nextSequence;
+    private volatile boolean finished;
+    private volatile Throwable failure;
+
+    /**
+     * A callback made by a visitor, with the position of the call in a sequential walk
+     */
+    private static final class Deferred<T> {
+        private final long sequence;
+        private final int visitorIndex;
+        private final long order;
+        private final Consumer<T> consumer;
+        private final T value;
+
+        private Deferred(long sequence, int visitorIndex, long order, Consumer<T> consumer, T value) {
+            this.sequence = sequence;
+            this.visitorIndex = visitorIndex;
+            this.order = order;
+            this.consumer = consumer;
+            this.value = value;
+        }
+
+        private void run() {
+            consumer.accept(value);
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final List<OpenApiDiffVisitor> visitors = new ArrayList<>();
+        private final List<Integer> visitorIndexes = new ArrayList<>();
+        private final AtomicLong consumed = new AtomicLong(-1);
+        private volatile int errorCount;
+
+        // The event being dispatched, and the index of the visitor it is dispatched to
+        private long sequence;
+        private int visitorIndex;
+
+        @Override
+        public void run() {
+            currentWorker.set(this);
+            try {
+                long sequence = 0;
+                while (true) {
+                    boolean done = finished;
+                    long available = published.get();
+
+                    if (sequence > available) {
+                        if (done || failure != null) {
+                            return;
+                        }
+                        idle(sequence);
+                        continue;
+                    }
+
+                    for (; sequence <= available; sequence++) {
+                        DiffEvent event = buffer[(int) sequence & mask];
+                        this.sequence = sequence;
+                        for (int i = 0; i < visitors.size(); i++) {
+                            visitorIndex = visitorIndexes.get(i);
+                            event.dispatch(visitors.get(i));
+                        }
+                        // Per event, so that the deferred callbacks are run as soon as possible
+                        consumed.set(sequence);
+                    }
+                    errorCount = visitors.stream().mapToInt(OpenApiDiffVisitor::getErrorCount).sum();
+                }
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                currentWorker.remove();
+                stopped.countDown();
+            }
+        }
+    }
+
+    /**
+     * @param visitors the visitors to evaluate, each one is only called by one worker
+     * @param threads the number of worker threads
+     */
+    public PipelinedDiffVisitor(List<? extends OpenApiDiffVisitor> visitors, int threads) {
+        this(visitors, threads, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the number of events published ahead of the slowest worker, a power of two
+     */
+    public PipelinedDiffVisitor(List<? extends OpenApiDiffVisitor> visitors, int threads, int capacity) {
+        this(visitors, threads, capacity, SHARED_EXECUTOR);
+    }
+
+    /**
+     * @param executor the executor running the workers, it must run all of them at the same time
+     */
+    public PipelinedDiffVisitor(List<? extends OpenApiDiffVisitor> visitors, int threads, int capacity, Executor executor) {
+        if (threads < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Invalid pipeline configuration: " + threads + " threads, capacity " + capacity);
+        }
+
+        this.buffer = new DiffEvent[capacity];
+        this.mask = capacity - 1;
+
+        for (int i = 0; i < Math.min(threads, visitors.size()); i++) {
+            workers.add(new Worker());
+        }
+        for (int i = 0; i < visitors.size(); i++) {
+            Worker worker = workers.get(i % workers.size());
+            worker.visitors.add(visitors.get(i));
+            worker.visitorIndexes.add(i);
+        }
+
+        this.stopped = new CountDownLatch(workers.size());
+        for (int i = 0; i < workers.size(); i++) {
+            try {
+                executor.execute(workers.get(i));
+            } catch (RejectedExecutionException e) {
+                // The workers already started stop on their own
+                close();
+                for (int j = i; j < workers.size(); j++) {
+                    stopped.countDown();
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Wraps a callback made by the visitors, so that it is run by the walking thread
+     *
+     * The calls made by the workers are deferred until all the workers have
+     * consumed the event being dispatched. They are then run by the walking
+     * thread, while publishing the following events or in {@link #finish()},
+     * in the order they would have been made by a sequential walk: by event,
+     * then by visitor in the order they were given. Calls made from other
+     * threads are run directly.
+     */
+    public <T> Consumer<T> sequenced(Consumer<T> consumer) {
+        return value -> {
+            Worker worker = currentWorker.get();
+            if (worker == null) {
+                consumer.accept(value);
+            } else {
+                deferred.add(new Deferred<>(worker.sequence, worker.visitorIndex, deferredCount.getAndIncrement(), consumer, value));
+            }
+        };
+    }
+
+    /**
+     * Waits for the workers to consume all the published events
+     *
+     * @throws RuntimeException the failure of a visitor, if any
+     */
+    public void finish() {
+        finished = true;
+
+        boolean interrupted = false;
+        while (stopped.getCount() > 0) {
+            try {
+                stopped.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        rethrowFailure();
+        runDeferred(Long.MAX_VALUE);
+    }
+
+    /**
+     * Stops the workers, discarding the events not consumed yet
+     */
+    @Override
+    public void close() {
+        finished = true;
+        if (failure == null) {
+            failure = new IllegalStateException("The pipeline is closed");
+        }
+    }
+
+    private void publish(NodeKind kind, Object key, Object left, Object right) {
+        long sequence = nextSequence++;
+
+        int tries = 0;
+        while (sequence - minConsumed() > mask) {
+            rethrowFailure();
+            tries = backOff(tries);
+        }
+
+        buffer[(int) sequence & mask] = new DiffEvent(kind, key, left, right, location.snapshot());
+        published.set(sequence);
+
+        if (!deferred.isEmpty()) {
+            runDeferred(minConsumed());
+        }
+    }
+
+    /**
+     * Runs the deferred callbacks made while dispatching the events up to a sequence, in order
+     */
+    private void runDeferred(long sequence) {
+        Deferred<?> next;
+        while ((next = deferred.peek()) != null && next.sequence <= sequence) {
+            deferred.poll().run();
+        }
+    }
+
+    private long minConsumed() {
+        long min = Long.MAX_VALUE;
+        for (Worker worker : workers) {
+            min = Math.min(min, worker.consumed.get());
+        }
+        return min;
+    }
+
+    private void rethrowFailure() {
+        Throwable e = failure;
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        } else if (e instanceof Error) {
+            throw (Error) e;
+        } else if (e != null) {
+            throw new IllegalStateException("A visitor failed", e);
+        }
+    }
+
+    /**
+     * Waits for the sequence to be published, spinning first since events usually follow each other closely
+     */
+    private void idle(long sequence) {
+        int tries = 0;
+        while (published.get() < sequence && !finished && failure == null) {
+            tries = backOff(tries);
+        }
+    }
+
+    private static int backOff(int tries) {
+        if (tries < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return tries + 1;
+    }
+
+    @Override
+    public void setLocation(Location location) {
+        this.location = location;
+    }
+
+    /**
+     * @return the number of errors reported by the visitors for the events consumed so far
+     */
+    @Override
+    public int getErrorCount() {
+        return workers.stream().mapToInt(worker -> worker.errorCount).sum();
+    }
+
+    @Override
+    public void acceptPath(String key, ApiPathItem left, ApiPathItem right) {
+        publish(NodeKind.PATH, key, left, right);
+    }
+
+    @Override
+    public void acceptOperation(HttpMethod operationKey, ApiOperation left, ApiOperation right) {
+        publish(NodeKind.OPERATION, operationKey, left, right);
+    }
+
+    @Override
+    public void acceptParameter(ApiParameter left, ApiParameter right) {
+        publish(NodeKind.PARAMETER, null, left, right);
+    }
+
+    @Override
+    public void acceptRequestBody(ApiRequestBody left, ApiRequestBody right) {
+        publish(NodeKind.REQUEST_BODY, null, left, right);
+    }
+
+    @Override
+    public void acceptResponse(String key, ApiResponse left, ApiResponse right) {
+        publish(NodeKind.RESPONSE, key, left, right);
+    }
+
+    @Override
+    public void acceptMediaType(String key, ApiMediaType left, ApiMediaType right) {
+        publish(NodeKind.MEDIA_TYPE, key, left, right);
+    }
+
+    @Override
+    public void acceptSchema(SchemaDiff schemas) {
+        publish(NodeKind.SCHEMA, null, schemas, null);
+    }
+
+    @Override
+    public void acceptProperty(String key, SchemaDiff schemas) {
+        publish(NodeKind.PROPERTY, key, schemas, null);
+    }
+
+    @Override
+    public <T> void acceptEnumValue(T left, T right) {
+        publish(NodeKind.ENUM_VALUE, null, left, right);
+    }
+}
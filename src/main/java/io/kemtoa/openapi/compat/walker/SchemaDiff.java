@@ -0,0 +1,178 @@
+package io.kemtoa.openapi.compat.walker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.kemtoa.openapi.compat.model.ApiDocument;
+import io.kemtoa.openapi.compat.model.ApiSchema;
+
+/**
+ * Pair of schemas compared by {@link OpenApiDiffWalker}, along with data derived from them
+ *
+ * A single instance is passed to all the visitors for each pair of schemas,
+ * so the derived data is computed at most once, on first use, whatever the
+ * number of rules using it.
+ *
+ * The derived data is computed from the resolved schemas, so that the
+ * content of the referenced components is taken into account. A missing
+ * schema is considered to have no properties.
+ *
+ * Instances may be shared by the rule workers of a {@link PipelinedDiffVisitor}.
+ * The derived data is immutable and safely published without locking, at the
+ * cost of being computed more than once when threads race for it.
+ */
+public final class SchemaDiff {
+    private final ApiSchema left;
+    private final ApiSchema right;
+    private final ApiDocument documentLeft;
+    private final ApiDocument documentRight;
+
+    private ApiSchema resolvedLeft;
+    private ApiSchema resolvedRight;
+
+    private Set<String> leftRequired;
+    private Set<String> rightRequired;
+    private PropertyDiff propertyDiff;
+
+    private static final class PropertyDiff {
+        private final List<String> added;
+        private final List<String> removed;
+        private final List<String> common;
+
+        private PropertyDiff(List<String> added, List<String> removed, List<String> common) {
+            this.added = Collections.unmodifiableList(added);
+            this.removed = Collections.unmodifiableList(removed);
+            this.common = Collections.unmodifiableList(common);
+        }
+    }
+
+    SchemaDiff(ApiSchema left, ApiSchema right, ApiDocument documentLeft, ApiDocument documentRight) {
+        this.left = left;
+        this.right = right;
+        this.documentLeft = documentLeft;
+        this.documentRight = documentRight;
+    }
+
+    private static ApiSchema resolve(ApiDocument document, ApiSchema schema) {
+        return schema != null && schema.getRef() != null ? document.resolveSchema(schema) : schema;
+    }
+
+    /**
+     * @return the schema of the old document as found in the document, possibly a reference
+     */
+    public ApiSchema getLeft() {
+        return left;
+    }
+
+    /**
+     * @return the schema of the new document as found in the document, possibly a reference
+     */
+    public ApiSchema getRight() {
+        return right;
+    }
+
+    public ApiSchema getResolvedLeft() {
+        if (resolvedLeft == null) {
+            resolvedLeft = resolve(documentLeft, left);
+        }
+        return resolvedLeft;
+    }
+
+    public ApiSchema getResolvedRight() {
+        if (resolvedRight == null) {
+            resolvedRight = resolve(documentRight, right);
+        }
+        return resolvedRight;
+    }
+
+    public String getLeftType() {
+        return left != null ? getResolvedLeft().getType() : null;
+    }
+
+    public String getRightType() {
+        return right != null ? getResolvedRight().getType() : null;
+    }
+
+    public String getLeftFormat() {
+        return left != null ? getResolvedLeft().getFormat() : null;
+    }
+
+    public String getRightFormat() {
+        return right != null ? getResolvedRight().getFormat() : null;
+    }
+
+    public Set<String> getLeftRequired() {
+        if (leftRequired == null) {
+            leftRequired = requiredSet(getResolvedLeft());
+        }
+        return leftRequired;
+    }
+
+    public Set<String> getRightRequired() {
+        if (rightRequired == null) {
+            rightRequired = requiredSet(getResolvedRight());
+        }
+        return rightRequired;
+    }
+
+    /**
+     * @return the names of the properties only found in the new schema
+     */
+    public List<String> getAddedProperties() {
+        return diffProperties().added;
+    }
+
+    /**
+     * @return the names of the properties only found in the old schema
+     */
+    public List<String> getRemovedProperties() {
+        return diffProperties().removed;
+    }
+
+    /**
+     * @return the names of the properties found in both schemas
+     */
+    public List<String> getCommonProperties() {
+        return diffProperties().common;
+    }
+
+    private static Set<String> requiredSet(ApiSchema schema) {
+        if (schema == null || schema.getRequired().isEmpty()) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(new HashSet<>(schema.getRequired()));
+    }
+
+    private PropertyDiff diffProperties() {
+        if (propertyDiff != null) {
+            return propertyDiff;
+        }
+
+        Map<String, ApiSchema> leftProperties = properties(getResolvedLeft());
+        Map<String, ApiSchema> rightProperties = properties(getResolvedRight());
+
+        List<String> added = new ArrayList<>();
+        List<String> common = new ArrayList<>();
+        for (String name : rightProperties.keySet()) {
+            (leftProperties.containsKey(name) ? common : added).add(name);
+        }
+
+        List<String> removed = new ArrayList<>();
+        for (String name : leftProperties.keySet()) {
+            if (!rightProperties.containsKey(name)) {
+                removed.add(name);
+            }
+        }
+
+        propertyDiff = new PropertyDiff(added, removed, common);
+        return propertyDiff;
+    }
+
+    private static Map<String, ApiSchema> properties(ApiSchema schema) {
+        return schema != null && schema.getProperties() != null ? schema.getProperties() : Collections.emptyMap();
+    }
+}
@@ -0,0 +1,25 @@
+package io.kemtoa.openapi.compat.walker;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted for each walk of a pair of documents
+ */
+@Name("io.kemtoa.openapi.compat.Walk")
+@Label("OpenAPI Diff Walk")
+@Category({"OpenAPI", "Compatibility Check"})
+@Description("Walk of a pair of OpenAPI documents")
+final class WalkEvent extends jdk.jfr.Event {
+    @Label("Paths")
+    int paths;
+
+    @Label("Visited Nodes")
+    long visitedNodes;
+
+    @Label("Errors")
+    @Description("Errors reported by the visitor, -1 when the rules are evaluated by a pipeline, which reports them after the walk")
+    int errors;
+}
@@ -0,0 +1,214 @@
+package io.kemtoa.openapi.compat.walker;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Counters collected by {@link OpenApiDiffWalker} while comparing two documents
+ *
+ * Used to understand where the time is spent when checking large specs,
+ * for instance when a schema is reachable through many paths.
+ */
+public class WalkStatistics {
+    private final long[] visitedNodes = new long[NodeKind.values().length];
+    private long totalVisitedNodes;
+    private long schemaResolutions;
+    private long cycleCutOffs;
+    private int maxDepth;
+
+    private boolean sampled;
+    private int plannedPaths;
+    private int walkedPaths;
+    private int changedPaths;
+    private int walkedChangedPaths;
+
+    private final Map<String, Long> pathNodes = new HashMap<>();
+    private final Map<String, Long> componentNodes = new HashMap<>();
+    private final Map<String, Long> componentWalks = new HashMap<>();
+
+    void visit(NodeKind kind, int depth) {
+        visitedNodes[kind.ordinal()]++;
+        totalVisitedNodes++;
+        if (depth > maxDepth) {
+            maxDepth = depth;
+        }
+    }
+
+    void schemaResolved() {
+        schemaResolutions++;
+    }
+
+    void cycleCutOff() {
+        cycleCutOffs++;
+    }
+
+    void pathsPlanned(int paths, int changed, boolean sampled) {
+        this.plannedPaths = paths;
+        this.changedPaths = changed;
+        this.sampled = sampled;
+    }
+
+    void pathWalked(String path, long nodes, boolean changed) {
+        pathNodes.merge(path, nodes, Long::sum);
+        walkedPaths++;
+        if (changed) {
+            walkedChangedPaths++;
+        }
+    }
+
+    void componentWalked(String ref, long nodes) {
+        componentNodes.merge(ref, nodes, Long::sum);
+        componentWalks.merge(ref, 1L, Long::sum);
+    }
+
+    public long getVisitedNodes(NodeKind kind) {
+        return visitedNodes[kind.ordinal()];
+    }
+
+    public long getVisitedNodes() {
+        return totalVisitedNodes;
+    }
+
+    /**
+     * @return the number of schema references resolved
+     */
+    public long getSchemaResolutions() {
+        return schemaResolutions;
+    }
+
+    /**
+     * @return the number of times the walk stopped on an already visited schema
+     */
+    public long getCycleCutOffs() {
+        return cycleCutOffs;
+    }
+
+    /**
+     * @return the maximum depth reached in the documents, in {@link Location} frames
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return the number of paths to walk, once filtered
+     */
+    public int getPlannedPaths() {
+        return plannedPaths;
+    }
+
+    public int getWalkedPaths() {
+        return walkedPaths;
+    }
+
+    /**
+     * @return the number of paths found changed by a time-boxed walk, 0 for a full walk
+     */
+    public int getChangedPaths() {
+        return changedPaths;
+    }
+
+    /**
+     * @return the number of changed paths walked by a time-boxed walk, 0 for a full walk
+     */
+    public int getWalkedChangedPaths() {
+        return walkedChangedPaths;
+    }
+
+    /**
+     * @return true when all the paths to walk were walked
+     */
+    public boolean isComplete() {
+        return walkedPaths == plannedPaths;
+    }
+
+    /**
+     * @return a one line description of how much of the documents was walked
+     */
+    public String getCoverage() {
+        if (!sampled) {
+            return walkedPaths + " of " + plannedPaths + " paths walked";
+        }
+        return walkedPaths + " of " + plannedPaths + " paths walked ("
+                + (plannedPaths > 0 ? walkedPaths * 100 / plannedPaths : 100) + "%), including "
+                + walkedChangedPaths + " of " + changedPaths + " changed paths";
+    }
+
+    /**
+     * @return the paths with the most nodes visited, with their node count
+     */
+    public List<Map.Entry<String, Long>> getHottestPaths(int limit) {
+        return top(pathNodes, limit);
+    }
+
+    /**
+     * @return the schema components with the most nodes visited when walking
+     *         them, including the nested components, with their node count
+     */
+    public List<Map.Entry<String, Long>> getHottestComponents(int limit) {
+        return top(componentNodes, limit);
+    }
+
+    /**
+     * @return the schema components walked the most often, with their walk count
+     */
+    public List<Map.Entry<String, Long>> getMostWalkedComponents(int limit) {
+        return top(componentWalks, limit);
+    }
+
+    /**
+     * @return a one line summary of the counters
+     */
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        summary.append(getVisitedNodes()).append(" nodes visited (");
+        for (NodeKind kind : NodeKind.values()) {
+            if (kind.ordinal() > 0) {
+                summary.append(", ");
+            }
+            summary.append(kind.name().toLowerCase()).append(": ").append(getVisitedNodes(kind));
+        }
+        summary.append("), ")
+                .append(schemaResolutions).append(" schema resolutions, ")
+                .append(cycleCutOffs).append(" cycle cut-offs, ")
+                .append("max depth ").append(maxDepth);
+        if (sampled) {
+            summary.append(", ").append(getCoverage());
+        }
+        return summary.toString();
+    }
+
+    /**
+     * @return a human readable report of the hottest subtrees of the documents
+     */
+    public List<String> explain(int limit) {
+        List<String> lines = new ArrayList<>();
+
+        lines.add(getSummary());
+
+        lines.add("Hottest paths:");
+        for (Map.Entry<String, Long> entry : getHottestPaths(limit)) {
+            lines.add(String.format("  %10d nodes  %s", entry.getValue(), entry.getKey()));
+        }
+
+        lines.add("Hottest components:");
+        for (Map.Entry<String, Long> entry : getHottestComponents(limit)) {
+            lines.add(String.format("  %10d nodes  %8d walks  %s",
+                    entry.getValue(), componentWalks.get(entry.getKey()), entry.getKey()));
+        }
+
+        return lines;
+    }
+
+    private static List<Map.Entry<String, Long>> top(Map<String, Long> counts, int limit) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+}
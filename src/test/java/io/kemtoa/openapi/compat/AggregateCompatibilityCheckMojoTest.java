@@ -0,0 +1,143 @@
+package io.kemtoa.openapi.compat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.plugin.testing.AbstractMojoTestCase;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.Test;
+
+/**
+ * Tests the aggregate goal checking all the modules of a reactor.
+ */
+public class AggregateCompatibilityCheckMojoTest extends AbstractMojoTestCase {
+
+    private final String testDir = "/src/test/resources/unit/";
+    private AggregateCompatibilityCheckMojo myMojo;
+    private Path reactorDir;
+
+    protected void setUp() throws Exception {
+        super.setUp(); // required
+
+        myMojo = (AggregateCompatibilityCheckMojo) lookupEmptyMojo("aggregate", getTestFile(testDir + "project-to-test/pom.xml"));
+        assertNotNull(myMojo);
+
+        PluginDescriptor plugin = new PluginDescriptor();
+        plugin.setGroupId("io.kemtoa.openapi");
+        plugin.setArtifactId("openapi-backwards-compat-maven-plugin");
+        setVariableValueToObject(myMojo, "plugin", plugin);
+        setVariableValueToObject(myMojo, "threads", 2);
+
+        reactorDir = Files.createTempDirectory("reactor");
+        setVariableValueToObject(myMojo, "reactorProjects", Arrays.asList(
+                createModule("module-a", null),
+                createModule("module-b", "api"),
+                createModule("module-c", null)));
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown(); // required
+
+        FileUtils.deleteDirectory(reactorDir.toFile());
+    }
+
+    /**
+     * Tests that the groups of all the modules are initialized, then checked, in a single execution.
+     */
+    @Test
+    public void testAggregate() throws Exception {
+        writeSpec("module-a/src/main/openapi/test.yml", "init.yml");
+        writeSpec("module-b/api/v1/test.yml", "init.yml");
+        myMojo.execute();
+
+        assertTrue(Files.exists(reactorDir.resolve("module-a/src/main/openapi/test.lock")));
+        assertTrue(Files.exists(reactorDir.resolve("module-b/api/v1/test.lock")));
+
+        writeSpec("module-a/src/main/openapi/test.yml", "good.yml");
+        writeSpec("module-b/api/v1/test.yml", "bad.yml");
+        try {
+            myMojo.execute();
+            fail();
+        } catch (MojoFailureException ex) {
+            assertEquals("Backwards compatibility check failed for the groups [module-b:v1/test]", ex.getMessage());
+        }
+    }
+
+    /**
+     * Tests that the messages of all the groups are printed when the check of a group fails with an error.
+     */
+    @Test
+    public void testAggregateError() throws Exception {
+        writeSpec("module-a/src/main/openapi/test.yml", "init.yml");
+        writeSpec("module-b/api/v1/test.yml", "init.yml");
+        // The lock of the group cannot be taken
+        Files.createDirectories(reactorDir.resolve("module-a/src/main/openapi/.test.lock.lck"));
+
+        List<String> messages = new ArrayList<>();
+        myMojo.setLog(new SystemStreamLog() {
+            @Override
+            public void info(CharSequence content) {
+                messages.add(content.toString());
+            }
+
+            @Override
+            public void info(CharSequence content, Throwable error) {
+                messages.add(content.toString());
+            }
+        });
+
+        try {
+            myMojo.execute();
+            fail();
+        } catch (MojoExecutionException ex) {
+            assertEquals("An error occurred while running the OpenApi compatibility check", ex.getMessage());
+        }
+
+        assertTrue(messages.contains("Module 'module-a', group 'test':"));
+        assertTrue(messages.contains("Module 'module-b', group 'v1/test':"));
+        assertTrue(messages.contains("Initialized compatibility check for group 'v1/test'."));
+        assertTrue(messages.contains("Checked 2 OpenAPI groups, 1 failed."));
+    }
+
+    private MavenProject createModule(String name, String sourceDir) throws Exception {
+        File basedir = Files.createDirectories(reactorDir.resolve(name)).toFile();
+
+        MavenProject project = new MavenProject();
+        project.setArtifactId(name);
+        project.setFile(new File(basedir, "pom.xml"));
+
+        if (sourceDir != null) {
+            Xpp3Dom configuration = new Xpp3Dom("configuration");
+            for (String parameter : new String[]{"openApiSourceDir", "openApiLockDir"}) {
+                Xpp3Dom child = new Xpp3Dom(parameter);
+                child.setValue(sourceDir);
+                configuration.addChild(child);
+            }
+
+            Plugin plugin = new Plugin();
+            plugin.setGroupId("io.kemtoa.openapi");
+            plugin.setArtifactId("openapi-backwards-compat-maven-plugin");
+            plugin.setConfiguration(configuration);
+            project.getBuild().addPlugin(plugin);
+        }
+        return project;
+    }
+
+    private void writeSpec(String destination, String filename) throws Exception {
+        Path spec = reactorDir.resolve(destination);
+        Files.createDirectories(spec.getParent());
+        Files.copy(getTestFile(testDir + "testSpecs/" + filename).toPath(), spec, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
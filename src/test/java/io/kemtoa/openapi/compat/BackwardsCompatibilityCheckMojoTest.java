@@ -5,6 +5,21 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.kemtoa.openapi.compat.rules.RuleSet;
+import io.kemtoa.openapi.compat.rules.RuleTiming;
+import org.apache.commons.io.FileUtils;
 
 import org.apache.maven.model.Build;
 import org.apache.maven.model.Model;
@@ -32,8 +47,14 @@ public class BackwardsCompatibilityCheckMojoTest extends AbstractMojoTestCase {
 
         File lockFile = getTestFile(testDir + "openapi/test.lock");
         lockFile.delete();
+        File sidecarFile = getTestFile(testDir + "openapi/.test.lock.lck");
+        sidecarFile.delete();
         File testFile = getTestFile(testDir + "openapi/test.yml");
         testFile.delete();
+        for (String nestedFile : new String[]{"test.json", "test.lock", ".test.lock.lck"}) {
+            getTestFile(testDir + "openapi/nested/" + nestedFile).delete();
+        }
+        getTestFile(testDir + "openapi/nested").delete();
     }
 
     /**
@@ -102,6 +123,200 @@ public class BackwardsCompatibilityCheckMojoTest extends AbstractMojoTestCase {
         runMojo(false);
     }
 
+    /**
+     * Tests that the .lock file is not rewritten when the spec did not change.
+     */
+    @Test
+    public void testShouldNotRewriteUnchangedLockFile() throws Exception {
+        writeTestFile("init.yml");
+        myMojo.execute();
+
+        File lockFile = getTestFile(testDir + "openapi/test.lock");
+        long lastModified = 1_000_000_000_000L;
+        assertTrue(lockFile.setLastModified(lastModified));
+
+        runMojo(false);
+        assertEquals(lastModified, lockFile.lastModified());
+
+        writeTestFile("good.yml");
+        runMojo(false);
+        assertTrue(lockFile.lastModified() != lastModified);
+    }
+
+    /**
+     * Tests that a quick check not covering all the paths does not update the .lock file.
+     */
+    @Test
+    public void testQuickCheckDoesNotUpdateLockFile() throws Exception {
+        writeTestFile("init.yml");
+        myMojo.execute();
+        File lockFile = getTestFile(testDir + "openapi/test.lock");
+        byte[] lockContent = Files.readAllBytes(lockFile.toPath());
+
+        setVariableValueToObject(myMojo, "quickCheck", true);
+        setVariableValueToObject(myMojo, "quickCheckBudget", 0L);
+        writeTestFile("bad.yml");
+        runMojo(false);
+        assertTrue(Arrays.equals(lockContent, Files.readAllBytes(lockFile.toPath())));
+
+        setVariableValueToObject(myMojo, "quickCheckBudget", 60_000L);
+        runMojo(true);
+    }
+
+    /**
+     * Tests that the specs of a source directory inside the lock directory are only found once.
+     */
+    @Test
+    public void testSourceDirectoryInsideLockDirectory() throws Exception {
+        Path lockDir = Files.createTempDirectory("openapi");
+        try {
+            Path sourceDir = Files.createDirectories(lockDir.resolve("specs"));
+            Files.copy(getTestFile(testDir + "testSpecs/init.yml").toPath(), sourceDir.resolve("test.yml"));
+            Files.createDirectories(sourceDir.resolve("v1"));
+            Files.copy(getTestFile(testDir + "testSpecs/init.yml").toPath(), sourceDir.resolve("v1/test.yml"));
+            Files.copy(getTestFile(testDir + "testSpecs/init.yml").toPath(), lockDir.resolve("test.lock"));
+
+            Map<String, AbstractCompatibilityCheckMojo.OpenApiGroup> groups =
+                    AbstractCompatibilityCheckMojo.loadOpenApiGroups(sourceDir, lockDir);
+
+            assertEquals(List.of("test", "v1/test"), List.copyOf(groups.keySet()));
+            assertEquals(sourceDir.resolve("test.yml"), groups.get("test").specPath);
+            assertEquals(lockDir.resolve("test.lock"), groups.get("test").lockPath);
+            assertEquals(lockDir.resolve("v1/test.lock"), groups.get("v1/test").lockPath);
+        } finally {
+            FileUtils.deleteDirectory(lockDir.toFile());
+        }
+    }
+
+    /**
+     * Tests that JSON specs are discovered in subdirectories, and are checked against the .lock
+     * file having the same relative path.
+     */
+    @Test
+    public void testNestedJsonSpec() throws Exception {
+        writeTestFile("init.json", "nested/test.json");
+        myMojo.execute();
+        assertTrue(getTestFile(testDir + "openapi/nested/test.lock").exists());
+
+        writeTestFile("bad.json", "nested/test.json");
+        try {
+            myMojo.execute();
+            fail();
+        } catch (MojoFailureException ex) {
+            assertEquals("Backwards compatibility check failed for group nested/test", ex.getMessage());
+        }
+    }
+
+    /**
+     * Tests that the specs are checked against the latest released artifact of the project,
+     * read from the local repository, and that the parsed baseline is cached.
+     */
+    @Test
+    public void testBaselineArtifact() throws Exception {
+        Path repository = Files.createTempDirectory("repository");
+        Path cacheDir = repository.resolve(".cache");
+        try {
+            Path jarPath = BaselineArtifact.locate(repository, "io.kemtoa.test", "api", "1.0.0", "openapi");
+            Files.createDirectories(jarPath.getParent());
+            try (FileSystem jar = FileSystems.newFileSystem(URI.create("jar:" + jarPath.toUri()), Map.of("create", "true"))) {
+                Files.copy(getTestFile(testDir + "testSpecs/init.yml").toPath(), jar.getPath("/test.yml"));
+            }
+
+            setVariableValueToObject(myMojo, "baselineVersion", "latest");
+            setVariableValueToObject(myMojo, "baselineClassifier", "openapi");
+            setVariableValueToObject(myMojo, "baselineCacheDir", cacheDir.toFile());
+            setVariableValueToObject(myMojo, "localRepository", repository.toFile());
+            setVariableValueToObject(myMojo, "projectGroupId", "io.kemtoa.test");
+            setVariableValueToObject(myMojo, "projectArtifactId", "api");
+            setVariableValueToObject(myMojo, "projectVersion", "1.1.0-SNAPSHOT");
+
+            writeTestFile("bad.yml");
+            runMojo(true);
+            assertFalse(getTestFile(testDir + "openapi/test.lock").exists());
+            try (Stream<Path> cached = Files.list(cacheDir)) {
+                assertEquals(1, cached.count());
+            }
+
+            writeTestFile("good.yml");
+            runMojo(false);
+        } finally {
+            FileUtils.deleteDirectory(repository.toFile());
+        }
+    }
+
+    /**
+     * Tests that the findings are written to the configured reports.
+     */
+    @Test
+    public void testReports() throws Exception {
+        Path reportDirectory = Files.createTempDirectory("reports");
+        try {
+            setVariableValueToObject(myMojo, "reportFormats", List.of("jsonl", "sarif"));
+            setVariableValueToObject(myMojo, "reportDirectory", reportDirectory.toFile());
+
+            writeTestFile("init.yml");
+            myMojo.execute();
+            writeTestFile("bad.yml");
+            runMojo(true);
+
+            List<String> records = Files.readAllLines(reportDirectory.resolve("openapi-compat.jsonl"));
+            assertTrue(records.size() > 1);
+            assertTrue(records.get(0).contains("\"type\":\"finding\""));
+            assertTrue(records.get(records.size() - 1).contains("\"compatible\":false"));
+            assertTrue(Files.exists(reportDirectory.resolve("openapi-compat.sarif")));
+        } finally {
+            FileUtils.deleteDirectory(reportDirectory.toFile());
+        }
+    }
+
+    /**
+     * Tests that the rules are configured from the POM.
+     */
+    @Test
+    public void testRuleConfiguration() throws Exception {
+        File pom = getTestFile(testDir + "project-with-rules/pom.xml");
+        BackwardsCompatibilityCheckMojo mojo = (BackwardsCompatibilityCheckMojo) lookupMojo("backwards-compatibility-check", pom);
+
+        RuleSet ruleSet = mojo.createChecker().getRuleSet();
+        assertFalse(ruleSet.getRuleIds().contains("RemovedOperationRule"));
+        assertTrue(ruleSet.getRuleIds().contains("PropertyTypeChangedRule"));
+
+        Map<String, Duration> budgets = ruleSet.getTimings().stream()
+                .collect(Collectors.toMap(RuleTiming::getRuleId, RuleTiming::getBudget));
+        assertEquals(Duration.ofSeconds(1), budgets.get("PropertyTypeChangedRule"));
+        assertEquals(Duration.ofMinutes(1), budgets.get("ParameterLocationChangedRule"));
+    }
+
+    /**
+     * Tests that the .lock file is not updated when rules were disabled for going over their budget.
+     */
+    @Test
+    public void testRulesOverBudgetDoNotUpdateLockFile() throws Exception {
+        writeTestFile("init.yml");
+        myMojo.execute();
+        File lockFile = getTestFile(testDir + "openapi/test.lock");
+        byte[] lockContent = Files.readAllBytes(lockFile.toPath());
+
+        // Every rule goes over its budget on its first call
+        RuleSet ruleSet = RuleSet.builder().budget(Duration.ofNanos(1)).disableOverBudget(true).build();
+        BackwardsCompatibilityCheckMojo mojo = new BackwardsCompatibilityCheckMojo() {
+            @Override
+            protected CompatibilityChecker createChecker() {
+                return new CompatibilityChecker(false, false, 1, ruleSet);
+            }
+        };
+        configureMojo(mojo, "openapi-backwards-compat-maven-plugin", getTestFile(testDir + "project-to-test/pom.xml"));
+
+        writeTestFile("good.yml");
+        mojo.execute();
+        assertTrue(Arrays.equals(lockContent, Files.readAllBytes(lockFile.toPath())));
+        assertTrue(ruleSet.getTimings().stream().allMatch(RuleTiming::isDisabled));
+
+        CheckResult result = new CompatibilityChecker(false, false, 1, ruleSet).check(
+                getTestFile(testDir + "testSpecs/init.yml").toPath(), getTestFile(testDir + "testSpecs/good.yml").toPath());
+        assertEquals(ruleSet.getRuleIds(), result.getSkippedRules());
+    }
+
     private void setupMojo() throws Exception {
         File pom = getTestFile(testDir + "project-to-test/pom.xml");
         assertNotNull(pom);
@@ -117,7 +332,11 @@ public class BackwardsCompatibilityCheckMojoTest extends AbstractMojoTestCase {
     }
 
     private void writeTestFile(String filename) throws Exception {
-        File testFile = getTestFile(testDir + "openapi/test.yml");
+        writeTestFile(filename, "test.yml");
+    }
+
+    private void writeTestFile(String filename, String destination) throws Exception {
+        File testFile = getTestFile(testDir + "openapi/" + destination);
         if (testFile.exists()) {
             testFile.delete();
         }
@@ -0,0 +1,64 @@
+package io.kemtoa.openapi.compat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Set;
+
+import io.kemtoa.openapi.compat.model.ApiDocument;
+import io.kemtoa.openapi.compat.model.ApiModelBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the specs read from a released artifact.
+ */
+public class BaselineArtifactTest {
+
+    private static final Path SPECS = Paths.get("src/test/resources/specs");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that the references to other files of the jar are resolved, with the references
+     * resolved by the parser or by the model builder, and once the baseline is cached.
+     */
+    @Test
+    public void testExternalRefs() throws Exception {
+        Path jarPath = folder.getRoot().toPath().resolve("api-1.0.0-openapi.jar");
+        try (FileSystem jar = FileSystems.newFileSystem(URI.create("jar:" + jarPath.toUri()), Map.of("create", "true"))) {
+            Files.createDirectories(jar.getPath("/v1"));
+            Files.copy(SPECS.resolve("components.yml"), jar.getPath("/v1/api.yml"));
+            Files.copy(SPECS.resolve("components-common.yml"), jar.getPath("/v1/components-common.yml"));
+        }
+
+        for (boolean lazyRefResolution : new boolean[]{false, true}) {
+            CompatibilityChecker checker = new CompatibilityChecker(lazyRefResolution);
+            Path cacheDirectory = folder.newFolder().toPath();
+
+            for (int i = 0; i < 2; i++) {
+                ApiModelBuilder builder = new ApiModelBuilder();
+                Map<String, ApiDocument> baseline = new BaselineArtifact(jarPath).load(checker, builder, cacheDirectory);
+
+                // The file of the schemas is not an OpenAPI document, it is not a group
+                assertEquals(Set.of("v1/api"), baseline.keySet());
+
+                ApiDocument unchanged = checker.readDocument(builder, SPECS.resolve("components.yml"));
+                assertTrue(checker.check(baseline.get("v1/api"), unchanged).isCompatible());
+
+                ApiDocument changed = checker.readDocument(builder, SPECS.resolve("components-changed.yml"));
+                assertFalse(checker.check(baseline.get("v1/api"), changed).isCompatible());
+            }
+        }
+    }
+}
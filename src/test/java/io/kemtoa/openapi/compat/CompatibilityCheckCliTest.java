@@ -0,0 +1,95 @@
+package io.kemtoa.openapi.compat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the batch command line entry point.
+ */
+public class CompatibilityCheckCliTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that one record is written per manifest line, in order, and that
+     * the exit status reports incompatible changes.
+     */
+    @Test
+    public void testManifest() throws Exception {
+        String specs = new File("src/test/resources/specs").getAbsolutePath();
+        File manifest = folder.newFile("manifest.txt");
+        Files.write(manifest.toPath(), Arrays.asList(
+                "# old new",
+                specs + "/petstore.yml " + specs + "/petstore.yml",
+                "",
+                specs + "/petstore.yml\t" + specs + "/petstore-removed-operation.yml"
+        ), StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int exitCode = CompatibilityCheckCli.run(new String[]{"--threads", "2", manifest.getPath()},
+                new PrintStream(out), System.err);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertEquals(1, exitCode);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0], lines[0].contains("\"compatible\":true"));
+        assertTrue(lines[1], lines[1].contains("petstore-removed-operation.yml"));
+        assertTrue(lines[1], lines[1].contains("\"compatible\":false"));
+    }
+
+    /**
+     * Tests that a missing spec is reported without stopping the other checks.
+     */
+    @Test
+    public void testMissingSpec() throws Exception {
+        String specs = new File("src/test/resources/specs").getAbsolutePath();
+        File manifest = folder.newFile("manifest.txt");
+        Files.write(manifest.toPath(), Arrays.asList(
+                "missing.yml " + specs + "/petstore.yml",
+                specs + "/petstore.yml " + specs + "/petstore.yml"
+        ), StandardCharsets.UTF_8);
+
+        File output = new File(folder.getRoot(), "results.jsonl");
+        int exitCode = CompatibilityCheckCli.run(new String[]{"--output", output.getPath(), manifest.getPath()},
+                System.out, System.err);
+
+        String[] lines = new String(Files.readAllBytes(output.toPath()), StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, exitCode);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0], lines[0].contains("\"failure\""));
+        assertTrue(lines[1], lines[1].contains("\"compatible\":true"));
+    }
+
+    /**
+     * Tests that the usage is reported when no manifest is given.
+     */
+    @Test
+    public void testUsage() throws Exception {
+        assertEquals("A manifest is required", runInvalid());
+        assertEquals("The value of --threads must be a positive number: 0", runInvalid("--threads", "0", "manifest.txt"));
+        assertEquals("The value of --rule-threads must be a positive number: two", runInvalid("--rule-threads", "two", "manifest.txt"));
+        assertEquals("Missing value for --output", runInvalid("manifest.txt", "--output"));
+        assertEquals("Unexpected argument: --unknown", runInvalid("--unknown", "manifest.txt"));
+    }
+
+    /**
+     * @return the first line of the error output
+     */
+    private static String runInvalid(String... args) throws Exception {
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        assertEquals(2, CompatibilityCheckCli.run(args, System.out, new PrintStream(err)));
+        return err.toString(StandardCharsets.UTF_8.name()).split("\n")[0];
+    }
+}
@@ -0,0 +1,116 @@
+package io.kemtoa.openapi.compat;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the coordinated updates of the .lock files.
+ */
+public class LockFilesTest {
+
+    private static final int THREADS = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that the executions updating the same group hold its lock one at a time.
+     */
+    @Test(timeout = 30_000)
+    public void testConcurrentUpdates() throws Exception {
+        Path lockPath = folder.getRoot().toPath().resolve("openapi/api.lock");
+        List<Path> specPaths = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Path specPath = folder.newFile("api-" + i + ".yml").toPath();
+            Files.write(specPath, ("openapi: 3.0.0 # " + i).getBytes(StandardCharsets.UTF_8));
+            specPaths.add(specPath);
+        }
+
+        AtomicInteger holders = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Boolean>> updates = new ArrayList<>();
+            for (Path specPath : specPaths) {
+                updates.add(executor.submit(() -> {
+                    start.await();
+                    return LockFiles.withLock(lockPath, () -> {
+                        if (holders.incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        try {
+                            Thread.sleep(20);
+                            boolean updated = LockFiles.update(specPath, lockPath);
+                            // Nobody else may have replaced the .lock file while the lock was held
+                            assertArrayEquals(Files.readAllBytes(specPath), Files.readAllBytes(lockPath));
+                            return updated;
+                        } finally {
+                            holders.decrementAndGet();
+                        }
+                    });
+                }));
+            }
+            start.countDown();
+
+            for (Future<Boolean> update : updates) {
+                assertTrue(update.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, overlaps.get());
+        assertEquals(0, LockFiles.lockedFileCount());
+        assertTrue(specPaths.stream().anyMatch(specPath -> contentEquals(specPath, lockPath)));
+
+        // Only the sidecar shared by the processes is left next to the .lock file, no temporary file
+        try (Stream<Path> files = Files.list(lockPath.getParent())) {
+            assertEquals(Set.of(".api.lock.lck", "api.lock"), files.map(file -> file.getFileName().toString()).collect(Collectors.toSet()));
+        }
+    }
+
+    /**
+     * Tests that an unchanged .lock file is not rewritten.
+     */
+    @Test
+    public void testUnchangedLockFileNotWritten() throws Exception {
+        Path specPath = folder.newFile("api.yml").toPath();
+        Files.write(specPath, "openapi: 3.0.0".getBytes(StandardCharsets.UTF_8));
+        Path lockPath = folder.getRoot().toPath().resolve("api.lock");
+
+        assertTrue(LockFiles.withLock(lockPath, () -> LockFiles.update(specPath, lockPath)));
+        assertFalse(LockFiles.withLock(lockPath, () -> LockFiles.update(specPath, lockPath)));
+        assertEquals(0, LockFiles.lockedFileCount());
+    }
+
+    private static boolean contentEquals(Path left, Path right) {
+        try {
+            return Arrays.equals(Files.readAllBytes(left), Files.readAllBytes(right));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package io.kemtoa.openapi.compat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import io.swagger.v3.parser.core.models.ParseOptions;
+import io.swagger.v3.parser.core.models.SwaggerParseResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the cache of the parsed specs shared by the executions in the JVM.
+ */
+public class ParsedSpecCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger parses = new AtomicInteger();
+
+    @Before
+    @After
+    public void reset() {
+        ParsedSpecCache.clear();
+        ParsedSpecCache.setMaxEntries(ParsedSpecCache.DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Tests that an unchanged file is only parsed once, and parsed again once its content changes.
+     */
+    @Test
+    public void testParsedUntilChanged() throws Exception {
+        Path spec = copy("uber.yml", "api.yml.lock");
+
+        SwaggerParseResult first = ParsedSpecCache.get(spec, true, this::parse);
+        assertSame(first, ParsedSpecCache.get(spec, true, this::parse));
+        assertSame(first, ParsedSpecCache.get(folder.getRoot().toPath().resolve("./api.yml.lock"), true, this::parse));
+        assertEquals(1, parses.get());
+
+        // Parsed without resolving the references, the model is not the same
+        ParsedSpecCache.get(spec, false, this::parse);
+        assertEquals(2, parses.get());
+
+        Files.write(spec, Files.readAllBytes(Paths.get("src/test/resources/specs/uber-type-changed.yml")));
+        SwaggerParseResult changed = ParsedSpecCache.get(spec, true, this::parse);
+        assertNotSame(first, changed);
+        assertEquals(3, parses.get());
+    }
+
+    /**
+     * Tests that the least recently used specs are evicted beyond the size limit.
+     */
+    @Test
+    public void testSizeLimit() throws Exception {
+        Path uber = copy("uber.yml", "uber.yml.lock");
+        Path petstore = copy("petstore.yml", "petstore.yml.lock");
+
+        ParsedSpecCache.setMaxEntries(1);
+        ParsedSpecCache.get(uber, true, this::parse);
+        ParsedSpecCache.get(petstore, true, this::parse);
+        assertEquals(1, ParsedSpecCache.size());
+
+        ParsedSpecCache.get(petstore, true, this::parse);
+        assertEquals(2, parses.get());
+        ParsedSpecCache.get(uber, true, this::parse);
+        assertEquals(3, parses.get());
+
+        ParsedSpecCache.setMaxEntries(0);
+        assertEquals(0, ParsedSpecCache.size());
+        ParsedSpecCache.get(uber, true, this::parse);
+        assertEquals(4, parses.get());
+    }
+
+    /**
+     * Tests that specs that could not be parsed are not cached.
+     */
+    @Test
+    public void testInvalidSpecNotCached() throws Exception {
+        Path spec = folder.newFile("invalid.yml.lock").toPath();
+        Files.write(spec, "not: [an, openapi, spec".getBytes(StandardCharsets.UTF_8));
+
+        ParsedSpecCache.get(spec, true, this::parse);
+        ParsedSpecCache.get(spec, true, this::parse);
+        assertEquals(2, parses.get());
+        assertEquals(0, ParsedSpecCache.size());
+    }
+
+    /**
+     * Tests that the specs referring to other files are not cached when their references are resolved.
+     */
+    @Test
+    public void testExternalRefsNotCachedWhenResolved() throws Exception {
+        Path spec = copy("components.yml", "components.yml.lock");
+        copy("components-common.yml", "components-common.yml");
+
+        ParsedSpecCache.get(spec, true, this::parse);
+        ParsedSpecCache.get(spec, true, this::parse);
+        assertEquals(2, parses.get());
+        assertEquals(0, ParsedSpecCache.size());
+
+        // The references are resolved when the model is converted, the referenced files are read again then
+        ParsedSpecCache.get(spec, false, this::parse);
+        ParsedSpecCache.get(spec, false, this::parse);
+        assertEquals(3, parses.get());
+        assertEquals(1, ParsedSpecCache.size());
+    }
+
+    private Path copy(String name, String target) throws Exception {
+        Path path = folder.getRoot().toPath().resolve(target);
+        Files.copy(Paths.get("src/test/resources/specs", name), path);
+        return path;
+    }
+
+    private SwaggerParseResult parse(Path spec) {
+        parses.incrementAndGet();
+        ParseOptions options = new ParseOptions();
+        options.setResolve(true);
+        return new OpenAPIV3Parser().readLocation(spec.toString(), null, options);
+    }
+}
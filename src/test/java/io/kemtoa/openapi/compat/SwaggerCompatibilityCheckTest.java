@@ -4,13 +4,16 @@ import static org.hamcrest.CoreMatchers.hasItem;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
+import java.net.URISyntaxException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
+import io.kemtoa.openapi.compat.model.RefResolver;
 import io.kemtoa.openapi.compat.walker.OpenApiDiffWalker;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.parser.OpenAPIV3Parser;
+import io.swagger.v3.parser.core.models.ParseOptions;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
@@ -65,6 +68,11 @@ public class SwaggerCompatibilityCheckTest {
                         "Path /pet, Operation POST : The operation was removed in the new spec.",
                         "Path /user/createWithList : The path was removed in the new spec."
                 ),
+                new TestCase("specs/petstore.yml", "specs/petstore-renamed-path-parameter.yml"),
+                new TestCase("specs/petstore-renamed-path-parameter.yml", "specs/petstore-removed-operation.yml",
+                        "Path /pet, Operation POST : The operation was removed in the new spec.",
+                        "Path /user/createWithList : The path was removed in the new spec."
+                ),
                 new TestCase("specs/recursive.yml", "specs/recursive.yml"),
                 new TestCase("specs/uber.yml", "specs/uber.yml"),
                 new TestCase("specs/uber.yml", "specs/uber-removed-property.yml",
@@ -79,6 +87,12 @@ public class SwaggerCompatibilityCheckTest {
                 ),
                 new TestCase("specs/uber.yml", "specs/uber-added-enum-value.yml",
                         "Path /me, Operation GET, Response 200, MediaType application/json, Property status : The enum value 'IN_BETWEEN' has been added in the new spec."
+                ),
+                new TestCase("specs/components.yml", "specs/components.yml"),
+                new TestCase("specs/components.yml", "specs/components-changed.yml",
+                        "Path /items/{itemId}, Operation GET, Parameter verbose : The location of parameter 'verbose' has changed in the new spec: 'header' previously was 'query'.",
+                        "Path /items/{itemId}, Operation GET, Response 200, MediaType application/json, Property status : The enum value 'ARCHIVED' has been added in the new spec.",
+                        "Path /items/{itemId}, Operation PUT, RequestBody, MediaType application/json, Property status : The enum value 'DONE' has been removed in the new spec."
                 )
         );
     }
@@ -91,7 +105,34 @@ public class SwaggerCompatibilityCheckTest {
         OpenAPI openApiLeft = new OpenAPIV3Parser().read(testCase.oldPath);
         OpenAPI openApiRight = new OpenAPIV3Parser().read(testCase.newPath);
 
-        CompositeRule rules = new CompositeRule(
+        CompositeRule rules = createRules();
+
+        OpenApiDiffWalker walker = new OpenApiDiffWalker();
+        walker.walk(rules, openApiLeft, openApiRight);
+
+        assertErrors(rules);
+    }
+
+    @Test
+    public void testLazyRefResolution() throws URISyntaxException {
+        ParseOptions parseOptions = new ParseOptions();
+        parseOptions.setResolve(false);
+
+        OpenAPI openApiLeft = new OpenAPIV3Parser().read(testCase.oldPath, null, parseOptions);
+        OpenAPI openApiRight = new OpenAPIV3Parser().read(testCase.newPath, null, parseOptions);
+
+        CompositeRule rules = createRules();
+
+        OpenApiDiffWalker walker = new OpenApiDiffWalker();
+        walker.walk(rules,
+                new RefResolver(openApiLeft, getClass().getClassLoader().getResource(testCase.oldPath).toURI()),
+                new RefResolver(openApiRight, getClass().getClassLoader().getResource(testCase.newPath).toURI()));
+
+        assertErrors(rules);
+    }
+
+    private CompositeRule createRules() {
+        return new CompositeRule(
                 new PropertyRemovedInResponseRule(),
                 new PropertyTypeChangedRule(),
                 new RemovedEnumValueInRequestRule(),
@@ -100,10 +141,9 @@ public class SwaggerCompatibilityCheckTest {
                 new ParameterLocationChangedRule(),
                 new RemovedOperationRule()
         );
+    }
 
-        OpenApiDiffWalker walker = new OpenApiDiffWalker();
-        walker.walk(rules, openApiLeft, openApiRight);
-
+    private void assertErrors(CompositeRule rules) {
         assertEquals(testCase.errors.size(), rules.getErrors().size());
 
         for (String error : testCase.errors) {
@@ -0,0 +1,146 @@
+package io.kemtoa.openapi.compat.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.kemtoa.openapi.compat.walker.OpenApiDiffVisitor;
+import io.kemtoa.openapi.compat.walker.OpenApiDiffWalker;
+import io.kemtoa.openapi.compat.walker.OperationFilter;
+
+import io.swagger.v3.oas.models.PathItem.HttpMethod;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ApiDocumentCodecTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        ApiModelBuilder builder = new ApiModelBuilder();
+        Map<String, ApiDocument> documents = new LinkedHashMap<>();
+        documents.put("uber", builder.build(new OpenAPIV3Parser().read("specs/uber.yml")));
+        documents.put("petstore", builder.build(new OpenAPIV3Parser().read("specs/petstore.yml")));
+
+        Map<String, ApiDocument> decoded = roundTrip(documents, new ApiModelBuilder());
+
+        assertEquals(documents.keySet(), decoded.keySet());
+        for (String name : documents.keySet()) {
+            ApiDocument document = documents.get(name);
+            ApiDocument decodedDocument = decoded.get(name);
+            assertEquals(document.getSchemas(), decodedDocument.getSchemas());
+            assertEquals(document.getPaths().keySet(), decodedDocument.getPaths().keySet());
+        }
+
+        ApiOperation operation = documents.get("petstore").getPaths().get("/pet").getOperation(HttpMethod.PUT);
+        ApiOperation decodedOperation = decoded.get("petstore").getPaths().get("/pet").getOperation(HttpMethod.PUT);
+        assertEquals(operation.getTags(), decodedOperation.getTags());
+        assertEquals(operation.getResponses().keySet(), decodedOperation.getResponses().keySet());
+        assertEquals(operation.getRequestBody().getContent().get("*/*").getSchema(),
+                decodedOperation.getRequestBody().getContent().get("*/*").getSchema());
+
+        ApiOperation parameterOperation = decoded.get("petstore").getPaths().get("/pet/findByStatus").getOperation(HttpMethod.GET);
+        assertEquals("status", parameterOperation.getParameters().get(0).getName());
+        assertEquals("query", parameterOperation.getParameters().get(0).getIn());
+    }
+
+    @Test
+    public void testDecodedSchemasAreShared() throws IOException {
+        ApiModelBuilder builder = new ApiModelBuilder();
+        Map<String, ApiDocument> documents = new LinkedHashMap<>();
+        documents.put("uber", builder.build(new OpenAPIV3Parser().read("specs/uber.yml")));
+
+        ApiDocument right = builder.build(new OpenAPIV3Parser().read("specs/uber-type-changed.yml"));
+        ApiDocument left = roundTrip(documents, builder).get("uber");
+
+        assertSame(left.getSchemas().get("#/components/schemas/Product"), right.getSchemas().get("#/components/schemas/Product"));
+    }
+
+    @Test
+    public void testMappedEntriesAreDecodedOnAccess() throws IOException {
+        ApiModelBuilder builder = new ApiModelBuilder();
+        Map<String, ApiDocument> documents = new LinkedHashMap<>();
+        documents.put("uber", builder.build(new OpenAPIV3Parser().read("specs/uber.yml")));
+
+        Path file = folder.newFile("uber.bin").toPath();
+        try (OutputStream out = Files.newOutputStream(file)) {
+            ApiDocumentCodec.write(out, documents);
+        }
+
+        ApiDocument document = ApiDocumentCodec.map(file, new ApiModelBuilder()).get("uber");
+        LazyEntryMap<?> paths = (LazyEntryMap<?>) document.getPaths();
+        LazyEntryMap<?> schemas = (LazyEntryMap<?>) document.getSchemas();
+        assertEquals(documents.get("uber").getPaths().keySet(), paths.keySet());
+        assertEquals(0, paths.decodedCount());
+        assertEquals(0, schemas.decodedCount());
+
+        ApiOperation operation = document.getPaths().get("/products").getOperation(HttpMethod.GET);
+        assertEquals(1, paths.decodedCount());
+        assertEquals(0, schemas.decodedCount());
+
+        ApiSchema items = operation.getResponses().get("200").getContent().get("application/json").getSchema().getItems();
+        assertEquals(documents.get("uber").getSchemas().get("#/components/schemas/Product"), document.resolveSchema(items));
+        assertEquals(1, schemas.decodedCount());
+    }
+
+    @Test
+    public void testFilteredPathsAreNotDecoded() throws IOException {
+        ApiModelBuilder builder = new ApiModelBuilder();
+        Map<String, ApiDocument> documents = new LinkedHashMap<>();
+        documents.put("uber", builder.build(new OpenAPIV3Parser().read("specs/uber.yml")));
+
+        Path file = folder.newFile("uber.bin").toPath();
+        try (OutputStream out = Files.newOutputStream(file)) {
+            ApiDocumentCodec.write(out, documents);
+        }
+
+        ApiDocument left = ApiDocumentCodec.map(file, new ApiModelBuilder()).get("uber");
+        ApiDocument right = ApiDocumentCodec.map(file, new ApiModelBuilder()).get("uber");
+
+        OpenApiDiffWalker walker = new OpenApiDiffWalker();
+        walker.setOperationFilter(OperationFilter.builder().includePaths(List.of("/me")).build());
+        walker.walk(new OpenApiDiffVisitor() {}, left, right);
+        assertEquals(1, ((LazyEntryMap<?>) left.getPaths()).decodedCount());
+        assertEquals(1, ((LazyEntryMap<?>) right.getPaths()).decodedCount());
+
+        ApiDocument consumedLeft = ApiDocumentCodec.map(file, new ApiModelBuilder()).get("uber");
+        walker.setOperationFilter(OperationFilter.builder().consumedOperation(HttpMethod.GET, "/history").build());
+        walker.walk(new OpenApiDiffVisitor() {}, consumedLeft, right);
+        assertEquals(1, ((LazyEntryMap<?>) consumedLeft.getPaths()).decodedCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedFile() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ApiDocumentCodec.write(out, Map.of("uber", new ApiModelBuilder().build(new OpenAPIV3Parser().read("specs/uber.yml"))));
+
+        Path file = folder.newFile("truncated.bin").toPath();
+        byte[] bytes = out.toByteArray();
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+        ApiDocumentCodec.map(file, new ApiModelBuilder());
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidHeader() throws IOException {
+        ApiDocumentCodec.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}), new ApiModelBuilder());
+    }
+
+    private static Map<String, ApiDocument> roundTrip(Map<String, ApiDocument> documents, ApiModelBuilder builder) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ApiDocumentCodec.write(out, documents);
+        return ApiDocumentCodec.read(new ByteArrayInputStream(out.toByteArray()), builder);
+    }
+}
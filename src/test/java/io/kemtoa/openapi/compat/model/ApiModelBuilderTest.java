@@ -0,0 +1,76 @@
+package io.kemtoa.openapi.compat.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import io.swagger.v3.oas.models.PathItem.HttpMethod;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import org.junit.Test;
+
+public class ApiModelBuilderTest {
+
+    @Test
+    public void testPathsAreSorted() {
+        ApiDocument document = new ApiModelBuilder().build(new OpenAPIV3Parser().read("specs/uber.yml"));
+
+        assertEquals(
+                Arrays.asList("/estimates/price", "/estimates/time", "/history", "/me", "/products"),
+                new ArrayList<>(document.getPaths().keySet()));
+    }
+
+    @Test
+    public void testUnchangedSchemasAreShared() {
+        ApiModelBuilder builder = new ApiModelBuilder();
+        ApiDocument left = builder.build(new OpenAPIV3Parser().read("specs/uber.yml"));
+        ApiDocument right = builder.build(new OpenAPIV3Parser().read("specs/uber-type-changed.yml"));
+
+        assertSame(left.getSchemas().get("#/components/schemas/Product"), right.getSchemas().get("#/components/schemas/Product"));
+        assertNotSame(left.getSchemas().get("#/components/schemas/Profile"), right.getSchemas().get("#/components/schemas/Profile"));
+    }
+
+    @Test
+    public void testReferencesArePreResolved() {
+        ApiDocument document = new ApiModelBuilder().build(new OpenAPIV3Parser().read("specs/components.yml"));
+
+        ApiOperation operation = document.getPaths().get("/items/{itemId}").getOperation(HttpMethod.GET);
+        assertEquals("verbose", operation.getParameters().get(1).getName());
+        assertEquals("query", operation.getParameters().get(1).getIn());
+
+        ApiSchema schema = operation.getResponses().get("200").getContent().get("application/json").getSchema();
+        ApiSchema resolved = document.resolveSchema(schema);
+        assertNotNull(resolved);
+        assertTrue(resolved.isRequired("name"));
+        assertEquals(Arrays.asList("name", "status"), new ArrayList<>(resolved.getProperties().keySet()));
+    }
+
+    @Test
+    public void testByteEnumValuesAreComparable() {
+        String spec = "openapi: 3.0.1\n"
+                + "info: {title: Bytes, version: 1.0.0}\n"
+                + "paths:\n"
+                + "  /data:\n"
+                + "    get:\n"
+                + "      responses:\n"
+                + "        '200':\n"
+                + "          description: OK\n"
+                + "          content: {text/plain: {schema: {type: string, format: byte, enum: [aGVsbG8=]}}}\n";
+
+        ApiModelBuilder builder = new ApiModelBuilder();
+        ApiSchema left = responseSchema(builder.build(new OpenAPIV3Parser().readContents(spec).getOpenAPI()));
+        ApiSchema right = responseSchema(builder.build(new OpenAPIV3Parser().readContents(spec).getOpenAPI()));
+
+        assertEquals(Arrays.asList("aGVsbG8="), left.getEnum());
+        assertSame(left, right);
+    }
+
+    private static ApiSchema responseSchema(ApiDocument document) {
+        return document.getPaths().get("/data").getOperation(HttpMethod.GET).getResponses().get("200")
+                .getContent().get("text/plain").getSchema();
+    }
+}
@@ -0,0 +1,90 @@
+package io.kemtoa.openapi.compat.report;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.kemtoa.openapi.compat.rules.Finding;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+public class ReportsTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private Path directory;
+    private Path spec;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("reports");
+        spec = directory.resolve("src/main/openapi/pets.yml");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    @Test
+    public void testAllFormats() throws Exception {
+        Finding finding = new Finding("ParameterLocationChangedRule", List.of("Path /pets", "Operation GET", "Parameter limit"),
+                "The location of the parameter changed", "query", "header");
+
+        try (Reports reports = Reports.open(List.of("sarif", "junit", "jsonl"), directory.resolve("target"), "compat", directory)) {
+            reports.finding("pets", spec, finding);
+            reports.groupChecked("pets", spec, 1);
+            reports.groupChecked("store", directory.resolve("src/main/openapi/store.yml"), 0);
+        }
+
+        JsonNode sarif = mapper.readTree(directory.resolve("target/compat.sarif").toFile());
+        assertEquals("2.1.0", sarif.get("version").asText());
+        JsonNode result = sarif.get("runs").get(0).get("results").get(0);
+        assertEquals("ParameterLocationChangedRule", result.get("ruleId").asText());
+        assertEquals("The location of the parameter changed", result.get("message").get("text").asText());
+        assertEquals("src/main/openapi/pets.yml",
+                result.get("locations").get(0).get("physicalLocation").get("artifactLocation").get("uri").asText());
+        assertEquals("header", result.get("properties").get("right").asText());
+        assertEquals(1, sarif.get("runs").get(0).get("results").size());
+
+        Document junit = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(directory.resolve("target/TEST-compat.xml").toFile());
+        assertEquals(2, junit.getElementsByTagName("testcase").getLength());
+        assertEquals(1, junit.getElementsByTagName("failure").getLength());
+        Element failedCase = (Element) junit.getElementsByTagName("testcase").item(0);
+        assertEquals("pets.ParameterLocationChangedRule", failedCase.getAttribute("classname"));
+
+        List<String> lines = Files.readAllLines(directory.resolve("target/compat.jsonl"));
+        assertEquals(3, lines.size());
+        JsonNode record = mapper.readTree(lines.get(0));
+        assertEquals("finding", record.get("type").asText());
+        assertEquals("query", record.get("left").asText());
+        assertEquals("Parameter limit", record.get("location").get(2).asText());
+        assertFalse(mapper.readTree(lines.get(1)).get("compatible").asBoolean());
+        assertTrue(mapper.readTree(lines.get(2)).get("compatible").asBoolean());
+    }
+
+    @Test
+    public void testNoFormat() throws IOException {
+        try (Reports reports = Reports.open(List.of(), directory.resolve("target"), "compat", directory)) {
+            assertTrue(reports.isEmpty());
+        }
+        assertFalse(Files.exists(directory.resolve("target")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedFormat() throws IOException {
+        Reports.open(List.of("html"), directory.resolve("target"), "compat", directory);
+    }
+}
@@ -0,0 +1,148 @@
+package io.kemtoa.openapi.compat.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.kemtoa.openapi.compat.model.ApiDocument;
+import io.kemtoa.openapi.compat.model.ApiModelBuilder;
+import io.kemtoa.openapi.compat.model.ApiPathItem;
+import io.kemtoa.openapi.compat.walker.OpenApiDiffWalker;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RuleSetTest {
+    private Path servicesRoot;
+    private URLClassLoader classLoader;
+
+    /**
+     * Custom rule spending 5 ms on each path
+     */
+    public static class SlowRule extends Rule {
+        private String message = "Slow";
+
+        @Override
+        public void configure(Map<String, String> properties) {
+            message = properties.getOrDefault("message", message);
+        }
+
+        @Override
+        public void acceptPath(String key, ApiPathItem left, ApiPathItem right) {
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(5);
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+            addError(message, key, null);
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        servicesRoot = Files.createTempDirectory("rules");
+        Path services = servicesRoot.resolve("META-INF/services/" + Rule.class.getName());
+        Files.createDirectories(services.getParent());
+        Files.write(services, List.of(SlowRule.class.getName()), StandardCharsets.UTF_8);
+        classLoader = new URLClassLoader(new URL[]{servicesRoot.toUri().toURL()}, getClass().getClassLoader());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        classLoader.close();
+        FileUtils.deleteDirectory(servicesRoot.toFile());
+    }
+
+    @Test
+    public void testBuiltInRules() {
+        assertEquals(List.of("AddedEnumValueInResponseRule", "AddedRequiredRequestParameterRule", "ParameterLocationChangedRule",
+                "PropertyRemovedInResponseRule", "PropertyTypeChangedRule", "RemovedEnumValueInRequestRule", "RemovedOperationRule"),
+                RuleSet.builder().build().getRuleIds());
+    }
+
+    @Test
+    public void testCustomRuleConfiguration() {
+        RuleConfiguration slowRule = new RuleConfiguration("SlowRule");
+        slowRule.setProperties(Map.of("message", "Configured"));
+        RuleConfiguration removedOperation = new RuleConfiguration("RemovedOperationRule");
+        removedOperation.setEnabled(false);
+
+        RuleSet ruleSet = RuleSet.builder()
+                .classLoader(classLoader)
+                .configure(List.of(slowRule, removedOperation))
+                .build();
+        assertEquals("SlowRule", ruleSet.getRuleIds().get(ruleSet.getRuleIds().size() - 1));
+        assertFalse(ruleSet.getRuleIds().contains("RemovedOperationRule"));
+
+        assertEquals(5, slowFindings(walk(ruleSet), "Configured"));
+    }
+
+    @Test
+    public void testDisableOverBudget() {
+        RuleSet ruleSet = RuleSet.builder()
+                .classLoader(classLoader)
+                .budget(Duration.ofMillis(1))
+                .disableOverBudget(true)
+                .build();
+
+        // The slow rule goes over its budget on the first path, and is not called for the others
+        assertEquals(1, slowFindings(walk(ruleSet), "Slow"));
+
+        RuleTiming timing = ruleSet.getTimings().stream()
+                .filter(t -> t.getRuleId().equals("SlowRule"))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(timing.isOverBudget());
+        assertTrue(timing.isDisabled());
+        assertFalse(ruleSet.getTimings().stream().anyMatch(t -> t.isDisabled() && !t.getRuleId().equals("SlowRule")));
+
+        assertEquals(0, slowFindings(walk(ruleSet), "Slow"));
+    }
+
+    @Test
+    public void testOverBudgetReportedOnly() {
+        RuleConfiguration slowRule = new RuleConfiguration("SlowRule");
+        slowRule.setBudget(1L);
+
+        RuleSet ruleSet = RuleSet.builder()
+                .classLoader(classLoader)
+                .configure(List.of(slowRule))
+                .build();
+        assertEquals(5, slowFindings(walk(ruleSet), "Slow"));
+
+        RuleTiming timing = ruleSet.getTimings().get(ruleSet.getTimings().size() - 1);
+        assertTrue(timing.isOverBudget());
+        assertFalse(timing.isDisabled());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownRule() {
+        RuleSet.builder().configure(List.of(new RuleConfiguration("UnknownRule"))).build();
+    }
+
+    private static long slowFindings(CompositeRule rules, String message) {
+        return rules.getErrors().stream().filter(error -> error.endsWith(" : " + message)).count();
+    }
+
+    private static CompositeRule walk(RuleSet ruleSet) {
+        ApiModelBuilder builder = new ApiModelBuilder();
+        ApiDocument left = builder.build(new OpenAPIV3Parser().read("specs/uber.yml"));
+        ApiDocument right = builder.build(new OpenAPIV3Parser().read("specs/uber-type-changed.yml"));
+
+        CompositeRule rules = ruleSet.createRules();
+        new OpenApiDiffWalker().walk(rules, left, right);
+        return rules;
+    }
+}
@@ -0,0 +1,90 @@
+package io.kemtoa.openapi.compat.walker;
+
+import static org.junit.Assert.assertEquals;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import io.kemtoa.openapi.compat.model.ApiDocument;
+import io.kemtoa.openapi.compat.model.ApiModelBuilder;
+import io.kemtoa.openapi.compat.rules.AddedEnumValueInResponseRule;
+import io.kemtoa.openapi.compat.rules.CompositeRule;
+import io.kemtoa.openapi.compat.rules.RemovedEnumValueInRequestRule;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.Paths;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.RequestBody;
+import io.swagger.v3.oas.models.responses.ApiResponse;
+import io.swagger.v3.oas.models.responses.ApiResponses;
+import org.junit.Test;
+
+/**
+ * Compares documents having enumerations with 20,000 values
+ *
+ * The timeouts only guard against the enumerations being compared value by
+ * value again, they are far above the time of a single walk.
+ */
+public class EnumDiffTest {
+
+    private static final int ENUM_SIZE = 20_000;
+
+    @Test(timeout = 30_000)
+    public void testLargeStringEnum() {
+        ApiModelBuilder builder = new ApiModelBuilder();
+        ApiDocument left = builder.build(createDocument(0, ENUM_SIZE, i -> "VALUE_" + i));
+        ApiDocument right = builder.build(createDocument(1, ENUM_SIZE + 1, i -> "VALUE_" + i));
+
+        List<String> errors = walk(left, right);
+
+        assertEquals(2, errors.size());
+        assertThat(errors, hasItem("Path /codes, Operation POST, RequestBody, MediaType application/json : The enum value 'VALUE_0' has been removed in the new spec."));
+        assertThat(errors, hasItem("Path /codes, Operation POST, Response 200, MediaType application/json : The enum value 'VALUE_20000' has been added in the new spec."));
+    }
+
+    @Test(timeout = 30_000)
+    public void testLargeNumericEnumWithMixedNumberTypes() {
+        ApiModelBuilder builder = new ApiModelBuilder();
+        ApiDocument left = builder.build(createDocument(0, ENUM_SIZE, i -> i));
+        ApiDocument right = builder.build(createDocument(0, ENUM_SIZE, i -> (long) i));
+
+        List<String> errors = walk(left, right);
+
+        assertEquals(0, errors.size());
+    }
+
+    private List<String> walk(ApiDocument left, ApiDocument right) {
+        CompositeRule rules = new CompositeRule(
+                new AddedEnumValueInResponseRule(),
+                new RemovedEnumValueInRequestRule()
+        );
+
+        new OpenApiDiffWalker().walk(rules, left, right);
+
+        return rules.getErrors();
+    }
+
+    private static OpenAPI createDocument(int from, int to, IntFunction<Object> valueFactory) {
+        List<Object> values = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            values.add(valueFactory.apply(i));
+        }
+
+        Schema schema = new Schema();
+        schema.setEnum(values);
+
+        Content content = new Content().addMediaType("application/json", new MediaType().schema(schema));
+
+        Operation operation = new Operation()
+                .requestBody(new RequestBody().content(content))
+                .responses(new ApiResponses().addApiResponse("200", new ApiResponse().content(content)));
+
+        return new OpenAPI().paths(new Paths().addPathItem("/codes", new PathItem().post(operation)));
+    }
+}
@@ -0,0 +1,181 @@
+package io.kemtoa.openapi.compat.walker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.kemtoa.openapi.compat.model.ApiDocument;
+import io.kemtoa.openapi.compat.model.ApiDocumentCodec;
+import io.kemtoa.openapi.compat.model.ApiMediaType;
+import io.kemtoa.openapi.compat.model.ApiModelBuilder;
+import io.kemtoa.openapi.compat.model.ApiOperation;
+import io.kemtoa.openapi.compat.model.ApiParameter;
+import io.kemtoa.openapi.compat.model.ApiPathItem;
+import io.kemtoa.openapi.compat.model.ApiRequestBody;
+import io.kemtoa.openapi.compat.model.ApiResponse;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.Paths;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.media.ObjectSchema;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.media.StringSchema;
+import io.swagger.v3.oas.models.responses.ApiResponses;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import org.junit.Test;
+
+public class IterativeWalkTest {
+
+    /**
+     * Records the callbacks of the walker along with their location
+     */
+    private static class RecordingVisitor implements OpenApiDiffVisitor {
+        private final List<String> calls = new ArrayList<>();
+        private Location location;
+
+        private void record(String call, Object left, Object right) {
+            calls.add(location.getFullLocation() + " " + location.isRequest() + " " + location.isResponse()
+                    + " " + call + " " + left + " " + right);
+        }
+
+        @Override
+        public void setLocation(Location location) {
+            this.location = location;
+        }
+
+        @Override
+        public void acceptPath(String key, ApiPathItem left, ApiPathItem right) {
+            record("path " + key, left != null, right != null);
+        }
+
+        @Override
+        public void acceptOperation(PathItem.HttpMethod operationKey, ApiOperation left, ApiOperation right) {
+            record("operation " + operationKey, left != null, right != null);
+        }
+
+        @Override
+        public void acceptParameter(ApiParameter left, ApiParameter right) {
+            record("parameter", left != null, right != null);
+        }
+
+        @Override
+        public void acceptRequestBody(ApiRequestBody left, ApiRequestBody right) {
+            record("requestBody", left != null, right != null);
+        }
+
+        @Override
+        public void acceptResponse(String key, ApiResponse left, ApiResponse right) {
+            record("response " + key, left != null, right != null);
+        }
+
+        @Override
+        public void acceptMediaType(String key, ApiMediaType left, ApiMediaType right) {
+            record("mediaType " + key, left != null, right != null);
+        }
+
+        @Override
+        public void acceptSchema(SchemaDiff schemas) {
+            record("schema", schemas.getLeft(), schemas.getRight());
+        }
+
+        @Override
+        public void acceptProperty(String key, SchemaDiff schemas) {
+            record("property " + key, schemas.getLeft(), schemas.getRight());
+        }
+
+        @Override
+        public <T> void acceptEnumValue(T left, T right) {
+            record("enumValue", left, right);
+        }
+    }
+
+    @Test
+    public void testSameCallbacks() {
+        String[][] pairs = {
+                {"specs/petstore.yml", "specs/petstore-removed-enum-value.yml"},
+                {"specs/uber.yml", "specs/uber-removed-property.yml"},
+                {"specs/uber.yml", "specs/uber-type-changed.yml"},
+                {"specs/recursive.yml", "specs/recursive.yml"},
+                {"specs/components.yml", "specs/components-changed.yml"},
+        };
+
+        for (String[] pair : pairs) {
+            OpenAPI left = new OpenAPIV3Parser().read(pair[0]);
+            OpenAPI right = new OpenAPIV3Parser().read(pair[1]);
+
+            RecordingVisitor recursive = new RecordingVisitor();
+            OpenApiDiffWalker recursiveWalker = new OpenApiDiffWalker(false);
+            recursiveWalker.walk(recursive, left, right);
+
+            RecordingVisitor iterative = new RecordingVisitor();
+            OpenApiDiffWalker iterativeWalker = new OpenApiDiffWalker(true);
+            iterativeWalker.walk(iterative, left, right);
+
+            assertEquals(pair[1], recursive.calls, iterative.calls);
+            assertEquals(pair[1], recursiveWalker.getStatistics().getSummary(), iterativeWalker.getStatistics().getSummary());
+        }
+    }
+
+    @Test
+    public void testDeeplyNestedSchema() throws Exception {
+        int depth = 1000;
+
+        // Build and walk with a small stack, which is not enough for a recursive conversion or walk of the schemas
+        OpenApiDiffWalker walker = new OpenApiDiffWalker(true);
+        List<String> removedProperties = new ArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread thread = new Thread(null, () -> {
+            try {
+                ApiModelBuilder builder = new ApiModelBuilder();
+                ApiDocument right = builder.build(nestedSpec(depth, true));
+
+                // The old document goes through the binary encoding, as the documents of a baseline artifact
+                ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+                ApiDocumentCodec.write(encoded, Map.of("nested", builder.build(nestedSpec(depth, false))));
+                ApiDocument left = ApiDocumentCodec.read(new ByteArrayInputStream(encoded.toByteArray()), builder).get("nested");
+
+                walker.walk(new OpenApiDiffVisitor() {
+                    @Override
+                    public void acceptProperty(String key, SchemaDiff schemas) {
+                        if (schemas.getRight() == null) {
+                            removedProperties.add(key);
+                        }
+                    }
+                }, left, right);
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        }, "iterative-walk", 256 * 1024);
+        thread.start();
+        thread.join();
+
+        assertNull(failure.get());
+        assertEquals(List.of("leaf"), removedProperties);
+        assertEquals(depth + 2, walker.getStatistics().getVisitedNodes(NodeKind.PROPERTY));
+        assertEquals(depth + 5, walker.getStatistics().getMaxDepth());
+    }
+
+    /**
+     * @return a spec with a response schema nesting objects and arrays
+     */
+    private static OpenAPI nestedSpec(int depth, boolean removeLeaf) {
+        Schema<?> schema = new ObjectSchema().addProperty(removeLeaf ? "other" : "leaf", new StringSchema());
+        for (int i = 0; i < depth; i++) {
+            schema = i % 2 == 0
+                    ? new ObjectSchema().addProperty("level" + i, schema)
+                    : new io.swagger.v3.oas.models.media.ArraySchema().items(schema);
+        }
+
+        return new OpenAPI().paths(new Paths().addPathItem("/nested", new PathItem().get(new Operation()
+                .responses(new ApiResponses().addApiResponse("200", new io.swagger.v3.oas.models.responses.ApiResponse()
+                        .content(new Content().addMediaType("application/json", new MediaType().schema(schema))))))));
+    }
+}
@@ -0,0 +1,68 @@
+package io.kemtoa.openapi.compat.walker;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import io.kemtoa.openapi.compat.rules.RemovedOperationRule;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import org.junit.Test;
+
+public class OperationFilterTest {
+
+    @Test
+    public void testNoFilter() {
+        assertEquals(2, countErrors(OperationFilter.ALL));
+    }
+
+    @Test
+    public void testPathGlobs() {
+        assertEquals(1, countErrors(OperationFilter.builder().excludePaths(List.of("/user/**")).build()));
+        assertEquals(0, countErrors(OperationFilter.builder().includePaths(List.of("/store/**")).build()));
+        assertEquals(1, countErrors(OperationFilter.builder().includePaths(List.of("/pe?")).build()));
+        assertEquals(0, countErrors(OperationFilter.builder().includePaths(List.of("/pet/*")).build()));
+        assertEquals(2, countErrors(OperationFilter.builder().includePaths(List.of("/pet", "/user/*")).build()));
+    }
+
+    @Test
+    public void testTagsAndOperationIds() {
+        assertEquals(1, countErrors(OperationFilter.builder().includeTags(List.of("pet")).build()));
+        assertEquals(1, countErrors(OperationFilter.builder().excludeTags(List.of("pet")).build()));
+        assertEquals(0, countErrors(OperationFilter.builder().includeOperationIds(List.of("getPetById")).build()));
+        assertEquals(2, countErrors(OperationFilter.builder().excludeOperationIds(List.of("getPetById")).build()));
+    }
+
+    @Test
+    public void testConsumedOperations() throws Exception {
+        Path manifest = Files.createTempFile("consumed", ".txt");
+        try {
+            Files.write(manifest, List.of(
+                    "# Consumed operations",
+                    "GET /pet/{id}",
+                    "",
+                    "post /user/createWithList"
+            ), StandardCharsets.UTF_8);
+
+            OperationFilter filter = OperationFilter.builder().consumedOperations(manifest).build();
+            assertEquals(1, countErrors(filter));
+        } finally {
+            Files.delete(manifest);
+        }
+    }
+
+    private static int countErrors(OperationFilter filter) {
+        OpenAPI left = new OpenAPIV3Parser().read("specs/petstore.yml");
+        OpenAPI right = new OpenAPIV3Parser().read("specs/petstore-removed-operation.yml");
+
+        RemovedOperationRule rule = new RemovedOperationRule();
+        OpenApiDiffWalker walker = new OpenApiDiffWalker();
+        walker.setOperationFilter(filter);
+        walker.walk(rule, left, right);
+
+        return rule.getErrors().size();
+    }
+}
@@ -0,0 +1,48 @@
+package io.kemtoa.openapi.compat.walker;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class PathTemplateTrieTest {
+
+    @Test
+    public void testFind() {
+        PathTemplateTrie trie = new PathTemplateTrie();
+        trie.add("/pets/{id}");
+        trie.add("/pets/{petId}");
+        trie.add("/pets/{id}/photos");
+        trie.add("/files/{name}.{extension}");
+
+        assertEquals(List.of("/pets/{id}", "/pets/{petId}"), trie.find("/pets/{code}"));
+        assertEquals(List.of("/pets/{id}/photos"), trie.find("/pets/{petId}/photos"));
+        assertEquals(List.of("/files/{name}.{extension}"), trie.find("/files/{base}.{ext}"));
+        assertEquals(List.of(), trie.find("/pets"));
+        assertEquals(List.of(), trie.find("/pets/{id}/videos"));
+        assertEquals(List.of(), trie.find("/files/{name}"));
+    }
+
+    @Test
+    public void testTrailingSlash() {
+        PathTemplateTrie trie = new PathTemplateTrie();
+        trie.add("/pets");
+        trie.add("/stores/{id}/");
+
+        assertEquals(List.of(), trie.find("/pets/"));
+        assertEquals(List.of("/pets"), trie.find("/pets"));
+        assertEquals(List.of(), trie.find("/stores/{storeId}"));
+        assertEquals(List.of("/stores/{id}/"), trie.find("/stores/{storeId}/"));
+    }
+
+    @Test
+    public void testParameterRenames() {
+        assertEquals(Map.of("id", "petId", "photo", "photoId"),
+                PathTemplateTrie.parameterRenames("/pets/{id}/photos/{photo}", "/pets/{petId}/photos/{photoId}"));
+        assertEquals(Map.of("extension", "ext"),
+                PathTemplateTrie.parameterRenames("/files/{name}.{extension}", "/files/{name}.{ext}"));
+        assertEquals(Map.of(), PathTemplateTrie.parameterRenames("/pets/{id}", "/pets/{id}"));
+    }
+}
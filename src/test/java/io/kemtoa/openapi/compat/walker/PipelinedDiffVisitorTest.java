@@ -0,0 +1,176 @@
+package io.kemtoa.openapi.compat.walker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import io.kemtoa.openapi.compat.model.ApiDocument;
+import io.kemtoa.openapi.compat.model.ApiModelBuilder;
+import io.kemtoa.openapi.compat.rules.AddedEnumValueInResponseRule;
+import io.kemtoa.openapi.compat.rules.AddedRequiredRequestParameterRule;
+import io.kemtoa.openapi.compat.rules.CompositeRule;
+import io.kemtoa.openapi.compat.rules.Finding;
+import io.kemtoa.openapi.compat.rules.ParameterLocationChangedRule;
+import io.kemtoa.openapi.compat.rules.PropertyRemovedInResponseRule;
+import io.kemtoa.openapi.compat.rules.PropertyTypeChangedRule;
+import io.kemtoa.openapi.compat.rules.RemovedEnumValueInRequestRule;
+import io.kemtoa.openapi.compat.rules.RemovedOperationRule;
+import io.kemtoa.openapi.compat.rules.Rule;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import org.junit.Test;
+
+public class PipelinedDiffVisitorTest {
+
+    private static final List<String[]> SPEC_PAIRS = Arrays.asList(
+            new String[]{"specs/uber.yml", "specs/uber-removed-property.yml"},
+            new String[]{"specs/uber.yml", "specs/uber-type-changed.yml"},
+            new String[]{"specs/uber.yml", "specs/uber-added-enum-value.yml"},
+            new String[]{"specs/uber.yml", "specs/uber-parameter-location-changed.yml"},
+            new String[]{"specs/petstore.yml", "specs/petstore-removed-operation.yml"},
+            new String[]{"specs/petstore.yml", "specs/petstore-added-parameter.yml"},
+            new String[]{"specs/petstore.yml", "specs/petstore-removed-enum-value.yml"},
+            new String[]{"specs/components.yml", "specs/components-changed.yml"}
+    );
+
+    /**
+     * Tests that the rules report the same errors, in the same order, as in a sequential walk.
+     * The small capacity makes the walker wait for the workers.
+     */
+    @Test
+    public void testSameErrorsAsSequentialWalk() {
+        for (String[] pair : SPEC_PAIRS) {
+            ApiModelBuilder builder = new ApiModelBuilder();
+            ApiDocument left = builder.build(new OpenAPIV3Parser().read(pair[0]));
+            ApiDocument right = builder.build(new OpenAPIV3Parser().read(pair[1]));
+
+            CompositeRule sequentialRules = createRules();
+            new OpenApiDiffWalker().walk(sequentialRules, left, right);
+            assertFalse(pair[1], sequentialRules.getErrors().isEmpty());
+
+            for (int threads : new int[]{1, 2, 3, 8}) {
+                CompositeRule rules = createRules();
+                try (PipelinedDiffVisitor pipeline = new PipelinedDiffVisitor(rules.getRules(), threads, 4)) {
+                    new OpenApiDiffWalker().walk(pipeline, left, right);
+                    pipeline.finish();
+                    assertEquals(sequentialRules.getErrors().size(), pipeline.getErrorCount());
+                }
+
+                assertEquals(pair[1] + " with " + threads + " threads", sequentialRules.getErrors(), rules.getErrors());
+            }
+        }
+    }
+
+    /**
+     * Tests that the sequenced findings are passed to the walking thread, in the order of a sequential walk.
+     */
+    @Test
+    public void testSequencedFindings() {
+        Thread walkingThread = Thread.currentThread();
+        for (String[] pair : SPEC_PAIRS) {
+            ApiModelBuilder builder = new ApiModelBuilder();
+            ApiDocument left = builder.build(new OpenAPIV3Parser().read(pair[0]));
+            ApiDocument right = builder.build(new OpenAPIV3Parser().read(pair[1]));
+
+            List<String> sequentialFindings = new ArrayList<>();
+            CompositeRule sequentialRules = createRules();
+            sequentialRules.setFindingListener(finding -> sequentialFindings.add(finding.toString()));
+            new OpenApiDiffWalker().walk(sequentialRules, left, right);
+
+            for (int threads : new int[]{2, 3, 8}) {
+                List<String> findings = new ArrayList<>();
+                CompositeRule rules = createRules();
+                try (PipelinedDiffVisitor pipeline = new PipelinedDiffVisitor(rules.getRules(), threads, 4)) {
+                    Consumer<Finding> listener = pipeline.sequenced(finding -> {
+                        assertSame(walkingThread, Thread.currentThread());
+                        findings.add(finding.toString());
+                    });
+                    rules.setFindingListener(listener::accept);
+                    new OpenApiDiffWalker().walk(pipeline, left, right);
+                    pipeline.finish();
+                }
+
+                assertEquals(pair[1] + " with " + threads + " threads", sequentialFindings, findings);
+            }
+        }
+    }
+
+    /**
+     * Tests that the workers of successive pipelines reuse the threads of the executor.
+     */
+    @Test
+    public void testSharedExecutor() {
+        ApiModelBuilder builder = new ApiModelBuilder();
+        ApiDocument left = builder.build(new OpenAPIV3Parser().read("specs/uber.yml"));
+        ApiDocument right = builder.build(new OpenAPIV3Parser().read("specs/uber-type-changed.yml"));
+
+        CompositeRule sequentialRules = createRules();
+        new OpenApiDiffWalker().walk(sequentialRules, left, right);
+
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+            threads.incrementAndGet();
+            return new Thread(runnable);
+        });
+        try {
+            for (int i = 0; i < 3; i++) {
+                CompositeRule rules = createRules();
+                try (PipelinedDiffVisitor pipeline = new PipelinedDiffVisitor(rules.getRules(), 2, 4, executor)) {
+                    new OpenApiDiffWalker().walk(pipeline, left, right);
+                    pipeline.finish();
+                }
+                assertEquals(sequentialRules.getErrors(), rules.getErrors());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, threads.get());
+    }
+
+    /**
+     * Tests that the failure of a rule is reported to the walking thread.
+     */
+    @Test
+    public void testRuleFailure() {
+        ApiModelBuilder builder = new ApiModelBuilder();
+        ApiDocument left = builder.build(new OpenAPIV3Parser().read("specs/uber.yml"));
+        ApiDocument right = builder.build(new OpenAPIV3Parser().read("specs/uber-removed-property.yml"));
+
+        IllegalArgumentException failure = new IllegalArgumentException("Rule failure");
+        Rule failingRule = new Rule() {
+            @Override
+            public void acceptSchema(SchemaDiff schemas) {
+                throw failure;
+            }
+        };
+
+        try (PipelinedDiffVisitor pipeline = new PipelinedDiffVisitor(
+                Arrays.asList(new PropertyRemovedInResponseRule(), failingRule), 2, 4)) {
+            new OpenApiDiffWalker().walk(pipeline, left, right);
+            pipeline.finish();
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    private static CompositeRule createRules() {
+        return new CompositeRule(
+                new AddedEnumValueInResponseRule(),
+                new AddedRequiredRequestParameterRule(),
+                new ParameterLocationChangedRule(),
+                new PropertyRemovedInResponseRule(),
+                new PropertyTypeChangedRule(),
+                new RemovedEnumValueInRequestRule(),
+                new RemovedOperationRule()
+        );
+    }
+}
@@ -0,0 +1,384 @@
+package io.kemtoa.openapi.compat.walker;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Random OpenAPI specs, and random mutations of these specs
+ *
+ * The specs are JSON trees, so they can be mutated and shrunk field by
+ * field. They use components referencing each other, recursively too, from
+ * the parameters, request bodies and responses of the operations.
+ */
+final class RandomSpecs {
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+    private static final String[] TYPES = {"string", "integer", "number", "boolean"};
+    private static final Map<String, String[]> FORMATS = Map.of(
+            "string", new String[]{"date", "date-time", "uuid", "byte"},
+            "integer", new String[]{"int32", "int64"},
+            "number", new String[]{"float", "double"},
+            "boolean", new String[]{});
+    private static final String[] METHODS = {"get", "post", "put", "delete", "patch"};
+    private static final String SCHEMAS_REF = "#/components/schemas/";
+
+    /**
+     * The kinds of changes made to the specs
+     */
+    enum Mutation {
+        REMOVE_OPERATION,
+        REMOVE_PATH,
+        MOVE_PARAMETER,
+        CHANGE_TYPE,
+        CHANGE_FORMAT,
+        ADD_ENUM_VALUE,
+        REMOVE_ENUM_VALUE,
+        ADD_REQUIRED_PARAMETER,
+        ADD_REQUIRED_PROPERTY,
+        REMOVE_PROPERTY,
+        ADD_RECURSIVE_REF,
+        RETARGET_REF
+    }
+
+    private RandomSpecs() {
+    }
+
+    static ObjectNode generate(Random random) {
+        ObjectNode spec = NODES.objectNode();
+        spec.put("openapi", "3.0.1");
+        spec.putObject("info").put("title", "Generated").put("version", "1.0.0");
+
+        int models = 2 + random.nextInt(4);
+        ObjectNode schemas = NODES.objectNode();
+        for (int i = 0; i < models; i++) {
+            schemas.set("Model" + i, objectSchema(random, models, 0));
+        }
+
+        ObjectNode paths = spec.putObject("paths");
+        int pathCount = 2 + random.nextInt(5);
+        for (int i = 0; i < pathCount; i++) {
+            boolean templated = random.nextBoolean();
+            ObjectNode pathItem = paths.putObject(templated ? "/r" + i + "/{id}" : "/r" + i);
+
+            int operations = 0;
+            for (String method : METHODS) {
+                if (random.nextInt(3) == 0 || (operations == 0 && method.equals("patch"))) {
+                    pathItem.set(method, operation(random, method, "op" + i + method, templated, models));
+                    operations++;
+                }
+            }
+        }
+
+        spec.putObject("components").set("schemas", schemas);
+        return spec;
+    }
+
+    /**
+     * Applies a mutation of the specified kind, when the spec has a node it applies to
+     *
+     * @return a description of the change made, or null when the mutation does not apply
+     */
+    static String mutate(ObjectNode spec, Mutation mutation, Random random) {
+        ObjectNode paths = (ObjectNode) spec.get("paths");
+        List<String> models = fieldNames(spec.path("components").path("schemas"));
+
+        switch (mutation) {
+            case REMOVE_OPERATION: {
+                ObjectNode pathItem = pick(random, children(paths));
+                List<String> methods = fieldNames(pathItem);
+                if (pathItem == null || methods.isEmpty()) {
+                    return null;
+                }
+                String method = methods.get(random.nextInt(methods.size()));
+                pathItem.remove(method);
+                return "removed operation " + method;
+            }
+            case REMOVE_PATH: {
+                List<String> keys = fieldNames(paths);
+                if (keys.isEmpty()) {
+                    return null;
+                }
+                String key = keys.get(random.nextInt(keys.size()));
+                paths.remove(key);
+                return "removed path " + key;
+            }
+            case MOVE_PARAMETER: {
+                ObjectNode parameter = pick(random, collect(paths, n -> n.has("in") && !n.path("in").asText().equals("path")));
+                if (parameter == null) {
+                    return null;
+                }
+                String in = parameter.path("in").asText().equals("query") ? "header" : "query";
+                parameter.put("in", in);
+                return "moved parameter " + parameter.path("name").asText() + " to " + in;
+            }
+            case CHANGE_TYPE: {
+                ObjectNode schema = pick(random, collect(spec, RandomSpecs::isScalarSchema));
+                if (schema == null) {
+                    return null;
+                }
+                String type = schema.path("type").asText();
+                String newType = TYPES[(indexOf(TYPES, type) + 1 + random.nextInt(TYPES.length - 1)) % TYPES.length];
+                schema.put("type", newType);
+                schema.remove("format");
+                schema.remove("enum");
+                return "changed type " + type + " to " + newType;
+            }
+            case CHANGE_FORMAT: {
+                ObjectNode schema = pick(random, collect(spec, n -> isScalarSchema(n) && FORMATS.get(n.path("type").asText()).length > 0));
+                if (schema == null) {
+                    return null;
+                }
+                String[] formats = FORMATS.get(schema.path("type").asText());
+                String format = formats[random.nextInt(formats.length)];
+                if (format.equals(schema.path("format").asText())) {
+                    schema.remove("format");
+                    return "removed format " + format;
+                }
+                schema.put("format", format);
+                return "changed format to " + format;
+            }
+            case ADD_ENUM_VALUE: {
+                ObjectNode schema = pick(random, collect(spec, n -> n.has("enum")));
+                if (schema == null) {
+                    return null;
+                }
+                String value = "v" + random.nextInt(100);
+                ((ArrayNode) schema.get("enum")).add(value);
+                return "added enum value " + value;
+            }
+            case REMOVE_ENUM_VALUE: {
+                ObjectNode schema = pick(random, collect(spec, n -> n.path("enum").size() > 1));
+                if (schema == null) {
+                    return null;
+                }
+                ArrayNode values = (ArrayNode) schema.get("enum");
+                JsonNode value = values.remove(random.nextInt(values.size()));
+                return "removed enum value " + value.asText();
+            }
+            case ADD_REQUIRED_PARAMETER: {
+                List<ObjectNode> operations = new ArrayList<>();
+                for (ObjectNode pathItem : children(paths)) {
+                    operations.addAll(children(pathItem));
+                }
+                ObjectNode operation = pick(random, operations);
+                if (operation == null) {
+                    return null;
+                }
+                String name = "added" + random.nextInt(100);
+                ArrayNode parameters = operation.has("parameters") ? (ArrayNode) operation.get("parameters") : operation.putArray("parameters");
+                parameters.add(parameter(name, random.nextBoolean() ? "query" : "header", true, scalarSchema(random)));
+                return "added required parameter " + name;
+            }
+            case ADD_REQUIRED_PROPERTY: {
+                ObjectNode schema = pick(random, collect(spec, n -> n.has("properties")));
+                if (schema == null) {
+                    return null;
+                }
+                List<String> properties = fieldNames(schema.get("properties"));
+                String property = properties.isEmpty() || random.nextBoolean()
+                        ? "added" + random.nextInt(100)
+                        : properties.get(random.nextInt(properties.size()));
+                if (!schema.path("properties").has(property)) {
+                    ((ObjectNode) schema.get("properties")).set(property, scalarSchema(random));
+                }
+                ArrayNode required = schema.has("required") ? (ArrayNode) schema.get("required") : schema.putArray("required");
+                required.add(property);
+                return "added required property " + property;
+            }
+            case REMOVE_PROPERTY: {
+                ObjectNode schema = pick(random, collect(spec, n -> n.path("properties").size() > 0));
+                if (schema == null) {
+                    return null;
+                }
+                List<String> properties = fieldNames(schema.get("properties"));
+                String property = properties.get(random.nextInt(properties.size()));
+                ((ObjectNode) schema.get("properties")).remove(property);
+                return "removed property " + property;
+            }
+            case ADD_RECURSIVE_REF: {
+                if (models.isEmpty()) {
+                    return null;
+                }
+                String model = models.get(random.nextInt(models.size()));
+                ObjectNode schema = (ObjectNode) spec.get("components").get("schemas").get(model);
+                ObjectNode properties = schema.has("properties") ? (ObjectNode) schema.get("properties") : schema.putObject("properties");
+                String property = "self" + random.nextInt(100);
+                ObjectNode ref = ref(model);
+                properties.set(property, random.nextBoolean() ? ref : NODES.objectNode().put("type", "array").set("items", ref));
+                return "added recursive property " + model + "." + property;
+            }
+            case RETARGET_REF: {
+                ObjectNode ref = pick(random, collect(spec, n -> n.has("$ref")));
+                if (ref == null || models.size() < 2) {
+                    return null;
+                }
+                String target = models.get(random.nextInt(models.size()));
+                ref.put("$ref", SCHEMAS_REF + target);
+                return "changed reference to " + target;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown mutation: " + mutation);
+        }
+    }
+
+    private static ObjectNode operation(Random random, String method, String operationId, boolean templated, int models) {
+        ObjectNode operation = NODES.objectNode();
+        operation.put("operationId", operationId);
+
+        ArrayNode parameters = operation.putArray("parameters");
+        if (templated) {
+            parameters.add(parameter("id", "path", true, NODES.objectNode().put("type", "string")));
+        }
+        int count = random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            parameters.add(parameter("p" + i, random.nextInt(3) == 0 ? "header" : "query", random.nextInt(4) == 0, scalarSchema(random)));
+        }
+
+        if (method.equals("post") || method.equals("put") || method.equals("patch")) {
+            operation.putObject("requestBody")
+                    .put("required", true)
+                    .putObject("content")
+                    .putObject("application/json")
+                    .set("schema", schema(random, models, 1));
+        }
+
+        ObjectNode responses = operation.putObject("responses");
+        responses.putObject("200")
+                .put("description", "OK")
+                .putObject("content")
+                .putObject("application/json")
+                .set("schema", schema(random, models, 1));
+        if (random.nextBoolean()) {
+            responses.putObject("404").put("description", "Not found");
+        }
+        return operation;
+    }
+
+    private static ObjectNode parameter(String name, String in, boolean required, ObjectNode schema) {
+        ObjectNode parameter = NODES.objectNode();
+        parameter.put("name", name);
+        parameter.put("in", in);
+        parameter.put("required", required);
+        parameter.set("schema", schema);
+        return parameter;
+    }
+
+    private static ObjectNode schema(Random random, int models, int depth) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return ref("Model" + random.nextInt(models));
+            case 1:
+                return NODES.objectNode().put("type", "array").set("items", depth < 2 ? schema(random, models, depth + 1) : scalarSchema(random));
+            case 2:
+                return depth < 2 ? objectSchema(random, models, depth + 1) : scalarSchema(random);
+            default:
+                return scalarSchema(random);
+        }
+    }
+
+    private static ObjectNode objectSchema(Random random, int models, int depth) {
+        ObjectNode schema = NODES.objectNode();
+        schema.put("type", "object");
+
+        ObjectNode properties = schema.putObject("properties");
+        ArrayNode required = NODES.arrayNode();
+        int count = 1 + random.nextInt(5);
+        for (int i = 0; i < count; i++) {
+            String name = "f" + i;
+            properties.set(name, random.nextInt(4) == 0 ? schema(random, models, depth + 1) : scalarSchema(random));
+            if (random.nextInt(3) == 0) {
+                required.add(name);
+            }
+        }
+        if (required.size() > 0) {
+            schema.set("required", required);
+        }
+        return schema;
+    }
+
+    private static ObjectNode scalarSchema(Random random) {
+        String type = TYPES[random.nextInt(TYPES.length)];
+        ObjectNode schema = NODES.objectNode();
+        schema.put("type", type);
+
+        String[] formats = FORMATS.get(type);
+        if (formats.length > 0 && random.nextBoolean()) {
+            schema.put("format", formats[random.nextInt(formats.length)]);
+        }
+        if (type.equals("string") && !schema.has("format") && random.nextInt(3) == 0) {
+            ArrayNode values = schema.putArray("enum");
+            int count = 1 + random.nextInt(4);
+            for (int i = 0; i < count; i++) {
+                values.add("v" + i);
+            }
+        }
+        return schema;
+    }
+
+    private static ObjectNode ref(String model) {
+        return NODES.objectNode().put("$ref", SCHEMAS_REF + model);
+    }
+
+    private static boolean isScalarSchema(ObjectNode node) {
+        return node.path("type").isTextual() && FORMATS.containsKey(node.path("type").asText());
+    }
+
+    /**
+     * @return the object nodes of a tree matching a predicate, in document order
+     */
+    static List<ObjectNode> collect(JsonNode root, Predicate<ObjectNode> predicate) {
+        List<ObjectNode> nodes = new ArrayList<>();
+        collect(root, predicate, nodes);
+        return nodes;
+    }
+
+    private static void collect(JsonNode node, Predicate<ObjectNode> predicate, List<ObjectNode> nodes) {
+        if (node instanceof ObjectNode && predicate.test((ObjectNode) node)) {
+            nodes.add((ObjectNode) node);
+        }
+        for (JsonNode child : node) {
+            collect(child, predicate, nodes);
+        }
+    }
+
+    private static List<ObjectNode> children(JsonNode node) {
+        List<ObjectNode> children = new ArrayList<>();
+        for (JsonNode child : node) {
+            if (child instanceof ObjectNode) {
+                children.add((ObjectNode) child);
+            }
+        }
+        return children;
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        if (node != null) {
+            for (Iterator<String> it = node.fieldNames(); it.hasNext(); ) {
+                names.add(it.next());
+            }
+        }
+        return names;
+    }
+
+    private static <T> T pick(Random random, List<T> values) {
+        return values.isEmpty() ? null : values.get(random.nextInt(values.size()));
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
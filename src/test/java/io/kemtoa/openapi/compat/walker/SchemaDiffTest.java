@@ -0,0 +1,51 @@
+package io.kemtoa.openapi.compat.walker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import org.junit.Test;
+
+public class SchemaDiffTest {
+
+    @Test
+    public void testReferencedSchema() {
+        List<SchemaDiff> productDiffs = new ArrayList<>();
+        List<SchemaDiff> propertyDiffs = new ArrayList<>();
+        List<SchemaDiff> schemaDiffs = new ArrayList<>();
+
+        new OpenApiDiffWalker().walk(new OpenApiDiffVisitor() {
+                    @Override
+                    public void acceptSchema(SchemaDiff schemas) {
+                        schemaDiffs.add(schemas);
+                        if (schemas.getLeft() != null && "#/components/schemas/Product".equals(schemas.getLeft().getRef())) {
+                            productDiffs.add(schemas);
+                        }
+                    }
+
+                    @Override
+                    public void acceptProperty(String key, SchemaDiff schemas) {
+                        propertyDiffs.add(schemas);
+                    }
+                },
+                new OpenAPIV3Parser().read("specs/uber.yml"),
+                new OpenAPIV3Parser().read("specs/uber-removed-property.yml"));
+
+        assertTrue(!productDiffs.isEmpty());
+        SchemaDiff product = productDiffs.get(0);
+        assertEquals("object", product.getLeftType());
+        assertEquals("object", product.getRightType());
+        assertEquals(List.of("image"), product.getRemovedProperties());
+        assertEquals(List.of(), product.getAddedProperties());
+        assertEquals(List.of("capacity", "description", "display_name", "product_id"), product.getCommonProperties());
+        assertTrue(product.getRightRequired().isEmpty());
+
+        // The schemas of the properties are visited with the same instance, unless already visited
+        assertTrue(propertyDiffs.stream().anyMatch(schemaDiffs::contains));
+        assertSame(product.getRemovedProperties(), product.getRemovedProperties());
+    }
+}
@@ -0,0 +1,92 @@
+package io.kemtoa.openapi.compat.walker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import io.kemtoa.openapi.compat.CheckResult;
+import io.kemtoa.openapi.compat.CompatibilityChecker;
+import io.kemtoa.openapi.compat.model.ApiDocument;
+import io.kemtoa.openapi.compat.model.ApiModelBuilder;
+import io.kemtoa.openapi.compat.model.ApiPathItem;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import org.junit.Test;
+
+public class TimeBoxedWalkTest {
+
+    @Test
+    public void testChangedPathsWalkedFirst() {
+        ApiModelBuilder builder = new ApiModelBuilder();
+        ApiDocument left = builder.build(new OpenAPIV3Parser().read("specs/uber.yml"));
+        ApiDocument right = builder.build(new OpenAPIV3Parser().read("specs/uber-type-changed.yml"));
+
+        List<String> paths = new ArrayList<>();
+        OpenApiDiffWalker walker = new OpenApiDiffWalker();
+        walker.setTimeBudget(Duration.ofMinutes(1));
+        walker.walk(new OpenApiDiffVisitor() {
+            @Override
+            public void acceptPath(String key, ApiPathItem leftPath, ApiPathItem rightPath) {
+                paths.add(key);
+            }
+        }, left, right);
+
+        // Only the Profile component changed, it is returned by /me
+        assertEquals("/me", paths.get(0));
+        assertEquals(left.getPaths().keySet(), Set.copyOf(paths));
+
+        WalkStatistics statistics = walker.getStatistics();
+        assertTrue(statistics.isComplete());
+        assertEquals(1, statistics.getChangedPaths());
+        assertEquals("5 of 5 paths walked (100%), including 1 of 1 changed paths", statistics.getCoverage());
+    }
+
+    @Test
+    public void testSameFindingsAsFullCheck() {
+        ApiModelBuilder builder = new ApiModelBuilder();
+        ApiDocument left = builder.build(new OpenAPIV3Parser().read("specs/uber.yml"));
+        ApiDocument right = builder.build(new OpenAPIV3Parser().read("specs/uber-type-changed.yml"));
+
+        CompatibilityChecker checker = new CompatibilityChecker();
+        CheckResult full = checker.check(left, right);
+        CheckResult sampled = checker.check(left, right, OperationFilter.ALL, null, Duration.ofMinutes(1));
+
+        assertFalse(full.isCompatible());
+        assertEquals(full.getErrors(), sampled.getErrors());
+    }
+
+    @Test
+    public void testBudgetSpent() {
+        ApiModelBuilder builder = new ApiModelBuilder();
+        ApiDocument left = builder.build(new OpenAPIV3Parser().read("specs/uber.yml"));
+        ApiDocument right = builder.build(new OpenAPIV3Parser().read("specs/uber-type-changed.yml"));
+
+        OpenApiDiffWalker walker = new OpenApiDiffWalker();
+        walker.setTimeBudget(Duration.ZERO);
+        walker.walk(new OpenApiDiffVisitor() {}, left, right);
+
+        WalkStatistics statistics = walker.getStatistics();
+        assertFalse(statistics.isComplete());
+        assertEquals(0, statistics.getVisitedNodes(NodeKind.PATH));
+        assertEquals("0 of 5 paths walked (0%), including 0 of 1 changed paths", statistics.getCoverage());
+    }
+
+    @Test
+    public void testStratifiedByFirstSegment() {
+        List<String> paths = List.of("/pets", "/pets/{id}", "/pets/{id}/photos", "/stores", "/stores/{id}", "/users");
+
+        List<String> ordered = PathSampler.stratify(paths, path -> path);
+
+        assertEquals(Set.copyOf(paths), Set.copyOf(ordered));
+        assertEquals(Set.of("pets", "stores", "users"),
+                ordered.subList(0, 3).stream().map(PathSampler::firstSegment).collect(Collectors.toSet()));
+        assertEquals(Set.of("pets", "stores"),
+                ordered.subList(3, 5).stream().map(PathSampler::firstSegment).collect(Collectors.toSet()));
+        assertEquals(ordered, PathSampler.stratify(paths, path -> path));
+    }
+}
@@ -0,0 +1,52 @@
+package io.kemtoa.openapi.compat.walker;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.kemtoa.openapi.compat.rules.RemovedOperationRule;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+public class WalkEventTest {
+
+    @Test
+    public void testEventsRecorded() throws Exception {
+        Path file = Files.createTempFile("walk", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(WalkEvent.class);
+            recording.enable(PathWalkEvent.class);
+            recording.start();
+
+            new OpenApiDiffWalker().walk(new RemovedOperationRule(),
+                    new OpenAPIV3Parser().read("specs/petstore.yml"),
+                    new OpenAPIV3Parser().read("specs/petstore-removed-operation.yml"));
+
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            List<RecordedEvent> walks = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("io.kemtoa.openapi.compat.Walk"))
+                    .collect(Collectors.toList());
+            List<RecordedEvent> pathWalks = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("io.kemtoa.openapi.compat.PathWalk"))
+                    .collect(Collectors.toList());
+
+            assertEquals(1, walks.size());
+            assertEquals(2, walks.get(0).getInt("errors"));
+            assertEquals(walks.get(0).getInt("paths"), pathWalks.size());
+            assertEquals(2, pathWalks.stream().mapToInt(e -> e.getInt("errors")).sum());
+            assertEquals(walks.get(0).getLong("visitedNodes"),
+                    pathWalks.stream().mapToLong(e -> e.getLong("visitedNodes")).sum());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package io.kemtoa.openapi.compat.walker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.kemtoa.openapi.compat.CheckResult;
+import io.kemtoa.openapi.compat.CompatibilityChecker;
+import io.kemtoa.openapi.compat.model.ApiDocument;
+import io.kemtoa.openapi.compat.model.ApiModelBuilder;
+import io.kemtoa.openapi.compat.model.RefResolver;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import io.swagger.v3.parser.core.models.ParseOptions;
+import org.junit.Test;
+
+/**
+ * Compares the findings of the walk modes on randomly mutated specs
+ *
+ * Base specs are generated and mutated at random, and each pair of specs is
+ * checked with every configuration of the walk. The findings must be the
+ * ones of the reference configuration: references resolved by the parser,
+ * recursive walk and rules evaluated by the walking thread. A pair of specs
+ * giving other findings is shrunk to a minimal pair before being reported.
+ * A check failing with any configuration, the reference one included,
+ * fails the test.
+ *
+ * The run is reproducible for a given seed. The number of cases and the
+ * seed can be set with the 'openapi.mutation.cases' and
+ * 'openapi.mutation.seed' system properties.
+ */
+public class WalkModeMutationTest {
+    private static final int CASES = Integer.getInteger("openapi.mutation.cases", 500);
+    private static final long SEED = Long.getLong("openapi.mutation.seed", 20261019L);
+    private static final int CASES_PER_BASE_SPEC = 50;
+    private static final int MAX_MUTATIONS = 4;
+
+    private static final Configuration REFERENCE = new Configuration(false, false, 1);
+    private static final List<Configuration> CONFIGURATIONS = List.of(
+            new Configuration(false, true, 1),
+            new Configuration(false, false, 3),
+            new Configuration(true, false, 1),
+            new Configuration(true, true, 1),
+            new Configuration(true, true, 3));
+
+    private static final class Configuration {
+        private final boolean lazyRefResolution;
+        private final boolean iterativeWalk;
+        private final int ruleThreads;
+        private final CompatibilityChecker checker;
+
+        private Configuration(boolean lazyRefResolution, boolean iterativeWalk, int ruleThreads) {
+            this.lazyRefResolution = lazyRefResolution;
+            this.iterativeWalk = iterativeWalk;
+            this.ruleThreads = ruleThreads;
+            this.checker = new CompatibilityChecker(lazyRefResolution, iterativeWalk, ruleThreads);
+        }
+
+        /**
+         * @return the findings of the check of a pair of specs
+         */
+        private List<String> findings(JsonNode left, JsonNode right) {
+            ApiModelBuilder builder = new ApiModelBuilder();
+            ApiDocument documentLeft = parse(builder, left);
+            ApiDocument documentRight = parse(builder, right);
+            if (documentLeft == null || documentRight == null) {
+                return List.of("unparsable");
+            }
+
+            CheckResult result = checker.check(documentLeft, documentRight);
+            return result.getErrors();
+        }
+
+        /**
+         * @return whether the check of a pair of specs gives other findings than the reference configuration,
+         * false when either check fails
+         */
+        private boolean mismatches(JsonNode left, JsonNode right) {
+            try {
+                return !REFERENCE.findings(left, right).equals(findings(left, right));
+            } catch (RuntimeException | StackOverflowError e) {
+                return false;
+            }
+        }
+
+        private ApiDocument parse(ApiModelBuilder builder, JsonNode spec) {
+            ParseOptions options = new ParseOptions();
+            options.setResolve(!lazyRefResolution);
+
+            OpenAPI openApi = new OpenAPIV3Parser().readContents(spec.toString(), null, options).getOpenAPI();
+            return openApi != null ? builder.build(new RefResolver(openApi)) : null;
+        }
+
+        @Override
+        public String toString() {
+            return (lazyRefResolution ? "lazy" : "eager") + " references, "
+                    + (iterativeWalk ? "iterative" : "recursive") + " walk, " + ruleThreads + " rule threads";
+        }
+    }
+
+    /**
+     * A base spec and its mutated version
+     */
+    private static final class MutationCase {
+        private final int index;
+        private final ObjectNode left;
+        private final ObjectNode right;
+        private final List<String> mutations = new ArrayList<>();
+        private final List<RandomSpecs.Mutation> kinds = new ArrayList<>();
+        private List<String> referenceFindings;
+        private Configuration mismatch;
+        private Configuration failed;
+        private Throwable failure;
+
+        private MutationCase(int index) {
+            this.index = index;
+            this.left = RandomSpecs.generate(new Random(SEED + index / CASES_PER_BASE_SPEC));
+            this.right = left.deepCopy();
+
+            Random random = new Random(SEED * 31 + index);
+            RandomSpecs.Mutation[] values = RandomSpecs.Mutation.values();
+            int count = 1 + random.nextInt(MAX_MUTATIONS);
+            for (int tries = 0; mutations.size() < count && tries < 100; tries++) {
+                RandomSpecs.Mutation kind = values[random.nextInt(values.length)];
+                String mutation = RandomSpecs.mutate(right, kind, random);
+                if (mutation != null) {
+                    mutations.add(mutation);
+                    kinds.add(kind);
+                }
+            }
+        }
+
+        private MutationCase run() {
+            try {
+                referenceFindings = REFERENCE.findings(left, right);
+            } catch (RuntimeException | StackOverflowError e) {
+                failed = REFERENCE;
+                failure = e;
+                return this;
+            }
+
+            for (Configuration configuration : CONFIGURATIONS) {
+                List<String> findings;
+                try {
+                    findings = configuration.findings(left, right);
+                } catch (RuntimeException | StackOverflowError e) {
+                    failed = configuration;
+                    failure = e;
+                    break;
+                }
+                if (!referenceFindings.equals(findings)) {
+                    mismatch = configuration;
+                    break;
+                }
+            }
+            return this;
+        }
+    }
+
+    @Test
+    public void testSameFindingsAsReferenceWalk() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        List<MutationCase> cases = new ArrayList<>();
+        try {
+            List<Future<MutationCase>> results = new ArrayList<>();
+            for (int i = 0; i < CASES; i++) {
+                int index = i;
+                results.add(executor.submit(() -> new MutationCase(index).run()));
+            }
+            for (Future<MutationCase> result : results) {
+                cases.add(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<RandomSpecs.Mutation, Integer> applied = new EnumMap<>(RandomSpecs.Mutation.class);
+        int incompatibleCases = 0;
+        for (MutationCase mutationCase : cases) {
+            // Any configuration failing on a case fails the test, the reference one included
+            if (mutationCase.failure != null) {
+                throw new AssertionError("Case " + mutationCase.index + " of seed " + SEED + " failed with " + mutationCase.failed + "\n"
+                        + "Mutations: " + mutationCase.mutations + "\n"
+                        + "Old spec:\n" + Json.pretty(mutationCase.left) + "\n"
+                        + "New spec:\n" + Json.pretty(mutationCase.right), mutationCase.failure);
+            }
+
+            mutationCase.kinds.forEach(kind -> applied.merge(kind, 1, Integer::sum));
+            if (!mutationCase.referenceFindings.isEmpty()) {
+                incompatibleCases++;
+            }
+
+            if (mutationCase.mismatch != null) {
+                fail(describe(mutationCase));
+            }
+        }
+
+        // The harness is only meaningful when the mutations are applied and detected
+        assertEquals(applied.toString(), RandomSpecs.Mutation.values().length, applied.size());
+        assertTrue("Only " + incompatibleCases + " incompatible cases", incompatibleCases > CASES / 4);
+    }
+
+    /**
+     * @return the description of a case, shrunk to the smallest specs still giving other findings
+     */
+    private static String describe(MutationCase mutationCase) throws JsonProcessingException {
+        Configuration configuration = mutationCase.mismatch;
+        ObjectNode left = mutationCase.left;
+        ObjectNode right = mutationCase.right;
+
+        boolean shrunk = true;
+        while (shrunk) {
+            shrunk = false;
+            for (List<Object> pointer : pointers(left, right)) {
+                ObjectNode shrunkLeft = left.deepCopy();
+                ObjectNode shrunkRight = right.deepCopy();
+                boolean removed = remove(shrunkLeft, pointer) | remove(shrunkRight, pointer);
+
+                if (removed && configuration.mismatches(shrunkLeft, shrunkRight)) {
+                    left = shrunkLeft;
+                    right = shrunkRight;
+                    shrunk = true;
+                }
+            }
+        }
+
+        return "Case " + mutationCase.index + " of seed " + SEED + " with " + configuration + "\n"
+                + "Mutations: " + mutationCase.mutations + "\n"
+                + "Reference findings: " + REFERENCE.findings(left, right) + "\n"
+                + "Findings: " + configuration.findings(left, right) + "\n"
+                + "Old spec:\n" + Json.pretty(left) + "\n"
+                + "New spec:\n" + Json.pretty(right);
+    }
+
+    /**
+     * @return the paths of the fields and elements of both specs, outermost first
+     */
+    private static List<List<Object>> pointers(JsonNode left, JsonNode right) {
+        Map<String, List<Object>> pointers = new LinkedHashMap<>();
+        for (JsonNode root : new JsonNode[]{left, right}) {
+            Deque<Map.Entry<List<Object>, JsonNode>> queue = new ArrayDeque<>();
+            queue.add(Map.entry(List.of(), root));
+            while (!queue.isEmpty()) {
+                Map.Entry<List<Object>, JsonNode> entry = queue.poll();
+                JsonNode node = entry.getValue();
+                if (node.isObject()) {
+                    for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+                        Map.Entry<String, JsonNode> field = it.next();
+                        queue.add(Map.entry(child(entry.getKey(), field.getKey()), field.getValue()));
+                    }
+                } else if (node.isArray()) {
+                    for (int i = 0; i < node.size(); i++) {
+                        queue.add(Map.entry(child(entry.getKey(), i), node.get(i)));
+                    }
+                }
+                if (!entry.getKey().isEmpty()) {
+                    pointers.putIfAbsent(entry.getKey().toString(), entry.getKey());
+                }
+            }
+        }
+        return new ArrayList<>(pointers.values());
+    }
+
+    private static List<Object> child(List<Object> pointer, Object segment) {
+        List<Object> child = new ArrayList<>(pointer);
+        child.add(segment);
+        return child;
+    }
+
+    /**
+     * Removes the field or element at a path, when present
+     */
+    private static boolean remove(JsonNode root, List<Object> pointer) {
+        JsonNode parent = root;
+        for (Object segment : pointer.subList(0, pointer.size() - 1)) {
+            parent = segment instanceof String ? parent.get((String) segment) : parent.get((Integer) segment);
+            if (parent == null) {
+                return false;
+            }
+        }
+
+        Object last = pointer.get(pointer.size() - 1);
+        if (last instanceof String && parent instanceof ObjectNode) {
+            return ((ObjectNode) parent).remove((String) last) != null;
+        } else if (last instanceof Integer && parent instanceof ArrayNode && (Integer) last < parent.size()) {
+            ((ArrayNode) parent).remove((Integer) last);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,30 @@
+package io.kemtoa.openapi.compat.walker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import org.junit.Test;
+
+public class WalkStatisticsTest {
+
+    @Test
+    public void testRecursiveSchema() {
+        OpenApiDiffWalker walker = new OpenApiDiffWalker();
+        walker.walk(new OpenApiDiffVisitor() {},
+                new OpenAPIV3Parser().read("specs/recursive.yml"),
+                new OpenAPIV3Parser().read("specs/recursive.yml"));
+
+        WalkStatistics statistics = walker.getStatistics();
+        assertEquals(1, statistics.getVisitedNodes(NodeKind.PATH));
+        assertEquals(1, statistics.getVisitedNodes(NodeKind.OPERATION));
+        assertEquals(2, statistics.getVisitedNodes(NodeKind.RESPONSE));
+        assertTrue(statistics.getSchemaResolutions() > 0);
+        assertTrue(statistics.getCycleCutOffs() > 0);
+        assertTrue(statistics.getMaxDepth() >= 6);
+
+        assertEquals("#/components/schemas/widget", statistics.getHottestComponents(1).get(0).getKey());
+        assertEquals("/resources/widget/{code}", statistics.getHottestPaths(1).get(0).getKey());
+        assertEquals(statistics.getVisitedNodes(), (long) statistics.getHottestPaths(1).get(0).getValue());
+    }
+}